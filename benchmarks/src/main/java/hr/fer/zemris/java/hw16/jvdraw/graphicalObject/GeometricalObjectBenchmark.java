@@ -0,0 +1,179 @@
+package hr.fer.zemris.java.hw16.jvdraw.graphicalObject;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Razred koji mjeri operacije nad pojedinim objektom: parsiranje retka .jvd
+ * datoteke metodama <code>createFromJVDLine</code>, stvaranje retka metodom
+ * {@link GeometricalObject#toJVD()} te računanje površine metodama
+ * {@link GeometricalObject#getBoundingBox()} i
+ * {@link GeometricalObject#boundsInto(Rectangle)}, za svaku vrstu objekta.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GeometricalObjectBenchmark {
+
+	/** Članska varijabla koja predstavlja liniju */
+	private Line line;
+
+	/** Članska varijabla koja predstavlja kružnicu */
+	private Circle circle;
+
+	/** Članska varijabla koja predstavlja ispunjenu kružnicu */
+	private FilledCircle filledCircle;
+
+	/** Članska varijabla koja predstavlja redak .jvd datoteke s linijom */
+	private String lineJVD;
+
+	/** Članska varijabla koja predstavlja redak .jvd datoteke s kružnicom */
+	private String circleJVD;
+
+	/**
+	 * Članska varijabla koja predstavlja redak .jvd datoteke s ispunjenom
+	 * kružnicom
+	 */
+	private String filledCircleJVD;
+
+	/**
+	 * Članska varijabla koja predstavlja pravokutnik u koji se zapisuje
+	 * površina (vidi {@link GeometricalObject#boundsInto(Rectangle)})
+	 */
+	private Rectangle bounds;
+
+	/**
+	 * Metoda koja priprema objekte i retke .jvd datoteke
+	 */
+	@Setup
+	public void setUp() {
+		line = new Line(new Point(120, 340), new Point(1250, 980), new Color(255, 128, 0));
+		circle = new Circle(new Point(640, 480), 125, new Color(0, 64, 255));
+		filledCircle = new FilledCircle(new Point(1024, 768), 250, new Color(12, 34, 56), new Color(200, 150, 100));
+
+		lineJVD = line.toJVD();
+		circleJVD = circle.toJVD();
+		filledCircleJVD = filledCircle.toJVD();
+		bounds = new Rectangle();
+	}
+
+	/**
+	 * Metoda koja mjeri parsiranje retka s linijom
+	 *
+	 * @return parsirana linija
+	 */
+	@Benchmark
+	public Line lineFromJVD() {
+		return Line.createFromJVDLine(lineJVD);
+	}
+
+	/**
+	 * Metoda koja mjeri parsiranje retka s kružnicom
+	 *
+	 * @return parsirana kružnica
+	 */
+	@Benchmark
+	public Circle circleFromJVD() {
+		return Circle.createFromJVDLine(circleJVD);
+	}
+
+	/**
+	 * Metoda koja mjeri parsiranje retka s ispunjenom kružnicom
+	 *
+	 * @return parsirana ispunjena kružnica
+	 */
+	@Benchmark
+	public FilledCircle filledCircleFromJVD() {
+		return FilledCircle.createFromJVDLine(filledCircleJVD);
+	}
+
+	/**
+	 * Metoda koja mjeri stvaranje retka s linijom
+	 *
+	 * @return redak .jvd datoteke
+	 */
+	@Benchmark
+	public String lineToJVD() {
+		return line.toJVD();
+	}
+
+	/**
+	 * Metoda koja mjeri stvaranje retka s kružnicom
+	 *
+	 * @return redak .jvd datoteke
+	 */
+	@Benchmark
+	public String circleToJVD() {
+		return circle.toJVD();
+	}
+
+	/**
+	 * Metoda koja mjeri stvaranje retka s ispunjenom kružnicom
+	 *
+	 * @return redak .jvd datoteke
+	 */
+	@Benchmark
+	public String filledCircleToJVD() {
+		return filledCircle.toJVD();
+	}
+
+	/**
+	 * Metoda koja mjeri računanje površine linije
+	 *
+	 * @return površina linije
+	 */
+	@Benchmark
+	public Rectangle lineBoundingBox() {
+		return line.getBoundingBox();
+	}
+
+	/**
+	 * Metoda koja mjeri računanje površine kružnice
+	 *
+	 * @return površina kružnice
+	 */
+	@Benchmark
+	public Rectangle circleBoundingBox() {
+		return circle.getBoundingBox();
+	}
+
+	/**
+	 * Metoda koja mjeri zapisivanje površine linije u postojeći pravokutnik
+	 *
+	 * @return površina linije
+	 */
+	@Benchmark
+	public Rectangle lineBoundsInto() {
+		line.boundsInto(bounds);
+		return bounds;
+	}
+
+	/**
+	 * Metoda koja mjeri zapisivanje površine kružnice u postojeći pravokutnik
+	 *
+	 * @return površina kružnice
+	 */
+	@Benchmark
+	public Rectangle circleBoundsInto() {
+		circle.boundsInto(bounds);
+		return bounds;
+	}
+}
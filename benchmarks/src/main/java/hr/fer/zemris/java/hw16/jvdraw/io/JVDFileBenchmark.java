@@ -0,0 +1,214 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.model.BenchmarkData;
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+
+/**
+ * Razred koji mjeri učitavanje i zapisivanje cijelih .jvd i .jvdb datoteka:
+ * metode {@link JVDrawingModel#loadFromJVD(Path, boolean)} (slijedno i
+ * paralelno), {@link JVDrawingModel#loadFromBinary(Path)},
+ * {@link JVDrawingModel#toString()} te zapisivanje metodama
+ * {@link JVDrawingModel#writeJVD(WritableByteChannel)} i
+ * {@link JVDrawingModel#writeBinary(WritableByteChannel)} u kanal koji
+ * odbacuje oktete.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx4g" })
+public class JVDFileBenchmark {
+
+	/** Članska varijabla koja predstavlja broj objekata u datoteci */
+	@Param({ "10000", "100000", "1000000" })
+	public int size;
+
+	/** Članska varijabla koja predstavlja model koji se zapisuje */
+	private JVDrawingModel model;
+
+	/** Članska varijabla koja predstavlja putanju do .jvd datoteke */
+	private Path jvdFile;
+
+	/** Članska varijabla koja predstavlja putanju do .jvdb datoteke */
+	private Path jvdbFile;
+
+	/**
+	 * Metoda koja stvara model te ga zapisuje u privremene datoteke
+	 *
+	 * @throws IOException
+	 *             ukoliko datoteke nije moguće zapisati
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		model = BenchmarkData.model(size);
+
+		jvdFile = Files.createTempFile("jvdraw-bench", ".jvd");
+		try (WritableByteChannel channel = Files.newByteChannel(jvdFile, StandardOpenOption.WRITE)) {
+			model.writeJVD(channel);
+		}
+
+		jvdbFile = Files.createTempFile("jvdraw-bench", "." + JVDBinaryFormat.EXTENSION);
+		try (WritableByteChannel channel = Files.newByteChannel(jvdbFile, StandardOpenOption.WRITE)) {
+			model.writeBinary(channel);
+		}
+	}
+
+	/**
+	 * Metoda koja briše privremene datoteke
+	 *
+	 * @throws IOException
+	 *             ukoliko datoteke nije moguće obrisati
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(jvdFile);
+		Files.deleteIfExists(jvdbFile);
+	}
+
+	/**
+	 * Metoda koja mjeri slijedno učitavanje .jvd datoteke u model
+	 *
+	 * @return učitani model
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	@Benchmark
+	public JVDrawingModel loadFromJVD() throws IOException {
+		JVDrawingModel loaded = new JVDrawingModel();
+		loaded.loadFromJVD(jvdFile, false);
+		return loaded;
+	}
+
+	/**
+	 * Metoda koja mjeri paralelno učitavanje .jvd datoteke u model
+	 *
+	 * @return učitani model
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	@Benchmark
+	public JVDrawingModel loadFromJVDParallel() throws IOException {
+		JVDrawingModel loaded = new JVDrawingModel();
+		loaded.loadFromJVD(jvdFile, true);
+		return loaded;
+	}
+
+	/**
+	 * Metoda koja mjeri samo parsiranje .jvd datoteke, bez punjenja modela
+	 *
+	 * @return parsirani objekti
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	@Benchmark
+	public List<GeometricalObject> parseJVD() throws IOException {
+		return new JVDParser().parse(jvdFile);
+	}
+
+	/**
+	 * Metoda koja mjeri učitavanje .jvdb datoteke u model
+	 *
+	 * @return učitani model
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	@Benchmark
+	public JVDrawingModel loadFromBinary() throws IOException {
+		JVDrawingModel loaded = new JVDrawingModel();
+		loaded.loadFromBinary(jvdbFile);
+		return loaded;
+	}
+
+	/**
+	 * Metoda koja mjeri stvaranje tekstualne reprezentacije cijelog modela
+	 *
+	 * @return tekstualna reprezentacija modela
+	 */
+	@Benchmark
+	public String modelToString() {
+		return model.toString();
+	}
+
+	/**
+	 * Metoda koja mjeri zapisivanje modela u .jvd formatu
+	 *
+	 * @return broj zapisanih okteta
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	@Benchmark
+	public long writeJVD() throws IOException {
+		NullChannel channel = new NullChannel();
+		model.writeJVD(channel);
+		return channel.written;
+	}
+
+	/**
+	 * Metoda koja mjeri zapisivanje modela u .jvdb formatu
+	 *
+	 * @return broj zapisanih okteta
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	@Benchmark
+	public long writeBinary() throws IOException {
+		NullChannel channel = new NullChannel();
+		model.writeBinary(channel);
+		return channel.written;
+	}
+
+	/**
+	 * Privatni razred koji implementira sučelje {@link WritableByteChannel}, a
+	 * koji zapisane oktete samo prebrojava
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class NullChannel implements WritableByteChannel {
+
+		/** Članska varijabla koja predstavlja broj zapisanih okteta */
+		private long written;
+
+		@Override
+		public int write(ByteBuffer src) {
+			int count = src.remaining();
+			src.position(src.limit());
+			written += count;
+			return count;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
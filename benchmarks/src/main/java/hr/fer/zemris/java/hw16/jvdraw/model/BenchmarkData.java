@@ -0,0 +1,101 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+
+/**
+ * Pomoćni razred koji stvara ponovljive (uz isto sjeme) nasumične crteže za
+ * mjerenja. Objekti su jednoliko raspoređeni po površini
+ * {@value #WIDTH}x{@value #HEIGHT}, a vrste se izmjenjuju jednako često.
+ *
+ * @author Davor Češljaš
+ */
+public class BenchmarkData {
+
+	/** Konstanta koja predstavlja širinu površine crteža */
+	public static final int WIDTH = 2048;
+
+	/** Konstanta koja predstavlja visinu površine crteža */
+	public static final int HEIGHT = 2048;
+
+	/** Konstanta koja predstavlja pretpostavljeno sjeme generatora */
+	public static final long SEED = 42;
+
+	/** Konstanta koja predstavlja najveću duljinu linije i polumjer kružnice */
+	private static final int MAX_EXTENT = 32;
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 */
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Metoda koja stvara <b>count</b> nasumičnih objekata koristeći sjeme
+	 * <b>seed</b>
+	 *
+	 * @param count
+	 *            broj objekata
+	 * @param seed
+	 *            sjeme generatora
+	 * @return {@link List} stvorenih objekata
+	 */
+	public static List<GeometricalObject> objects(int count, long seed) {
+		Random random = new Random(seed);
+		List<GeometricalObject> objects = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			objects.add(object(random, i % 3));
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Metoda koja stvara model koji sadrži <b>count</b> nasumičnih objekata
+	 * stvorenih uz sjeme {@value #SEED}
+	 *
+	 * @param count
+	 *            broj objekata
+	 * @return stvoreni model
+	 */
+	public static JVDrawingModel model(int count) {
+		JVDrawingModel model = new JVDrawingModel();
+		model.addAll(objects(count, SEED));
+		return model;
+	}
+
+	/**
+	 * Metoda koja stvara jedan nasumični objekt vrste <b>kind</b> (0 za
+	 * liniju, 1 za kružnicu i 2 za ispunjenu kružnicu)
+	 *
+	 * @param random
+	 *            generator nasumičnih brojeva
+	 * @param kind
+	 *            vrsta objekta
+	 * @return stvoreni objekt
+	 */
+	public static GeometricalObject object(Random random, int kind) {
+		Point center = new Point(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+		Color color = new Color(random.nextInt(0x1000000));
+
+		switch (kind) {
+		case 0:
+			Point end = new Point(center.x + random.nextInt(2 * MAX_EXTENT) - MAX_EXTENT,
+					center.y + random.nextInt(2 * MAX_EXTENT) - MAX_EXTENT);
+			return new Line(center, end, color);
+		case 1:
+			return new Circle(center, 1 + random.nextInt(MAX_EXTENT), color);
+		default:
+			return new FilledCircle(center, 1 + random.nextInt(MAX_EXTENT), color,
+					new Color(random.nextInt(0x1000000)));
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+
+/**
+ * Razred koji mjeri osnovne operacije razreda {@link JVDrawingModel} nad
+ * modelima od 1 000 do 1 000 000 objekata. Kako bi veličina modela tijekom
+ * mjerenja ostala ista, dodavanje se mjeri zajedno s brisanjem dodanog
+ * objekta, a brisanje s ponovnim dodavanjem obrisanog objekta. Razred se
+ * nalazi u paketu modela kako bi mogao mjeriti metodu
+ * {@link JVDrawingModel#findBoundingBox()}.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ModelBenchmark {
+
+	/** Članska varijabla koja predstavlja broj objekata u modelu */
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	/** Članska varijabla koja predstavlja model nad kojim se mjeri */
+	private JVDrawingModel model;
+
+	/** Članska varijabla koja predstavlja objekte modela */
+	private List<GeometricalObject> objects;
+
+	/** Članska varijabla koja predstavlja objekt koji se dodaje u model */
+	private GeometricalObject extra;
+
+	/** Članska varijabla koja predstavlja generator nasumičnih pozicija */
+	private Random random;
+
+	/**
+	 * Metoda koja priprema model prije svake iteracije mjerenja
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		model = BenchmarkData.model(size);
+		objects = new ArrayList<>(model.objectsIntersecting(null));
+		extra = BenchmarkData.object(new Random(), 0);
+		random = new Random(BenchmarkData.SEED);
+	}
+
+	/**
+	 * Metoda koja mjeri dodavanje objekta na kraj modela i njegovo brisanje
+	 */
+	@Benchmark
+	public void addAndRemoveLast() {
+		model.add(extra);
+		model.remove(extra);
+	}
+
+	/**
+	 * Metoda koja mjeri brisanje objekta s nasumične pozicije i njegovo
+	 * ponovno dodavanje na kraj modela
+	 */
+	@Benchmark
+	public void removeAndAddBack() {
+		GeometricalObject object = objects.get(random.nextInt(size));
+		model.remove(object);
+		model.add(object);
+	}
+
+	/**
+	 * Metoda koja mjeri traženje pozicije nasumičnog objekta
+	 *
+	 * @return pozicija objekta
+	 */
+	@Benchmark
+	public int indexOf() {
+		return model.indexOf(objects.get(random.nextInt(size)));
+	}
+
+	/**
+	 * Metoda koja mjeri dohvat objekta na nasumičnoj poziciji
+	 *
+	 * @return dohvaćeni objekt
+	 */
+	@Benchmark
+	public GeometricalObject getObject() {
+		return model.getObject(random.nextInt(size));
+	}
+
+	/**
+	 * Metoda koja mjeri računanje površine koja obuhvaća sve objekte modela
+	 *
+	 * @return površina koja obuhvaća sve objekte
+	 */
+	@Benchmark
+	public Rectangle findBoundingBox() {
+		return model.findBoundingBox();
+	}
+}
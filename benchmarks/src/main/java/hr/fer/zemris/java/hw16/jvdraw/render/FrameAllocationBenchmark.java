@@ -0,0 +1,200 @@
+package hr.fer.zemris.java.hw16.jvdraw.render;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+import hr.fer.zemris.java.hw16.jvdraw.model.BenchmarkData;
+
+/**
+ * Razred koji mjeri zauzeće memorije jednog prolaza (okvira) kroz sve
+ * objekte: računanje površina metodama
+ * {@link GeometricalObject#getBoundingBox()} i
+ * {@link GeometricalObject#boundsInto(Rectangle)} te iscrtavanje metodom
+ * {@link GeometricalObject#paint(Graphics2D)} i razredom
+ * {@link BatchedPainter}. Mjerenja je potrebno pokrenuti uz profiler
+ * sakupljača smeća:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar FrameAllocationBenchmark -prof gc
+ * </pre>
+ *
+ * Vrijednost <code>gc.alloc.rate.norm</code> (okteti po okviru) za metode
+ * {@link #boundsInto()}, {@link #paintLines()} i {@link #paintLinesBatched()}
+ * je 0. Iscrtavanje kružnica zauzima memoriju unutar samog Java2D programskog
+ * cjevovoda (oko 300 okteta po pozivu <code>drawOval</code> ili
+ * <code>fillOval</code>), neovisno o ovom programu.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FrameAllocationBenchmark {
+
+	/** Članska varijabla koja predstavlja broj objekata */
+	@Param({ "10000", "100000" })
+	public int size;
+
+	/** Članska varijabla koja predstavlja sve objekte */
+	private List<GeometricalObject> objects;
+
+	/** Članska varijabla koja predstavlja samo linije */
+	private List<GeometricalObject> lines;
+
+	/**
+	 * Članska varijabla koja predstavlja pravokutnik u koji se zapisuju
+	 * površine
+	 */
+	private Rectangle bounds;
+
+	/** Članska varijabla koja predstavlja površinu slike */
+	private Rectangle area;
+
+	/** Članska varijabla koja predstavlja primjerak razreda {@link BatchedPainter} */
+	private BatchedPainter painter;
+
+	/**
+	 * Članska varijabla koja predstavlja primjerak razreda {@link Graphics2D}
+	 * slike u koju se iscrtava
+	 */
+	private Graphics2D g2;
+
+	/**
+	 * Metoda koja priprema objekte i sliku
+	 */
+	@Setup
+	public void setUp() {
+		objects = BenchmarkData.objects(size, BenchmarkData.SEED);
+		lines = new ArrayList<>();
+		for (GeometricalObject object : objects) {
+			if (object instanceof Line) {
+				lines.add(object);
+			}
+		}
+
+		bounds = new Rectangle();
+		area = new Rectangle(0, 0, BenchmarkData.WIDTH, BenchmarkData.HEIGHT);
+		painter = new BatchedPainter();
+		g2 = new BufferedImage(BenchmarkData.WIDTH, BenchmarkData.HEIGHT, BufferedImage.TYPE_INT_RGB)
+				.createGraphics();
+	}
+
+	/**
+	 * Metoda koja oslobađa resurse slike
+	 */
+	@TearDown
+	public void tearDown() {
+		g2.dispose();
+	}
+
+	/**
+	 * Metoda koja mjeri računanje površina svih objekata metodom
+	 * {@link GeometricalObject#getBoundingBox()}, koja stvara novi
+	 * pravokutnik po objektu
+	 *
+	 * @return zbroj koordinata površina
+	 */
+	@Benchmark
+	public long getBoundingBox() {
+		long sum = 0;
+		for (GeometricalObject object : objects) {
+			Rectangle box = object.getBoundingBox();
+			sum += box.x + box.y + box.width + box.height;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Metoda koja mjeri računanje površina svih objekata metodom
+	 * {@link GeometricalObject#boundsInto(Rectangle)}
+	 *
+	 * @return zbroj koordinata površina
+	 */
+	@Benchmark
+	public long boundsInto() {
+		long sum = 0;
+		for (GeometricalObject object : objects) {
+			object.boundsInto(bounds);
+			sum += bounds.x + bounds.y + bounds.width + bounds.height;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Metoda koja mjeri iscrtavanje svih linija metodom
+	 * {@link GeometricalObject#paint(Graphics2D)}
+	 *
+	 * @return primjerak razreda {@link Graphics2D} u koji se iscrtava
+	 */
+	@Benchmark
+	public Graphics2D paintLines() {
+		for (GeometricalObject object : lines) {
+			object.paint(g2);
+		}
+
+		return g2;
+	}
+
+	/**
+	 * Metoda koja mjeri iscrtavanje svih linija razredom
+	 * {@link BatchedPainter}
+	 *
+	 * @return primjerak razreda {@link Graphics2D} u koji se iscrtava
+	 */
+	@Benchmark
+	public Graphics2D paintLinesBatched() {
+		painter.paint(g2, area, lines);
+		return g2;
+	}
+
+	/**
+	 * Metoda koja mjeri iscrtavanje svih objekata metodom
+	 * {@link GeometricalObject#paint(Graphics2D)}
+	 *
+	 * @return primjerak razreda {@link Graphics2D} u koji se iscrtava
+	 */
+	@Benchmark
+	public Graphics2D paintObjects() {
+		for (GeometricalObject object : objects) {
+			object.paint(g2);
+		}
+
+		return g2;
+	}
+
+	/**
+	 * Metoda koja mjeri iscrtavanje svih objekata razredom
+	 * {@link BatchedPainter}
+	 *
+	 * @return primjerak razreda {@link Graphics2D} u koji se iscrtava
+	 */
+	@Benchmark
+	public Graphics2D paintObjectsBatched() {
+		painter.paint(g2, area, objects);
+		return g2;
+	}
+}
@@ -0,0 +1,134 @@
+package hr.fer.zemris.java.hw16.jvdraw.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.ButtonGroup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw16.jvdraw.canvas.JDrawingCanvas;
+import hr.fer.zemris.java.hw16.jvdraw.colorArea.JColorArea;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.model.BenchmarkData;
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+
+/**
+ * Razred koji mjeri iscrtavanje bez prikaza na ekranu
+ * (<code>java.awt.headless=true</code>): izravno iscrtavanje svih objekata
+ * metodom {@link GeometricalObject#paint(Graphics2D)}, iscrtavanje komponente
+ * {@link JDrawingCanvas} (bez međuspremnika) te iscrtavanje po pločicama
+ * razredom {@link TiledImageRenderer}. Svi se crteži iscrtavaju u sliku
+ * veličine {@value BenchmarkData#WIDTH}x{@value BenchmarkData#HEIGHT}.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+	/** Članska varijabla koja predstavlja broj objekata u modelu */
+	@Param({ "1000", "10000", "100000" })
+	public int size;
+
+	/** Članska varijabla koja predstavlja model koji se iscrtava */
+	private JVDrawingModel model;
+
+	/** Članska varijabla koja predstavlja objekte modela */
+	private List<GeometricalObject> objects;
+
+	/** Članska varijabla koja predstavlja platno koje se iscrtava */
+	private JDrawingCanvas canvas;
+
+	/** Članska varijabla koja predstavlja sliku u koju se iscrtava */
+	private BufferedImage image;
+
+	/**
+	 * Članska varijabla koja predstavlja primjerak razreda {@link Graphics2D}
+	 * slike {@link #image}
+	 */
+	private Graphics2D g2;
+
+	/**
+	 * Metoda koja priprema model, platno i sliku
+	 */
+	@Setup
+	public void setUp() {
+		model = BenchmarkData.model(size);
+		objects = model.objectsIntersecting(null);
+
+		canvas = new JDrawingCanvas(model, new ButtonGroup(), new JColorArea(Color.BLACK),
+				new JColorArea(Color.WHITE));
+		canvas.setLayerCaching(false);
+		canvas.setSize(BenchmarkData.WIDTH, BenchmarkData.HEIGHT);
+
+		image = new BufferedImage(BenchmarkData.WIDTH, BenchmarkData.HEIGHT, BufferedImage.TYPE_INT_RGB);
+		g2 = image.createGraphics();
+	}
+
+	/**
+	 * Metoda koja oslobađa resurse slike
+	 */
+	@TearDown
+	public void tearDown() {
+		g2.dispose();
+	}
+
+	/**
+	 * Metoda koja mjeri izravno iscrtavanje svih objekata u sliku
+	 *
+	 * @return slika u koju se iscrtava
+	 */
+	@Benchmark
+	public BufferedImage paintObjects() {
+		g2.setColor(Color.WHITE);
+		g2.fillRect(0, 0, BenchmarkData.WIDTH, BenchmarkData.HEIGHT);
+		for (GeometricalObject object : objects) {
+			object.paint(g2);
+		}
+
+		return image;
+	}
+
+	/**
+	 * Metoda koja mjeri iscrtavanje komponente {@link JDrawingCanvas} u sliku
+	 *
+	 * @return slika u koju se iscrtava
+	 */
+	@Benchmark
+	public BufferedImage paintCanvas() {
+		g2.setClip(0, 0, BenchmarkData.WIDTH, BenchmarkData.HEIGHT);
+		canvas.paint(g2);
+		return image;
+	}
+
+	/**
+	 * Metoda koja mjeri iscrtavanje cijelog modela po pločicama
+	 *
+	 * @return iscrtana slika
+	 */
+	@Benchmark
+	public BufferedImage renderTiled() {
+		return new TiledImageRenderer().render(model, new Rectangle(0, 0, BenchmarkData.WIDTH, BenchmarkData.HEIGHT),
+				BufferedImage.TYPE_INT_RGB);
+	}
+}
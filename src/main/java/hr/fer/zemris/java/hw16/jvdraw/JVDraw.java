@@ -4,6 +4,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.FlowLayout;
+import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
@@ -13,16 +14,18 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JList;
@@ -31,10 +34,12 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JRadioButtonMenuItem;
 import javax.swing.JScrollPane;
 import javax.swing.JToggleButton;
 import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
+import javax.swing.ProgressMonitor;
 import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -46,8 +51,14 @@ import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParseError;
 import hr.fer.zemris.java.hw16.jvdraw.model.DrawingObjectListModel;
 import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+import hr.fer.zemris.java.hw16.jvdraw.model.ModelHistory;
+import hr.fer.zemris.java.hw16.jvdraw.model.ModelJournal;
+import hr.fer.zemris.java.hw16.jvdraw.worker.OpenWorker;
+import hr.fer.zemris.java.hw16.jvdraw.worker.SaveWorker;
 
 /**
  * Razred koji nasljeđuje razred {@link JFrame}. Razred koji predstavlja program
@@ -62,8 +73,9 @@ import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
  * <br>
  * Program nudi i dva načina spremanja dobivene slike. Jedan je u tekstualnom
  * obliku u datoteku sa .jvd ekstenzijom, a drugi je u neki od ponuđenih formata
- * slike (png, jpg, gif). Ukoliko se sadržaj spremi kao JVD datoteka, ona se
- * može ponovno otvoriti, dok to ne vrijedi za sliku. <br>
+ * slike (png, jpg, gif). JVD datoteka može se spremiti i u kompaktnom
+ * binarnom obliku, s .jvdb ekstenzijom. Ukoliko se sadržaj spremi kao JVD
+ * datoteka, ona se može ponovno otvoriti, dok to ne vrijedi za sliku. <br>
  * <br>
  * Korisniku se nudi i izbor prednje te stražnje boje pritiskom na jednu od
  * površina koje prikazuju boju (modelirani s {@link JColorArea}).
@@ -96,6 +108,28 @@ public class JVDraw extends JFrame {
 	/** Konstanta koja predstavlja ekstenziju JVD datoteke */
 	private static final String JVD_EXTENSION = ".jvd";
 
+	/**
+	 * Konstanta koja predstavlja primjerak razreda
+	 * {@link FileNameExtensionFilter}, a koji filtrira datoteke koje imaju
+	 * .jvdb ekstenziju
+	 */
+	private static final FileNameExtensionFilter JVDB_FILTER = new FileNameExtensionFilter("Binary JVD file",
+			JVDBinaryFormat.EXTENSION);
+
+	/** Konstanta koja predstavlja ekstenziju binarne JVD datoteke */
+	private static final String JVDB_EXTENSION = "." + JVDBinaryFormat.EXTENSION;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj pogrešaka parsiranja koje se
+	 * prikazuju korisniku
+	 */
+	private static final int MAX_SHOWN_ERRORS = 10;
+
+	/**
+	 * Konstanta koja predstavlja faktor promjene uvećanja platna iz izbornika
+	 */
+	private static final double ZOOM_FACTOR = 1.5;
+
 	/**
 	 * Članska varijabla koja predstavlja putanju do trenutno otvorene JVD
 	 * datoteke
@@ -108,9 +142,21 @@ public class JVDraw extends JFrame {
 	 */
 	private JVDrawingModel model;
 
+	/**
+	 * Članska varijabla koja predstavlja povijest promjena modela, a koja se
+	 * koristi za poništavanje i ponovno izvođenje promjena
+	 */
+	private ModelHistory history;
+
 	/** Članska varijabla koja predstavlja površinu po kojoj se crta (platno) */
 	private JDrawingCanvas canvas;
 
+	/**
+	 * Članska varijabla koja predstavlja dnevnik nespremljenih promjena modela
+	 * ili <code>null</code> ukoliko se promjene ne bilježe
+	 */
+	private ModelJournal journal;
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar ovog
 	 * konstruktora namješta se grafičko korisničko sučelje programa.
@@ -129,6 +175,8 @@ public class JVDraw extends JFrame {
 		setLocationRelativeTo(null);
 
 		initGUI();
+
+		SwingUtilities.invokeLater(() -> startJournal(null));
 	}
 
 	/**
@@ -155,6 +203,11 @@ public class JVDraw extends JFrame {
 		createToggleButton(FilledCircle.NAME, buttonGroup, toolBar);
 
 		model = new JVDrawingModel();
+		history = new ModelHistory(model);
+		history.addChangeListener(e -> {
+			undoAction.setEnabled(history.canUndo());
+			redoAction.setEnabled(history.canRedo());
+		});
 		canvas = new JDrawingCanvas(model, buttonGroup, fgColorArea, bgColorArea);
 		cp.add(canvas, BorderLayout.CENTER);
 
@@ -194,7 +247,9 @@ public class JVDraw extends JFrame {
 	 * Pomoćna metoda koja se koristi za stvaranje modela i stvaranje pogleda
 	 * modeliranog razredom {@link JList}, a koja se pojavljuje u desnom dijelu
 	 * prozora. Kao model liste ovdje se koristi primjerak razreda
-	 * {@link DrawingObjectListModel}
+	 * {@link DrawingObjectListModel}. Pritiskom tipke Delete iz modela se
+	 * brišu svi odabrani objekti (vidi
+	 * {@link JVDrawingModel#removeIndices(int...)})
 	 *
 	 * @param cp
 	 *            predstavlja primjerak razreda {@link Container} kojem se
@@ -228,15 +283,16 @@ public class JVDraw extends JFrame {
 
 		list.addKeyListener(new KeyAdapter() {
 			@Override
-			public void keyTyped(KeyEvent e) {
-				if (e.getKeyCode() == KeyEvent.VK_DELETE) {
+			public void keyPressed(KeyEvent e) {
+				if (e.getKeyCode() != KeyEvent.VK_DELETE) {
 					return;
 				}
 
-				GeometricalObject geomObj = list.getSelectedValue();
+				int[] selected = list.getSelectedIndices();
 
-				if (geomObj != null) {
-					model.remove(geomObj);
+				if (selected.length != 0) {
+					list.clearSelection();
+					model.removeIndices(selected);
 				}
 			}
 
@@ -270,12 +326,99 @@ public class JVDraw extends JFrame {
 		file.add(export);
 		file.addSeparator();
 		file.add(exit);
+
+		JMenu edit = new JMenu("Edit");
+		menuBar.add(edit);
+
+		edit.add(new JMenuItem(undoAction));
+		edit.add(new JMenuItem(redoAction));
+
+		JMenu view = new JMenu("View");
+		menuBar.add(view);
+
+		JCheckBoxMenuItem layerCaching = new JCheckBoxMenuItem("Cache drawn objects", canvas.isLayerCaching());
+		layerCaching.addActionListener(e -> canvas.setLayerCaching(layerCaching.isSelected()));
+		view.add(layerCaching);
+
+		JCheckBoxMenuItem exactOrder = new JCheckBoxMenuItem("Exact paint order", canvas.isExactPaintOrder());
+		exactOrder.addActionListener(e -> canvas.setExactPaintOrder(exactOrder.isSelected()));
+		view.add(exactOrder);
+		view.addSeparator();
+
+		createViewItem("Zoom in", "control EQUALS", () -> canvas.zoom(ZOOM_FACTOR, canvasCenter()), view);
+		createViewItem("Zoom out", "control MINUS", () -> canvas.zoom(1 / ZOOM_FACTOR, canvasCenter()), view);
+		createViewItem("Zoom to fit", "control 0", canvas::zoomToFit, view);
+		createViewItem("Actual size", "control 1", canvas::resetView, view);
+		view.addSeparator();
+
+		JMenu detail = new JMenu("Level of detail");
+		view.add(detail);
+
+		ButtonGroup detailGroup = new ButtonGroup();
+		createDetailItem("Full", JDrawingCanvas.DETAIL_FULL, detailGroup, detail);
+		createDetailItem("Reduced", JDrawingCanvas.DETAIL_REDUCED, detailGroup, detail);
+		createDetailItem("Adaptive", JDrawingCanvas.DETAIL_ADAPTIVE, detailGroup, detail);
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara stavku izbornika naziva <b>name</b> i prečaca
+	 * <b>accelerator</b> koja pokreće <b>action</b> te ju dodaje u izbornik
+	 * <b>menu</b>
+	 *
+	 * @param name
+	 *            naziv stavke izbornika
+	 * @param accelerator
+	 *            opis prečaca (vidi {@link KeyStroke#getKeyStroke(String)})
+	 * @param action
+	 *            akcija koju stavka pokreće
+	 * @param menu
+	 *            izbornik u koji se stavka dodaje
+	 */
+	private void createViewItem(String name, String accelerator, Runnable action, JMenu menu) {
+		JMenuItem item = new JMenuItem(name);
+		item.setAccelerator(KeyStroke.getKeyStroke(accelerator));
+		item.addActionListener(e -> action.run());
+		menu.add(item);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća središte platna, oko kojeg se pogled
+	 * uvećava iz izbornika
+	 *
+	 * @return središte platna u koordinatama platna
+	 */
+	private Point canvasCenter() {
+		return new Point(canvas.getWidth() / 2, canvas.getHeight() / 2);
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara primjerak razreda
+	 * {@link JRadioButtonMenuItem} naziva <b>name</b> kojim se platnu
+	 * postavlja način iscrtavanja <b>detailMode</b> (vidi
+	 * {@link JDrawingCanvas#setDetailMode(int)}) te ga dodaje u grupu
+	 * <b>group</b> i izbornik <b>menu</b>
+	 *
+	 * @param name
+	 *            naziv stavke izbornika
+	 * @param detailMode
+	 *            način iscrtavanja koji stavka postavlja
+	 * @param group
+	 *            grupa stavki izbornika
+	 * @param menu
+	 *            izbornik u koji se stavka dodaje
+	 */
+	private void createDetailItem(String name, int detailMode, ButtonGroup group, JMenu menu) {
+		JRadioButtonMenuItem item = new JRadioButtonMenuItem(name, canvas.getDetailMode() == detailMode);
+		item.addActionListener(e -> canvas.setDetailMode(detailMode));
+		group.add(item);
+		menu.add(item);
 	}
 
 	/**
 	 * Privatni primjerak razreda koji nasljeđuje {@link AbstractAction}. Ova
 	 * akcija koristi se za otvaranje postojeće JVD datoteke na disku te prikaz
-	 * njenog sadržaja na platnu.
+	 * njenog sadržaja na platnu. Datoteka se učitava u pozadinskoj dretvi (vidi
+	 * {@link OpenWorker}), uz prikaz napretka i mogućnost prekida.
 	 */
 	private final AbstractAction openAction = new AbstractAction() {
 
@@ -285,10 +428,11 @@ public class JVDraw extends JFrame {
 		{
 			fc = new JFileChooser();
 			fc.setDialogTitle("Open");
+			fc.addChoosableFileFilter(JVDB_FILTER);
 			fc.setFileFilter(JVD_FILTER);
 
 			putValue(Action.NAME, "Open");
-			putValue(Action.SHORT_DESCRIPTION, "Used to open .jvd file");
+			putValue(Action.SHORT_DESCRIPTION, "Used to open .jvd or .jvdb file");
 			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control O"));
 			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_O);
 		}
@@ -304,15 +448,134 @@ public class JVDraw extends JFrame {
 				return;
 			}
 
-			currentFile = fc.getSelectedFile().toPath();
-			try {
-				model.loadFromJVD(currentFile);
-			} catch (IOException e1) {
-				JOptionPane.showMessageDialog(JVDraw.this, 
-						"Unable to open file: " + currentFile, 
-						"Unable to open file",
-						JOptionPane.ERROR_MESSAGE);
-			}
+			Path file = fc.getSelectedFile().toPath();
+			ProgressMonitor monitor = new ProgressMonitor(JVDraw.this, "Opening " + file, null, 0, 100);
+			setEnabled(false);
+
+			OpenWorker worker = new OpenWorker(file, isBinary(file)) {
+				@Override
+				protected void done() {
+					monitor.close();
+					openAction.setEnabled(true);
+					if (isCancelled()) {
+						return;
+					}
+
+					try {
+						JVDrawingModel loaded = get();
+						closeJournal();
+						model.replaceContents(loaded);
+						currentFile = getFile();
+						showParseErrors(getErrors());
+						startJournal(currentFile);
+					} catch (InterruptedException | ExecutionException e) {
+						JOptionPane.showMessageDialog(JVDraw.this, 
+								"Unable to open file: " + file, 
+								"Unable to open file",
+								JOptionPane.ERROR_MESSAGE);
+					}
+				}
+			};
+			worker.addPropertyChangeListener(evt -> {
+				if (!"progress".equals(evt.getPropertyName())) {
+					return;
+				}
+				if (monitor.isCanceled()) {
+					worker.cancel(true);
+					return;
+				}
+
+				monitor.setProgress(worker.getProgress());
+				monitor.setNote(String.format("%,d of %,d bytes, %,d objects", worker.getBytesRead(),
+						worker.getFileSize(), worker.getObjectsRead()));
+			});
+			worker.execute();
+		}
+	};
+
+	/**
+	 * Pomoćna metoda koja provjerava predstavlja li putanja <b>file</b>
+	 * binarnu JVD datoteku, odnosno završava li ekstenzijom .jvdb
+	 *
+	 * @param file
+	 *            putanja koja se provjerava
+	 * @return <code>true</code> ukoliko je datoteka binarna JVD datoteka,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isBinary(Path file) {
+		return file.toString().endsWith(JVDB_EXTENSION);
+	}
+
+	/**
+	 * Pomoćna metoda koja korisnika upozorava na retke otvorene JVD datoteke
+	 * koje nije bilo moguće parsirati. Prikazuje se najviše
+	 * {@value #MAX_SHOWN_ERRORS} pogrešaka.
+	 *
+	 * @param errors
+	 *            {@link List} pogrešaka nastalih prilikom parsiranja
+	 */
+	private void showParseErrors(List<JVDParseError> errors) {
+		if (errors.isEmpty()) {
+			return;
+		}
+
+		StringJoiner joiner = new StringJoiner("\n");
+		joiner.add(errors.size() + " malformed line(s) were skipped:");
+		errors.stream().limit(MAX_SHOWN_ERRORS).forEach(error -> joiner.add(error.toString()));
+		if (errors.size() > MAX_SHOWN_ERRORS) {
+			joiner.add("...");
+		}
+
+		JOptionPane.showMessageDialog(
+				this, 
+				joiner.toString(), 
+				"Malformed lines",
+				JOptionPane.WARNING_MESSAGE);
+	}
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje {@link AbstractAction}. Ova
+	 * akcija koristi se za poništavanje posljednje promjene dokumenta (vidi
+	 * {@link ModelHistory})
+	 */
+	private final AbstractAction undoAction = new AbstractAction() {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.NAME, "Undo");
+			putValue(Action.SHORT_DESCRIPTION, "Used to undo the last change of the drawing");
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control Z"));
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_U);
+			setEnabled(false);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			history.undo();
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje {@link AbstractAction}. Ova
+	 * akcija koristi se za ponovno izvođenje posljednje poništene promjene
+	 * dokumenta (vidi {@link ModelHistory})
+	 */
+	private final AbstractAction redoAction = new AbstractAction() {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.NAME, "Redo");
+			putValue(Action.SHORT_DESCRIPTION, "Used to redo the last undone change of the drawing");
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control Y"));
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_R);
+			setEnabled(false);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			history.redo();
 		}
 	};
 
@@ -416,7 +679,7 @@ public class JVDraw extends JFrame {
 			}
 
 			try {
-				model.exportAsImage(file, extension, canvas);
+				model.exportAsImage(file, extension);
 			} catch (IOException e1) {
 				JOptionPane.showMessageDialog(
 						JVDraw.this, 
@@ -471,37 +734,85 @@ public class JVDraw extends JFrame {
 	 * Pomoćna metoda koja se koristi za spremanje dokumenta na lokaciju
 	 * zapisanu unutar {@link #currentFile} ili na specifičnu lokaciju ukoliko
 	 * se dokument ne nalazi u memoriji
+	 *
+	 * @return primjerak razreda {@link SaveWorker} koji sprema dokument ili
+	 *         <code>null</code> ukoliko spremanje nije započeto
 	 */
-	private void save() {
+	private SaveWorker save() {
 		if (currentFile != null) {
-			writeToFile();
+			return writeToFile();
 		} else {
-			saveAs();
+			return saveAs();
 		}
 	}
 
 	/**
 	 * Pomoćna metoda koja se koristi za stvaranje JVD datoteke na lokaciji koja
 	 * je zapisana unutar članske varijable {@link #currentFile} te pisanje
-	 * sadržaja platna u tu datoteku
+	 * sadržaja platna u tu datoteku. Ukoliko datoteka ima ekstenziju .jvdb,
+	 * sadržaj se zapisuje u binarnom formatu. Zapisuje se snimka trenutnog
+	 * sadržaja u pozadinskoj dretvi (vidi {@link SaveWorker}), uz prikaz
+	 * napretka, pa se crtež tijekom spremanja može i dalje mijenjati. Model se
+	 * označava spremljenim samo ukoliko se nakon stvaranja snimke nije mijenjao.
+	 *
+	 * @return primjerak razreda {@link SaveWorker} koji sprema dokument
 	 */
-	private void writeToFile() {
-		try {
-			Files.write(currentFile, model.toString().getBytes(StandardCharsets.UTF_8));
-			model.setModified(false);
+	private SaveWorker writeToFile() {
+		Path file = currentFile;
+		long modificationCount = model.getModificationCount();
+		ProgressMonitor monitor = new ProgressMonitor(this, "Saving " + file, null, 0, 100);
+		saveAction.setEnabled(false);
+		saveAsAction.setEnabled(false);
+
+		SaveWorker worker = new SaveWorker(model.snapshot(), file, isBinary(file)) {
+			@Override
+			protected void done() {
+				monitor.close();
+				saveAction.setEnabled(true);
+				saveAsAction.setEnabled(true);
+				if (isCancelled()) {
+					return;
+				}
 
-			JOptionPane.showMessageDialog(
-					this, 
-					"File saved successfully", 
-					"Info", 
-					JOptionPane.INFORMATION_MESSAGE);
-		} catch (IOException e) {
-			JOptionPane.showMessageDialog(
-					this, 
-					"Unable to sa documebt to: " + currentFile, 
-					"Saving error",
-					JOptionPane.ERROR_MESSAGE);
-		}
+				try {
+					get();
+					boolean unchanged = model.getModificationCount() == modificationCount;
+					if (unchanged) {
+						model.setModified(false);
+					}
+					startJournal(file);
+					if (!unchanged && journal != null) {
+						journal.writeContents();
+					}
+
+					JOptionPane.showMessageDialog(
+							JVDraw.this, 
+							"File saved successfully", 
+							"Info", 
+							JOptionPane.INFORMATION_MESSAGE);
+				} catch (InterruptedException | ExecutionException e) {
+					JOptionPane.showMessageDialog(
+							JVDraw.this, 
+							"Unable to sa documebt to: " + file, 
+							"Saving error",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		};
+		worker.addPropertyChangeListener(evt -> {
+			if (!"progress".equals(evt.getPropertyName())) {
+				return;
+			}
+			if (monitor.isCanceled()) {
+				worker.cancel(true);
+				return;
+			}
+
+			monitor.setProgress(worker.getProgress());
+		});
+		worker.execute();
+
+		return worker;
 	}
 
 	/**
@@ -509,10 +820,14 @@ public class JVDraw extends JFrame {
 	 * sadržaj platna treba spremiti te nakon toga sa tom putanjom poziva metodu
 	 * {@link #writeToFile()} s kojom stvara datoteku i u nju upisuje sadržaj
 	 * dokumenta
+	 *
+	 * @return primjerak razreda {@link SaveWorker} koji sprema dokument ili
+	 *         <code>null</code> ukoliko korisnik nije odabrao datoteku
 	 */
-	private void saveAs() {
+	private SaveWorker saveAs() {
 		JFileChooser fc = new JFileChooser();
 		fc.setDialogTitle("Save As");
+		fc.addChoosableFileFilter(JVDB_FILTER);
 		fc.setFileFilter(JVD_FILTER);
 
 		if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
@@ -521,20 +836,22 @@ public class JVDraw extends JFrame {
 					"Unable to open file chooser for saving data", 
 					"File chooser error",
 					JOptionPane.ERROR_MESSAGE);
-			return;
+			return null;
 		}
 
 		currentFile = fc.getSelectedFile().toPath();
-		if (!currentFile.toString().endsWith(JVD_EXTENSION)) {
-			currentFile = Paths.get(currentFile.toAbsolutePath().toString() + JVD_EXTENSION);
+		String extension = fc.getFileFilter() == JVDB_FILTER ? JVDB_EXTENSION : JVD_EXTENSION;
+		if (!currentFile.toString().endsWith(JVD_EXTENSION) && !isBinary(currentFile)) {
+			currentFile = Paths.get(currentFile.toAbsolutePath().toString() + extension);
 		}
 
-		writeToFile();
+		return writeToFile();
 	}
 
 	/**
 	 * Pomoćna metoda koja zatvara aplikaciju. Ukoliko promjene sadržaja platna
-	 * nisu spremljene u memoriju korisnika se pita želi li ih spremiti
+	 * nisu spremljene u memoriju korisnika se pita želi li ih spremiti. U tom
+	 * slučaju se aplikacija zatvara tek kada spremanje uspješno završi.
 	 */
 	private void exit() {
 		if (model.isModified()) {
@@ -546,15 +863,68 @@ public class JVDraw extends JFrame {
 					JOptionPane.WARNING_MESSAGE);
 
 			if (status == JOptionPane.YES_OPTION) {
-				save();
+				SaveWorker worker = save();
+				if (worker != null) {
+					worker.addPropertyChangeListener(evt -> {
+						if (worker.isDone() && !model.isModified()) {
+							closeJournal();
+							dispose();
+						}
+					});
+					return;
+				}
 			} else if (status == JOptionPane.CANCEL_OPTION) {
 				return;
 			}
 		}
 
+		closeJournal();
 		dispose();
 	}
 
+	/**
+	 * Pomoćna metoda koja započinje bilježenje promjena modela u dnevnik čija
+	 * je osnova datoteka <b>file</b> (vidi {@link ModelJournal}). Ukoliko za tu
+	 * osnovu postoji dnevnik s nespremljenim promjenama prethodnog pokretanja,
+	 * korisnika se pita želi li ih oporaviti. Ukoliko dnevnik nije moguće
+	 * stvoriti (primjerice jer ga koristi drugi pokrenuti program), promjene
+	 * se ne bilježe.
+	 *
+	 * @param file
+	 *            putanja do osnove ili <code>null</code> ukoliko dokument nije
+	 *            spremljen
+	 */
+	private void startJournal(Path file) {
+		closeJournal();
+
+		boolean recover = false;
+		if (ModelJournal.isRecoverable(file)) {
+			recover = JOptionPane.showConfirmDialog(
+					this,
+					"Unsaved changes from a previous session were found. Do you wish to recover them?",
+					"Recover changes",
+					JOptionPane.YES_NO_OPTION,
+					JOptionPane.QUESTION_MESSAGE) == JOptionPane.YES_OPTION;
+		}
+
+		try {
+			journal = ModelJournal.start(model, file, recover);
+		} catch (IOException e) {
+			journal = null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zaustavlja bilježenje promjena modela te briše
+	 * dnevnik, ukoliko se promjene bilježe
+	 */
+	private void closeJournal() {
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
+	}
+
 	/**
 	 * Metoda od koje započinje izvođenje programa.
 	 *
@@ -4,23 +4,36 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.swing.ButtonGroup;
 import javax.swing.ButtonModel;
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 
 import hr.fer.zemris.java.hw16.jvdraw.colorArea.IColorProvider;
 import hr.fer.zemris.java.hw16.jvdraw.colorArea.JColorArea;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
 import hr.fer.zemris.java.hw16.jvdraw.model.DrawingModel;
 import hr.fer.zemris.java.hw16.jvdraw.model.DrawingModelListener;
+import hr.fer.zemris.java.hw16.jvdraw.render.BatchedPainter;
 
 /**
  * Razred koji nasljeđuje razred {@link JComponent}. Primjerci ovog razreda
@@ -35,6 +48,42 @@ import hr.fer.zemris.java.hw16.jvdraw.model.DrawingModelListener;
  * razredom koji implementira sučelje {@link DrawingModel}.
  * </p>
  * 
+ * <p>
+ * Svi objekti pohranjeni unutar modela iscrtavaju se u međuspremnik (sloj)
+ * modeliran razredom {@link BufferedImage}. Sloj se osvježava samo na
+ * površinama zahvaćenim promjenama modela, dok se objekt koji se trenutno
+ * crta iscrtava preko sloja. Ovo ponašanje moguće je isključiti metodom
+ * {@link #setLayerCaching(boolean)}, pri čemu se svi objekti iscrtavaju
+ * izravno na komponentu.
+ * </p>
+ * 
+ * <p>
+ * Objekti se iscrtavaju kroz pogled (vidi {@link #getViewTransform()}) koji
+ * se može uvećavati kotačićem miša (metoda {@link #zoom(double, Point)}) i
+ * pomicati povlačenjem mišem uz pritisnutu desnu ili srednju tipku (metoda
+ * {@link #pan(int, int)}). Koordinate miša se pri crtanju preslikavaju u
+ * koordinate modela, a iscrtavaju se samo objekti koji sijeku vidljivu
+ * površinu. Pri pomicanju pogleda sadržaj međuspremnika se pomiče, a ponovno
+ * se iscrtavaju samo novootkrivene trake.
+ * </p>
+ * 
+ * <p>
+ * Objekti iz modela iscrtavaju se razredom {@link BatchedPainter}, strogo
+ * redom ili grupirano po vrsti i boji (vidi
+ * {@link #setExactPaintOrder(boolean)}).
+ * </p>
+ * 
+ * <p>
+ * Kada model sadrži velik broj sitnih objekata, platno ih može iscrtavati sa
+ * smanjenom razinom detalja (vidi {@link #setDetailMode(int)}): objekti čija
+ * je površina uža od {@value #DETAIL_THRESHOLD} piksela u oba smjera ne
+ * iscrtavaju se pojedinačno, već se svaki zapisuje kao jedan piksel u
+ * zajedničku sliku koja se iscrtava jednim pozivom, preko ostalih objekata.
+ * Pretpostavljeno se detalji smanjuju prilagodljivo, samo kada bi procijenjeno
+ * trajanje iscrtavanja, temeljeno na izmjerenom trajanju prethodnih
+ * iscrtavanja, premašilo {@value #FRAME_BUDGET} nanosekundi.
+ * </p>
+ * 
  * @see JComponent
  * @see DrawingModelListener
  * @see DrawingModel
@@ -48,6 +97,68 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Konstanta koja predstavlja broj piksela za koji se površina objekta
+	 * proširuje prilikom osvježavanja, kako bi se obuhvatila i debljina linije
+	 */
+	private static final int REPAINT_PADDING = 2;
+
+	/**
+	 * Konstanta koja predstavlja način iscrtavanja u kojem se svi objekti
+	 * iscrtavaju u potpunosti
+	 */
+	public static final int DETAIL_FULL = 0;
+
+	/**
+	 * Konstanta koja predstavlja način iscrtavanja u kojem se sitni objekti
+	 * uvijek iscrtavaju kao jedan piksel
+	 */
+	public static final int DETAIL_REDUCED = 1;
+
+	/**
+	 * Konstanta koja predstavlja način iscrtavanja u kojem se sitni objekti
+	 * iscrtavaju kao jedan piksel samo ukoliko bi iscrtavanje svih objekata u
+	 * potpunosti trajalo dulje od {@value #FRAME_BUDGET} nanosekundi
+	 */
+	public static final int DETAIL_ADAPTIVE = 2;
+
+	/**
+	 * Konstanta koja predstavlja širinu i visinu (u pikselima) ispod koje se
+	 * objekt pri smanjenoj razini detalja iscrtava kao jedan piksel
+	 */
+	private static final int DETAIL_THRESHOLD = 3;
+
+	/**
+	 * Konstanta koja predstavlja najdulje trajanje iscrtavanja (u
+	 * nanosekundama) uz koje se u načinu {@link #DETAIL_ADAPTIVE} svi objekti
+	 * iscrtavaju u potpunosti
+	 */
+	private static final long FRAME_BUDGET = 20_000_000;
+
+	/**
+	 * Konstanta koja predstavlja najmanji broj u potpunosti iscrtanih objekata
+	 * uz koji se mjerenje trajanja iscrtavanja uzima u obzir
+	 */
+	private static final int MIN_MEASURED_OBJECTS = 256;
+
+	/**
+	 * Konstanta koja predstavlja težinu novog mjerenja u procjeni trajanja
+	 * iscrtavanja jednog objekta
+	 */
+	private static final double MEASUREMENT_WEIGHT = 0.25;
+
+	/** Konstanta koja predstavlja najmanje uvećanje pogleda */
+	public static final double MIN_SCALE = 1.0 / 64;
+
+	/** Konstanta koja predstavlja najveće uvećanje pogleda */
+	public static final double MAX_SCALE = 64;
+
+	/**
+	 * Konstanta koja predstavlja faktor promjene uvećanja za jedan pomak
+	 * kotačića miša
+	 */
+	private static final double ZOOM_STEP = 1.25;
+
 	/**
 	 * Članska varijabla koja predstavlja primjerak razreda koji implementira
 	 * sučelje {@link DrawingModel}, a koji se koristi za dohvat i spremanje
@@ -82,6 +193,78 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 	 */
 	private GeometricalObject currentlyDrawn;
 
+	/**
+	 * Članska varijabla koja predstavlja površinu koju je objekt
+	 * {@link #currentlyDrawn} zauzimao prilikom posljednjeg iscrtavanja
+	 */
+	private Rectangle currentlyDrawnArea;
+
+	/**
+	 * Članska varijabla koja ukazuje na to koriste li se međuspremnik
+	 * {@link #layer} za iscrtavanje objekata iz modela
+	 */
+	private boolean layerCaching;
+
+	/**
+	 * Članska varijabla koja predstavlja međuspremnik u koji su iscrtani svi
+	 * objekti iz modela
+	 */
+	private BufferedImage layer;
+
+	/**
+	 * Članska varijabla koja predstavlja površinu međuspremnika {@link #layer}
+	 * koju je potrebno ponovno iscrtati
+	 */
+	private Rectangle layerDirtyArea;
+
+	/**
+	 * Članska varijabla koja predstavlja način iscrtavanja, odnosno jednu od
+	 * konstanti {@link #DETAIL_FULL}, {@link #DETAIL_REDUCED} ili
+	 * {@link #DETAIL_ADAPTIVE}
+	 */
+	private int detailMode;
+
+	/**
+	 * Članska varijabla koja predstavlja procijenjeno trajanje (u
+	 * nanosekundama) potpunog iscrtavanja jednog objekta
+	 */
+	private double nanosPerObject;
+
+	/**
+	 * Članska varijabla koja predstavlja primjerak razreda
+	 * {@link DetailPainter} koji se koristi pri smanjenoj razini detalja
+	 */
+	private DetailPainter detailPainter;
+
+	/**
+	 * Članska varijabla koja predstavlja primjerak razreda
+	 * {@link BatchedPainter} kojim se iscrtavaju objekti iz modela
+	 */
+	private BatchedPainter batchedPainter;
+
+	/** Članska varijabla koja predstavlja uvećanje pogleda */
+	private double scale;
+
+	/** Članska varijabla koja predstavlja pomak pogleda po x osi (u pikselima) */
+	private double translateX;
+
+	/** Članska varijabla koja predstavlja pomak pogleda po y osi (u pikselima) */
+	private double translateY;
+
+	/**
+	 * Članska varijabla koja predstavlja preslikavanje iz koordinata modela u
+	 * koordinate komponente. Preslikavanje se ponovno stvara samo pri promjeni
+	 * pogleda
+	 */
+	private AffineTransform viewTransform;
+
+	/**
+	 * Članska varijabla koja predstavlja preslikavanje iz koordinata
+	 * komponente u koordinate modela, odnosno inverz preslikavanja
+	 * {@link #viewTransform}
+	 */
+	private AffineTransform inverseTransform;
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar ovog
 	 * konstruktora reference na sve predane parametre se interno pohranjuju te
@@ -107,6 +290,12 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 			IColorProvider bgColorProvider) {
 		setBackground(Color.WHITE);
 
+		this.layerCaching = true;
+		this.detailMode = DETAIL_ADAPTIVE;
+		this.detailPainter = new DetailPainter();
+		this.batchedPainter = new BatchedPainter();
+		this.scale = 1;
+		updateTransforms();
 		this.model = model;
 		this.buttonGroup = buttonGroup;
 		this.fgColorProvider = fgColorProvider;
@@ -119,18 +308,45 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 
 			@Override
 			public void mouseClicked(MouseEvent e) {
+				if (!SwingUtilities.isLeftMouseButton(e)) {
+					return;
+				}
+
 				if (first) {
 					if (createGeometricalObject(e)) {
 						first = false;
 					}
 				} else {
-					model.add(currentlyDrawn);
+					GeometricalObject drawn = currentlyDrawn;
 					currentlyDrawn = null;
+					currentlyDrawnArea = null;
+					model.add(drawn);
 					first = true;
 				}
 			}
 		});
 
+		addMouseWheelListener(e -> zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getPoint()));
+
+		MouseAdapter panListener = new MouseAdapter() {
+			private Point last;
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				last = SwingUtilities.isLeftMouseButton(e) ? null : e.getPoint();
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				if (last != null) {
+					pan(e.getX() - last.x, e.getY() - last.y);
+					last = e.getPoint();
+				}
+			}
+		};
+		addMouseListener(panListener);
+		addMouseMotionListener(panListener);
+
 		addMouseMotionListener(new MouseMotionListener() {
 
 			@Override
@@ -140,7 +356,9 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 
 			@Override
 			public void mouseDragged(MouseEvent e) {
-				changeGeometricalObject(e);
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					changeGeometricalObject(e);
+				}
 			}
 
 			private void changeGeometricalObject(MouseEvent e) {
@@ -148,8 +366,12 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 					return;
 				}
 
-				currentlyDrawn.changeSecondCoordinate(e.getPoint());
-				repaint();
+				currentlyDrawn.changeSecondCoordinate(toModel(e.getPoint()));
+
+				Rectangle newArea = currentlyDrawn.getBoundingBox();
+				repaintArea(currentlyDrawnArea);
+				repaintArea(newArea);
+				currentlyDrawnArea = newArea;
 			}
 		});
 	}
@@ -176,37 +398,439 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 			return false;
 		}
 
+		Point point = toModel(e.getPoint());
 		switch (bModel.getActionCommand()) {
 		case Line.NAME:
-			currentlyDrawn = new Line(e.getPoint(), e.getPoint(), fgColorProvider.getCurrentColor());
+			currentlyDrawn = new Line(point, new Point(point), fgColorProvider.getCurrentColor());
 			break;
 		case Circle.NAME:
-			currentlyDrawn = new Circle(e.getPoint(), e.getPoint(), fgColorProvider.getCurrentColor());
+			currentlyDrawn = new Circle(point, new Point(point), fgColorProvider.getCurrentColor());
 			break;
 		case FilledCircle.NAME:
-			currentlyDrawn = new FilledCircle(e.getPoint(), e.getPoint(), fgColorProvider.getCurrentColor(),
+			currentlyDrawn = new FilledCircle(point, new Point(point), fgColorProvider.getCurrentColor(),
 					bgColorProvider.getCurrentColor());
 			break;
 		}
 
+		currentlyDrawnArea = currentlyDrawn.getBoundingBox();
 		return true;
 	}
 
+	/**
+	 * Metoda koja ukazuje na to iscrtavaju li se objekti iz modela preko
+	 * međuspremnika
+	 *
+	 * @return <code>true</code> ukoliko se objekti iscrtavaju preko
+	 *         međuspremnika, <code>false</code> ukoliko se iscrtavaju izravno
+	 */
+	public boolean isLayerCaching() {
+		return layerCaching;
+	}
+
+	/**
+	 * Metoda koja uključuje ili isključuje iscrtavanje objekata iz modela preko
+	 * međuspremnika. Isključivanjem se međuspremnik oslobađa te se svi objekti
+	 * iscrtavaju izravno na komponentu.
+	 *
+	 * @param layerCaching
+	 *            <code>true</code> ukoliko se objekti iscrtavaju preko
+	 *            međuspremnika, <code>false</code> inače
+	 */
+	public void setLayerCaching(boolean layerCaching) {
+		this.layerCaching = layerCaching;
+
+		layer = null;
+		layerDirtyArea = null;
+		repaint();
+	}
+
+	/**
+	 * Metoda koja dohvaća način iscrtavanja objekata iz modela
+	 *
+	 * @return jedna od konstanti {@link #DETAIL_FULL},
+	 *         {@link #DETAIL_REDUCED} ili {@link #DETAIL_ADAPTIVE}
+	 */
+	public int getDetailMode() {
+		return detailMode;
+	}
+
+	/**
+	 * Metoda koja postavlja način iscrtavanja objekata iz modela te ponovno
+	 * iscrtava cijelu komponentu
+	 *
+	 * @param detailMode
+	 *            jedna od konstanti {@link #DETAIL_FULL},
+	 *            {@link #DETAIL_REDUCED} ili {@link #DETAIL_ADAPTIVE}
+	 * @throws IllegalArgumentException
+	 *             ukoliko način iscrtavanja nije poznat
+	 */
+	public void setDetailMode(int detailMode) {
+		if (detailMode < DETAIL_FULL || detailMode > DETAIL_ADAPTIVE) {
+			throw new IllegalArgumentException("Unknown detail mode: " + detailMode);
+		}
+
+		this.detailMode = detailMode;
+		invalidateArea(new Rectangle(0, 0, getWidth(), getHeight()));
+	}
+
+	/**
+	 * Metoda koja ukazuje na to iscrtavaju li se objekti iz modela strogo
+	 * redom
+	 *
+	 * @return <code>true</code> ukoliko se objekti iscrtavaju strogo redom,
+	 *         <code>false</code> ukoliko se grupiraju po vrsti i boji
+	 */
+	public boolean isExactPaintOrder() {
+		return batchedPainter.isExactOrder();
+	}
+
+	/**
+	 * Metoda koja postavlja iscrtavaju li se objekti iz modela strogo redom
+	 * ili grupirano po vrsti i boji (vidi {@link BatchedPainter}) te ponovno
+	 * iscrtava cijelu komponentu
+	 *
+	 * @param exactPaintOrder
+	 *            <code>true</code> ukoliko se objekti iscrtavaju strogo redom,
+	 *            <code>false</code> ukoliko se grupiraju po vrsti i boji
+	 */
+	public void setExactPaintOrder(boolean exactPaintOrder) {
+		batchedPainter.setExactOrder(exactPaintOrder);
+		invalidateArea(new Rectangle(0, 0, getWidth(), getHeight()));
+	}
+
+	/**
+	 * Metoda koja dohvaća uvećanje pogleda
+	 *
+	 * @return uvećanje pogleda
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Metoda koja dohvaća preslikavanje iz koordinata modela u koordinate
+	 * komponente
+	 *
+	 * @return kopija preslikavanja pogleda
+	 */
+	public AffineTransform getViewTransform() {
+		return new AffineTransform(viewTransform);
+	}
+
+	/**
+	 * Metoda koja uvećava pogled za faktor <b>factor</b>, pri čemu točka
+	 * <b>anchor</b> (u koordinatama komponente) ostaje na mjestu. Uvećanje se
+	 * ograničava na [{@link #MIN_SCALE}, {@link #MAX_SCALE}].
+	 *
+	 * @param factor
+	 *            faktor uvećanja (manji od 1 za umanjivanje)
+	 * @param anchor
+	 *            točka koja ostaje na mjestu
+	 */
+	public void zoom(double factor, Point anchor) {
+		double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+		if (newScale == scale) {
+			return;
+		}
+
+		translateX = anchor.x - (anchor.x - translateX) * newScale / scale;
+		translateY = anchor.y - (anchor.y - translateY) * newScale / scale;
+		scale = newScale;
+		viewChanged();
+	}
+
+	/**
+	 * Metoda koja pomiče pogled za (<b>dx</b>, <b>dy</b>) piksela. Ukoliko se
+	 * objekti iscrtavaju preko međuspremnika, njegov se sadržaj pomiče (vidi
+	 * {@link Graphics#copyArea(int, int, int, int, int, int)}), a ponovno se
+	 * iscrtavaju samo novootkrivene trake.
+	 *
+	 * @param dx
+	 *            pomak po x osi
+	 * @param dy
+	 *            pomak po y osi
+	 */
+	public void pan(int dx, int dy) {
+		if (dx == 0 && dy == 0) {
+			return;
+		}
+
+		translateX += dx;
+		translateY += dy;
+		updateTransforms();
+
+		int width = getWidth();
+		int height = getHeight();
+		if (layer == null || layerDirtyArea != null || layer.getWidth() != width || layer.getHeight() != height
+				|| Math.abs(dx) >= width || Math.abs(dy) >= height) {
+			invalidateArea(new Rectangle(0, 0, width, height));
+			return;
+		}
+
+		Graphics2D lg = layer.createGraphics();
+		lg.copyArea(0, 0, width, height, dx, dy);
+		lg.dispose();
+
+		if (dx != 0) {
+			paintLayer(new Rectangle(dx > 0 ? 0 : width + dx, 0, Math.abs(dx), height));
+		}
+		if (dy != 0) {
+			paintLayer(new Rectangle(0, dy > 0 ? 0 : height + dy, width, Math.abs(dy)));
+		}
+		repaint();
+	}
+
+	/**
+	 * Metoda koja vraća pogled na početno stanje, odnosno postavlja uvećanje
+	 * na 1 i uklanja pomak
+	 */
+	public void resetView() {
+		scale = 1;
+		translateX = 0;
+		translateY = 0;
+		viewChanged();
+	}
+
+	/**
+	 * Metoda koja postavlja pogled tako da svi objekti modela stanu unutar
+	 * komponente. Ukoliko je model prazan, pogled se vraća na početno stanje.
+	 */
+	public void zoomToFit() {
+		Rectangle bounds = null;
+		Rectangle box = new Rectangle();
+		for (GeometricalObject object : model.objectsIntersecting(null)) {
+			object.boundsInto(box);
+			if (bounds == null) {
+				bounds = new Rectangle(box);
+			} else {
+				bounds.add(box);
+			}
+		}
+
+		if (bounds == null || getWidth() <= 0 || getHeight() <= 0) {
+			resetView();
+			return;
+		}
+
+		scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, Math.min((double) getWidth() / (bounds.width + 1),
+				(double) getHeight() / (bounds.height + 1))));
+		translateX = (getWidth() - (bounds.width + 1) * scale) / 2 - bounds.x * scale;
+		translateY = (getHeight() - (bounds.height + 1) * scale) / 2 - bounds.y * scale;
+		viewChanged();
+	}
+
+	/**
+	 * Metoda koja točku <b>point</b> iz koordinata komponente preslikava u
+	 * koordinate modela
+	 *
+	 * @param point
+	 *            točka u koordinatama komponente
+	 * @return nova točka u koordinatama modela
+	 */
+	public Point toModel(Point point) {
+		Point2D modelPoint = inverseTransform.transform(point, null);
+		return new Point((int) Math.floor(modelPoint.getX()), (int) Math.floor(modelPoint.getY()));
+	}
+
+	/**
+	 * Pomoćna metoda koja ponovno stvara preslikavanja {@link #viewTransform}
+	 * i {@link #inverseTransform} iz uvećanja i pomaka pogleda
+	 */
+	private void updateTransforms() {
+		viewTransform = new AffineTransform(scale, 0, 0, scale, translateX, translateY);
+		try {
+			inverseTransform = viewTransform.createInverse();
+		} catch (NoninvertibleTransformException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja nakon promjene uvećanja pogleda ponovno stvara
+	 * preslikavanja i ponovno iscrtava cijelu komponentu
+	 */
+	private void viewChanged() {
+		updateTransforms();
+		invalidateArea(new Rectangle(0, 0, getWidth(), getHeight()));
+	}
+
+	/**
+	 * Pomoćna metoda koja površinu <b>area</b> iz koordinata komponente
+	 * preslikava u koordinate modela, proširenu za jedan piksel modela kako bi
+	 * se obuhvatila i debljina linije
+	 *
+	 * @param area
+	 *            površina u koordinatama komponente
+	 * @return nova površina u koordinatama modela
+	 */
+	private Rectangle toModel(Rectangle area) {
+		int x0 = (int) Math.floor((area.x - translateX) / scale) - 1;
+		int y0 = (int) Math.floor((area.y - translateY) / scale) - 1;
+		int x1 = (int) Math.ceil((area.x + area.width - translateX) / scale) + 1;
+		int y1 = (int) Math.ceil((area.y + area.height - translateY) / scale) + 1;
+
+		return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+	}
+
+	/**
+	 * Pomoćna metoda koja površinu <b>area</b> iz koordinata modela preslikava
+	 * u koordinate komponente, proširenu za {@value #REPAINT_PADDING} piksela
+	 * uvećanih za debljinu linije pri trenutnom uvećanju
+	 *
+	 * @param area
+	 *            površina u koordinatama modela
+	 * @return nova površina u koordinatama komponente
+	 */
+	private Rectangle toView(Rectangle area) {
+		int padding = REPAINT_PADDING + (int) Math.ceil(scale);
+		int x0 = (int) Math.floor(area.x * scale + translateX) - padding;
+		int y0 = (int) Math.floor(area.y * scale + translateY) - padding;
+		int x1 = (int) Math.ceil((area.x + area.width) * scale + translateX) + padding;
+		int y1 = (int) Math.ceil((area.y + area.height) * scale + translateY) + padding;
+
+		return new Rectangle(x0, y0, x1 - x0 + 1, y1 - y0 + 1);
+	}
+
 	@Override
 	protected void paintComponent(Graphics g) {
 		Graphics2D g2 = (Graphics2D) g;
 
-		clearCanvas(g2);
+		if (layerCaching) {
+			updateLayer();
+			g2.drawImage(layer, 0, 0, null);
+		} else {
+			clearCanvas(g2);
+			paintObjects(g2, g2.getClipBounds());
+		}
+
+		if (currentlyDrawn != null) {
+			Graphics2D mg = (Graphics2D) g2.create();
+			mg.transform(viewTransform);
+			currentlyDrawn.paint(mg);
+			mg.dispose();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iscrtava sve objekte iz modela čija površina siječe
+	 * površinu <b>area</b>. Ovisno o načinu iscrtavanja (vidi
+	 * {@link #setDetailMode(int)}) sitni objekti se iscrtavaju kao jedan
+	 * piksel. Mjeri se samo trajanje iscrtavanja u kojem su svi objekti
+	 * iscrtani u potpunosti, a koristi se za procjenu trajanja sljedećih
+	 * iscrtavanja.
+	 *
+	 * @param g2
+	 *            primjerak razreda {@link Graphics2D} koji se koristi za
+	 *            iscrtavanje, u koordinatama komponente
+	 * @param area
+	 *            površina (u koordinatama komponente) koja se iscrtava ili
+	 *            <code>null</code> ukoliko se iscrtava cijela komponenta
+	 */
+	private void paintObjects(Graphics2D g2, Rectangle area) {
+		if (area == null) {
+			area = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+
+		Rectangle modelArea = toModel(area);
+		List<GeometricalObject> objects = model.objectsIntersecting(modelArea);
+		boolean reduced = detailMode == DETAIL_REDUCED
+				|| (detailMode == DETAIL_ADAPTIVE && objects.size() * nanosPerObject > FRAME_BUDGET);
 
-		for (int i = 0, len = model.getSize(); i < len; i++) {
-			GeometricalObject geometricalObject = model.getObject(i);
+		Graphics2D mg = (Graphics2D) g2.create();
+		mg.transform(viewTransform);
 
-			geometricalObject.paint(g2);
+		if (!reduced) {
+			long start = System.nanoTime();
+			batchedPainter.paint(mg, modelArea, objects);
+			measure(objects.size(), System.nanoTime() - start);
+		} else {
+			detailPainter.begin(mg, g2, area, modelArea);
+			for (GeometricalObject geometricalObject : objects) {
+				detailPainter.paint(geometricalObject);
+			}
+			detailPainter.end();
 		}
 
-		if (currentlyDrawn != null) {
-			currentlyDrawn.paint(g2);
+		mg.dispose();
+	}
+
+	/**
+	 * Pomoćna metoda koja procjenu trajanja potpunog iscrtavanja jednog
+	 * objekta ({@link #nanosPerObject}) ažurira mjerenjem, ukoliko je
+	 * iscrtano barem {@value #MIN_MEASURED_OBJECTS} objekata
+	 *
+	 * @param painted
+	 *            broj iscrtanih objekata
+	 * @param nanos
+	 *            trajanje iscrtavanja u nanosekundama
+	 */
+	private void measure(int painted, long nanos) {
+		if (painted < MIN_MEASURED_OBJECTS) {
+			return;
 		}
+
+		double sample = (double) nanos / painted;
+		nanosPerObject = nanosPerObject == 0 ? sample
+				: (1 - MEASUREMENT_WEIGHT) * nanosPerObject + MEASUREMENT_WEIGHT * sample;
+	}
+
+	/**
+	 * Pomoćna metoda koja po potrebi stvara međuspremnik {@link #layer}
+	 * veličine ove komponente te u njemu ponovno iscrtava površinu
+	 * {@link #layerDirtyArea}
+	 */
+	private void updateLayer() {
+		int width = Math.max(1, getWidth());
+		int height = Math.max(1, getHeight());
+
+		if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+			GraphicsConfiguration gc = getGraphicsConfiguration();
+			layer = gc != null ? gc.createCompatibleImage(width, height)
+					: new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			layerDirtyArea = new Rectangle(0, 0, width, height);
+		}
+
+		if (layerDirtyArea == null) {
+			return;
+		}
+
+		paintLayer(layerDirtyArea);
+		layerDirtyArea = null;
+	}
+
+	/**
+	 * Pomoćna metoda koja u međuspremniku {@link #layer} ponovno iscrtava
+	 * površinu <b>area</b> izraženu u koordinatama komponente
+	 *
+	 * @param area
+	 *            površina koja se iscrtava
+	 */
+	private void paintLayer(Rectangle area) {
+		Graphics2D lg = layer.createGraphics();
+		lg.clip(area);
+		clearCanvas(lg);
+		paintObjects(lg, lg.getClipBounds());
+		lg.dispose();
+	}
+
+	/**
+	 * Pomoćna metoda koja površinu <b>area</b> izraženu u koordinatama
+	 * komponente označava kao zastarjelu unutar međuspremnika {@link #layer}
+	 * te ju osvježava.
+	 *
+	 * @param area
+	 *            zastarjela površina
+	 */
+	private void invalidateArea(Rectangle area) {
+		if (layer != null) {
+			if (layerDirtyArea == null) {
+				layerDirtyArea = new Rectangle(area);
+			} else {
+				layerDirtyArea.add(area);
+			}
+		}
+
+		repaint(area);
 	}
 
 	/**
@@ -228,18 +852,194 @@ public class JDrawingCanvas extends JComponent implements DrawingModelListener {
 		g2.setBackground(saveBg);
 	}
 
+	/**
+	 * Pomoćna metoda koja osvježava samo dio ove komponente koji zauzima
+	 * površina <b>area</b> izražena u koordinatama modela. Površina se dodatno
+	 * proširuje, kako bi se obuhvatila debljina linije (vidi
+	 * {@link #toView(Rectangle)}).
+	 *
+	 * @param area
+	 *            površina koju je potrebno osvježiti ili <code>null</code>
+	 */
+	private void repaintArea(Rectangle area) {
+		if (area == null) {
+			return;
+		}
+
+		repaint(toView(area));
+	}
+
+	/**
+	 * Pomoćna metoda koja osvježava dio ove komponente (i međuspremnika
+	 * {@link #layer}) zahvaćen posljednjom promjenom modela <b>source</b>.
+	 * Ukoliko ta površina nije poznata osvježava se cijela komponenta.
+	 *
+	 * @param source
+	 *            primjerak razreda koji implementira sučelje
+	 *            {@link DrawingModel} nad kojim se dogodila promjena
+	 */
+	private void repaintChangedArea(DrawingModel source) {
+		Rectangle changedArea = source.getChangedArea();
+		if (changedArea == null) {
+			invalidateArea(new Rectangle(0, 0, getWidth(), getHeight()));
+		} else {
+			invalidateArea(toView(changedArea));
+		}
+	}
+
 	@Override
 	public void objectsRemoved(DrawingModel source, int index0, int index1) {
-		repaint();
+		repaintChangedArea(source);
 	}
 
 	@Override
 	public void objectsChanged(DrawingModel source, int index0, int index1) {
-		repaint();
+		repaintChangedArea(source);
 	}
 
 	@Override
 	public void objectsAdded(DrawingModel source, int index0, int index1) {
-		repaint();
+		repaintChangedArea(source);
+	}
+
+	/**
+	 * Privatni razred koji implementira sučelje
+	 * {@link GeometricalObjectVisitor}. Primjerak ovog razreda iscrtava objekte
+	 * sa smanjenom razinom detalja: objekti uži od {@value #DETAIL_THRESHOLD}
+	 * piksela u oba smjera zapisuju se kao jedan piksel (u boji obruba) u
+	 * sliku {@link #dots}, koja se na kraju jednim pozivom iscrtava preko
+	 * površine, dok se ostali objekti u potpunosti iscrtavaju primjerkom
+	 * {@link #batchedPainter}. Slika se ponovno koristi između iscrtavanja.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class DetailPainter implements GeometricalObjectVisitor {
+
+		/** Članska varijabla koja predstavlja sliku u koju se zapisuju pikseli */
+		private BufferedImage dots;
+
+		/** Članska varijabla koja predstavlja piksele slike {@link #dots} */
+		private int[] pixels;
+
+		/**
+		 * Članska varijabla koja predstavlja primjerak razreda
+		 * {@link Graphics2D} u koji se slika {@link #dots} iscrtava u
+		 * koordinatama komponente
+		 */
+		private Graphics2D viewGraphics;
+
+		/**
+		 * Članska varijabla koja predstavlja površinu (u koordinatama
+		 * komponente) koja se iscrtava
+		 */
+		private Rectangle area;
+
+		/** Članska varijabla koja predstavlja objekt koji se iscrtava */
+		private GeometricalObject object;
+
+		/**
+		 * Metoda koja započinje iscrtavanje površine <b>area</b>
+		 *
+		 * @param modelGraphics
+		 *            primjerak razreda {@link Graphics2D} u koji se objekti
+		 *            iscrtavaju u koordinatama modela
+		 * @param viewGraphics
+		 *            primjerak razreda {@link Graphics2D} u koji se pikseli
+		 *            iscrtavaju u koordinatama komponente
+		 * @param area
+		 *            površina (u koordinatama komponente) koja se iscrtava
+		 * @param modelArea
+		 *            površina (u koordinatama modela) koja se iscrtava
+		 */
+		public void begin(Graphics2D modelGraphics, Graphics2D viewGraphics, Rectangle area, Rectangle modelArea) {
+			batchedPainter.begin(modelGraphics, modelArea);
+			this.viewGraphics = viewGraphics;
+			this.area = area;
+
+			if (dots == null || dots.getWidth() < area.width || dots.getHeight() < area.height) {
+				int width = Math.max(area.width, dots == null ? 1 : dots.getWidth());
+				int height = Math.max(area.height, dots == null ? 1 : dots.getHeight());
+				dots = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+				pixels = ((DataBufferInt) dots.getRaster().getDataBuffer()).getData();
+			} else {
+				for (int y = 0, row = 0; y < area.height; y++, row += dots.getWidth()) {
+					Arrays.fill(pixels, row, row + area.width, 0);
+				}
+			}
+		}
+
+		/**
+		 * Metoda koja iscrtava objekt <b>object</b>
+		 *
+		 * @param object
+		 *            objekt koji se iscrtava
+		 */
+		public void paint(GeometricalObject object) {
+			this.object = object;
+			object.accept(this);
+		}
+
+		/**
+		 * Metoda koja završava iscrtavanje, odnosno iscrtava piksele sitnih
+		 * objekata preko površine
+		 */
+		public void end() {
+			batchedPainter.end();
+			viewGraphics.drawImage(dots, area.x, area.y, area.x + area.width, area.y + area.height, 0, 0,
+					area.width, area.height, null);
+
+			viewGraphics = null;
+			object = null;
+		}
+
+		@Override
+		public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+			if (Math.abs(x1 - x0) * scale < DETAIL_THRESHOLD && Math.abs(y1 - y0) * scale < DETAIL_THRESHOLD) {
+				plot((x0 + x1) >> 1, (y0 + y1) >> 1, rgb);
+			} else {
+				paintFully();
+			}
+		}
+
+		@Override
+		public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+			if (2 * radius * scale < DETAIL_THRESHOLD) {
+				plot(cx, cy, fgRgb);
+			} else {
+				paintFully();
+			}
+		}
+
+		@Override
+		public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+			visitCircle(cx, cy, radius, fgRgb);
+		}
+
+		/**
+		 * Pomoćna metoda koja u potpunosti iscrtava objekt {@link #object}
+		 */
+		private void paintFully() {
+			object.accept(batchedPainter);
+		}
+
+		/**
+		 * Pomoćna metoda koja u sliku {@link #dots} zapisuje piksel na koji se
+		 * preslikava točka modela (<b>modelX</b>, <b>modelY</b>), ukoliko se on nalazi
+		 * unutar površine koja se iscrtava
+		 *
+		 * @param modelX
+		 *            x koordinata točke modela
+		 * @param modelY
+		 *            y koordinata točke modela
+		 * @param rgb
+		 *            boja piksela
+		 */
+		private void plot(int modelX, int modelY, int rgb) {
+			int x = (int) Math.floor(modelX * scale + translateX) - area.x;
+			int y = (int) Math.floor(modelY * scale + translateY) - area.y;
+			if (x >= 0 && y >= 0 && x < area.width && y < area.height) {
+				pixels[y * dots.getWidth() + x] = 0xFF000000 | rgb;
+			}
+		}
 	}
 }
@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -39,8 +40,11 @@ public class Circle implements GeometricalObject {
 	 */
 	public static final String JVD_REPRESENTATION = "CIRCLE";
 
-	/** Statički brojač, koji definira koliko je krugova do sada konstruirano */
-	private static int circleCount;
+	/**
+	 * Statički brojač, koji definira koliko je krugova do sada konstruirano.
+	 * Brojač je siguran za korištenje iz više dretvi
+	 */
+	private static final AtomicInteger circleCount = new AtomicInteger();
 
 	/** Članska varijabla koja predstavlja jedinstveni naziv ovog primjerka */
 	private String name;
@@ -66,7 +70,7 @@ public class Circle implements GeometricalObject {
 	 *            boja oboda kruga
 	 */
 	public Circle(Point center, int radius, Color fgColor) {
-		this.name = NAME + (++circleCount);
+		this.name = NAME + circleCount.incrementAndGet();
 		this.center = center;
 		this.fgColor = fgColor;
 		this.radius = radius;
@@ -109,15 +113,21 @@ public class Circle implements GeometricalObject {
 		Color fgSave = g2.getColor();
 
 		g2.setColor(fgColor);
-		Rectangle boundingBox = getBoundingBox();
-		g2.drawOval(boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height);
+		g2.drawOval(center.x - radius, center.y - radius, 2 * radius, 2 * radius);
 
 		g2.setColor(fgSave);
 	}
 
 	@Override
 	public Rectangle getBoundingBox() {
-		return new Rectangle(center.x - radius, center.y - radius, 2 * radius, 2 * radius);
+		Rectangle bounds = new Rectangle();
+		boundsInto(bounds);
+		return bounds;
+	}
+
+	@Override
+	public void boundsInto(Rectangle bounds) {
+		bounds.setBounds(center.x - radius, center.y - radius, 2 * radius, 2 * radius);
 	}
 
 	@Override
@@ -201,6 +211,34 @@ public class Circle implements GeometricalObject {
 				fgColor.getGreen(), fgColor.getBlue());
 	}
 
+	@Override
+	public void accept(GeometricalObjectVisitor visitor) {
+		visitor.visitCircle(center.x, center.y, radius, fgColor.getRGB());
+	}
+
+	@Override
+	public GeometricalObjectVisitor stateSetter() {
+		return new GeometricalObjectVisitor() {
+
+			@Override
+			public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+				throw new IllegalArgumentException("Cannot set line state on " + Circle.this);
+			}
+
+			@Override
+			public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+				center = new Point(cx, cy);
+				Circle.this.radius = radius;
+				fgColor = new Color(fgRgb);
+			}
+
+			@Override
+			public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+				throw new IllegalArgumentException("Cannot set filled circle state on " + Circle.this);
+			}
+		};
+	}
+
 	/**
 	 * Statička metoda tvorinica koja se koristi za kreiranje primjerka ovog
 	 * razreda na temelju jednog redka .jvd datoteke.
@@ -0,0 +1,80 @@
+package hr.fer.zemris.java.hw16.jvdraw.graphicalObject;
+
+import java.awt.Color;
+
+/**
+ * Razred koji predstavlja priručnu memoriju primjeraka razreda {@link Color}.
+ * Budući da crteži u pravilu koriste mali broj različitih boja, primjerci ovog
+ * razreda omogućuju da se za istu RGB vrijednost ne stvara uvijek novi
+ * primjerak razreda {@link Color}. Priručna memorija ostvarena je kao
+ * izravno mapirana tablica od {@value #SIZE} mjesta, pa se pri sudaru starija
+ * boja jednostavno zamjenjuje novom.
+ * <p>
+ * Primjerci ovog razreda nisu sigurni za korištenje iz više dretvi.
+ * </p>
+ *
+ * @see Color
+ *
+ * @author Davor Češljaš
+ */
+public class ColorCache {
+
+	/** Konstanta koja predstavlja broj mjesta u priručnoj memoriji */
+	private static final int SIZE = 1024;
+
+	/** Članska varijabla koja predstavlja mjesta priručne memorije */
+	private Color[] colors;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda, odnosno stvara
+	 * praznu priručnu memoriju
+	 */
+	public ColorCache() {
+		colors = new Color[SIZE];
+	}
+
+	/**
+	 * Metoda koja dohvaća primjerak razreda {@link Color} s komponentama
+	 * <b>red</b>, <b>green</b> i <b>blue</b>.
+	 *
+	 * @param red
+	 *            crvena komponenta boje (0-255)
+	 * @param green
+	 *            zelena komponenta boje (0-255)
+	 * @param blue
+	 *            plava komponenta boje (0-255)
+	 * @return primjerak razreda {@link Color} s traženim komponentama
+	 * @throws IllegalArgumentException
+	 *             ukoliko neka od komponenti nije unutar raspona [0, 255]
+	 */
+	public Color get(int red, int green, int blue) {
+		if (((red | green | blue) & ~0xFF) != 0) {
+			throw new IllegalArgumentException(
+					"Color components must be in range [0, 255]! Were: " + red + ", " + green + ", " + blue);
+		}
+
+		return get((red << 16) | (green << 8) | blue);
+	}
+
+	/**
+	 * Metoda koja dohvaća primjerak razreda {@link Color} čija je RGB
+	 * vrijednost <b>rgb</b> (vidi {@link Color#getRGB()}). Alfa komponenta
+	 * predane vrijednosti se zanemaruje.
+	 *
+	 * @param rgb
+	 *            RGB vrijednost boje
+	 * @return primjerak razreda {@link Color} s traženom RGB vrijednosti
+	 */
+	public Color get(int rgb) {
+		rgb |= 0xFF000000;
+
+		int slot = (rgb ^ (rgb >>> 10) ^ (rgb >>> 20)) & (SIZE - 1);
+		Color color = colors[slot];
+		if (color == null || color.getRGB() != rgb) {
+			color = new Color(rgb);
+			colors[slot] = color;
+		}
+
+		return color;
+	}
+}
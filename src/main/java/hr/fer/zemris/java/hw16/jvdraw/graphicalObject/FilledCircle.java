@@ -3,7 +3,6 @@ package hr.fer.zemris.java.hw16.jvdraw.graphicalObject;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
-import java.awt.Rectangle;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -83,8 +82,7 @@ public class FilledCircle extends Circle {
 		Color bgSave = g2.getBackground();
 
 		g2.setColor(bgColor);
-		Rectangle boundingBox = getBoundingBox();
-		g2.fillOval(boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height);
+		g2.fillOval(center.x - radius, center.y - radius, 2 * radius, 2 * radius);
 		super.paint(g2);
 
 		g2.setBackground(bgSave);
@@ -133,6 +131,35 @@ public class FilledCircle extends Circle {
 				bgColor.getBlue());
 	}
 
+	@Override
+	public void accept(GeometricalObjectVisitor visitor) {
+		visitor.visitFilledCircle(center.x, center.y, radius, fgColor.getRGB(), bgColor.getRGB());
+	}
+
+	@Override
+	public GeometricalObjectVisitor stateSetter() {
+		return new GeometricalObjectVisitor() {
+
+			@Override
+			public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+				throw new IllegalArgumentException("Cannot set line state on " + FilledCircle.this);
+			}
+
+			@Override
+			public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+				throw new IllegalArgumentException("Cannot set circle state on " + FilledCircle.this);
+			}
+
+			@Override
+			public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+				center = new Point(cx, cy);
+				FilledCircle.this.radius = radius;
+				fgColor = new Color(fgRgb);
+				bgColor = new Color(bgRgb);
+			}
+		};
+	}
+
 	/**
 	 * Statička metoda tvorinica koja se koristi za kreiranje primjerka ovog
 	 * razreda na temelju jednog redka .jvd datoteke.
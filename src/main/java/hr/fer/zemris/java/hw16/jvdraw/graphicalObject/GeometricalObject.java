@@ -18,6 +18,8 @@ import hr.fer.zemris.java.hw16.jvdraw.JVDraw;
  * <li>{@link #createChangePanel()}</li>
  * <li>{@link #change(JPanel)}</li>
  * <li>{@link #toJVD()}</li>
+ * <li>{@link #accept(GeometricalObjectVisitor)}</li>
+ * <li>{@link #stateSetter()}</li>
  * </ul>
  * 
  * Napomena: Svi razredi koji implementiraju ovo sučelje moraju se moći iscrtati
@@ -51,6 +53,18 @@ public interface GeometricalObject {
 	 */
 	Rectangle getBoundingBox();
 
+	/**
+	 * Metoda koja minimalnu pravokutnu površinu potrebnu za iscrtavanje ovog
+	 * objekta (vidi {@link #getBoundingBox()}) zapisuje u predani primjerak
+	 * razreda {@link Rectangle} <b>bounds</b>, bez stvaranja novih objekata.
+	 * Ova metoda koristi se u petljama koje obilaze velik broj objekata.
+	 *
+	 * @param bounds
+	 *            primjerak razreda {@link Rectangle} u koji se zapisuje
+	 *            površina
+	 */
+	void boundsInto(Rectangle bounds);
+
 	/**
 	 * Metoda koja se koristi za promjenu druge koordinate ovog objekta. Za više
 	 * pojašnjenja pročitati vršnu dokumentaciju sučelja
@@ -92,4 +106,26 @@ public interface GeometricalObject {
 	 * @return jedna linija .jvd datoteke koja predstavlja ovaj objekt
 	 */
 	String toJVD();
+
+	/**
+	 * Metoda koja predanom posjetitelju <b>visitor</b> predaje sve podatke
+	 * ovog objekta, pozivom odgovarajuće metode sučelja
+	 * {@link GeometricalObjectVisitor}
+	 *
+	 * @param visitor
+	 *            posjetitelj kojem se predaju podaci ovog objekta
+	 */
+	void accept(GeometricalObjectVisitor visitor);
+
+	/**
+	 * Metoda koja dohvaća posjetitelja koji podatke predane odgovarajućom
+	 * metodom sučelja {@link GeometricalObjectVisitor} upisuje u ovaj objekt,
+	 * bez promjene njegovog naziva. Time se objektu može vratiti stanje
+	 * prethodno dobiveno metodom {@link #accept(GeometricalObjectVisitor)}.
+	 * Posjetitelj baca {@link IllegalArgumentException} ukoliko mu se predaju
+	 * podaci druge vrste objekta.
+	 *
+	 * @return posjetitelj koji podatke upisuje u ovaj objekt
+	 */
+	GeometricalObjectVisitor stateSetter();
 }
@@ -0,0 +1,58 @@
+package hr.fer.zemris.java.hw16.jvdraw.graphicalObject;
+
+import java.awt.Point;
+
+/**
+ * Razred koji implementira sučelje {@link GeometricalObjectVisitor}.
+ * Primjerci ovog razreda na temelju primljenih primitivnih podataka stvaraju
+ * odgovarajuće primjerke razreda {@link Line}, {@link Circle} i
+ * {@link FilledCircle}. Posljednji stvoreni objekt dohvaća se metodom
+ * {@link #getObject()}. Boje se dohvaćaju preko razreda {@link ColorCache}.
+ * <p>
+ * Primjerci ovog razreda nisu sigurni za korištenje iz više dretvi.
+ * </p>
+ *
+ * @see GeometricalObjectVisitor
+ *
+ * @author Davor Češljaš
+ */
+public class GeometricalObjectBuilder implements GeometricalObjectVisitor {
+
+	/** Članska varijabla koja predstavlja priručnu memoriju boja */
+	private ColorCache colorCache;
+
+	/** Članska varijabla koja predstavlja posljednji stvoreni objekt */
+	private GeometricalObject object;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 */
+	public GeometricalObjectBuilder() {
+		this.colorCache = new ColorCache();
+	}
+
+	/**
+	 * Metoda koja dohvaća posljednji stvoreni objekt
+	 *
+	 * @return posljednji stvoreni objekt ili <code>null</code> ukoliko objekt
+	 *         još nije stvoren
+	 */
+	public GeometricalObject getObject() {
+		return object;
+	}
+
+	@Override
+	public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+		object = new Line(new Point(x0, y0), new Point(x1, y1), colorCache.get(rgb));
+	}
+
+	@Override
+	public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+		object = new Circle(new Point(cx, cy), radius, colorCache.get(fgRgb));
+	}
+
+	@Override
+	public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+		object = new FilledCircle(new Point(cx, cy), radius, colorCache.get(fgRgb), colorCache.get(bgRgb));
+	}
+}
@@ -0,0 +1,65 @@
+package hr.fer.zemris.java.hw16.jvdraw.graphicalObject;
+
+/**
+ * Sučelje koje predstavlja apstraktnog posjetitelja iz oblikovnog obrasca
+ * <a href ="https://en.wikipedia.org/wiki/Visitor_pattern">posjetitelj</a>
+ * nad primjercima sučelja {@link GeometricalObject}. Posjetitelj podatke
+ * objekta dobiva isključivo kao primitivne vrijednosti, pa se posjećivanjem ne
+ * stvaraju novi objekti. Boje se predaju kao RGB vrijednosti (vidi
+ * {@link java.awt.Color#getRGB()}).
+ *
+ * @see GeometricalObject#accept(GeometricalObjectVisitor)
+ *
+ * @author Davor Češljaš
+ */
+public interface GeometricalObjectVisitor {
+
+	/**
+	 * Metoda koja se poziva prilikom posjećivanja primjerka razreda
+	 * {@link Line}
+	 *
+	 * @param x0
+	 *            x-koordinata početne točke linije
+	 * @param y0
+	 *            y-koordinata početne točke linije
+	 * @param x1
+	 *            x-koordinata završne točke linije
+	 * @param y1
+	 *            y-koordinata završne točke linije
+	 * @param rgb
+	 *            RGB vrijednost boje linije
+	 */
+	void visitLine(int x0, int y0, int x1, int y1, int rgb);
+
+	/**
+	 * Metoda koja se poziva prilikom posjećivanja primjerka razreda
+	 * {@link Circle}
+	 *
+	 * @param cx
+	 *            x-koordinata središta kruga
+	 * @param cy
+	 *            y-koordinata središta kruga
+	 * @param radius
+	 *            radijus kruga
+	 * @param fgRgb
+	 *            RGB vrijednost boje oboda kruga
+	 */
+	void visitCircle(int cx, int cy, int radius, int fgRgb);
+
+	/**
+	 * Metoda koja se poziva prilikom posjećivanja primjerka razreda
+	 * {@link FilledCircle}
+	 *
+	 * @param cx
+	 *            x-koordinata središta kruga
+	 * @param cy
+	 *            y-koordinata središta kruga
+	 * @param radius
+	 *            radijus kruga
+	 * @param fgRgb
+	 *            RGB vrijednost boje oboda kruga
+	 * @param bgRgb
+	 *            RGB vrijednost boje ispune kruga
+	 */
+	void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb);
+}
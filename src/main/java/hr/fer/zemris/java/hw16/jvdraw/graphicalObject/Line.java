@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextArea;
@@ -36,8 +37,11 @@ public class Line implements GeometricalObject {
 	 */
 	public static final String JVD_REPRESENTATION = "LINE";
 
-	/** Statički brojač, koji definira koliko je linija do sada konstruirano */
-	private static int lineCount;
+	/**
+	 * Statički brojač, koji definira koliko je linija do sada konstruirano.
+	 * Brojač je siguran za korištenje iz više dretvi
+	 */
+	private static final AtomicInteger lineCount = new AtomicInteger();
 
 	/** Članska varijabla koja predstavlja jedinstveni naziv ovog primjerka */
 	private String name;
@@ -69,7 +73,7 @@ public class Line implements GeometricalObject {
 		this.start = start;
 		this.end = end;
 		this.color = color;
-		this.name = NAME + (++lineCount);
+		this.name = NAME + lineCount.incrementAndGet();
 	}
 
 	@Override
@@ -84,12 +88,19 @@ public class Line implements GeometricalObject {
 
 	@Override
 	public Rectangle getBoundingBox() {
+		Rectangle bounds = new Rectangle();
+		boundsInto(bounds);
+		return bounds;
+	}
+
+	@Override
+	public void boundsInto(Rectangle bounds) {
 		int minX = Math.min(start.x, end.x);
 		int minY = Math.min(start.y, end.y);
 		int maxX = Math.max(start.x, end.x);
 		int maxY = Math.max(start.y, end.y);
 
-		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+		bounds.setBounds(minX, minY, maxX - minX, maxY - minY);
 	}
 
 	@Override
@@ -175,6 +186,34 @@ public class Line implements GeometricalObject {
 				color.getRed(), color.getGreen(), color.getBlue());
 	}
 
+	@Override
+	public void accept(GeometricalObjectVisitor visitor) {
+		visitor.visitLine(start.x, start.y, end.x, end.y, color.getRGB());
+	}
+
+	@Override
+	public GeometricalObjectVisitor stateSetter() {
+		return new GeometricalObjectVisitor() {
+
+			@Override
+			public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+				start = new Point(x0, y0);
+				end = new Point(x1, y1);
+				color = new Color(rgb);
+			}
+
+			@Override
+			public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+				throw new IllegalArgumentException("Cannot set circle state on " + name);
+			}
+
+			@Override
+			public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+				throw new IllegalArgumentException("Cannot set filled circle state on " + name);
+			}
+		};
+	}
+
 	/**
 	 * Statička metoda tvorinica koja se koristi za kreiranje primjerka ovog
 	 * razreda na temelju jednog redka .jvd datoteke.
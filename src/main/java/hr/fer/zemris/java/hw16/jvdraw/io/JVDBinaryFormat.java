@@ -0,0 +1,281 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+
+/**
+ * Razred koji opisuje binarni format crteža (.jvdb datoteke) te nudi statičke
+ * metode za kodiranje i dekodiranje jednog zapisa. Datoteka ima sljedeći
+ * oblik:
+ * <ul>
+ * <li>zaglavlje: četiri okteta {@link #MAGIC} te jedan oktet verzije
+ * {@link #VERSION}</li>
+ * <li>niz zapisa, pri čemu svaki zapis počinje oktetom tipa
+ * ({@link #TAG_LINE}, {@link #TAG_CIRCLE} ili {@link #TAG_FILLED_CIRCLE}),
+ * nakon kojeg slijede koordinate kodirane kao cik-cak varijabilni cijeli
+ * brojevi te boje kao tri okteta (crvena, zelena, plava)</li>
+ * <li>završni oktet {@link #TAG_END}</li>
+ * </ul>
+ * Redoslijed podataka unutar zapisa jednak je redoslijedu parametara metoda
+ * sučelja {@link GeometricalObjectVisitor}, odnosno redoslijedu podataka
+ * unutar retka .jvd datoteke, pa je pretvorba između dvaju formata bez
+ * gubitaka.
+ *
+ * @see JVDBinaryWriter
+ * @see JVDBinaryReader
+ *
+ * @author Davor Češljaš
+ */
+public final class JVDBinaryFormat {
+
+	/** Konstanta koja predstavlja oktete kojima počinje svaka .jvdb datoteka */
+	public static final byte[] MAGIC = { 'J', 'V', 'D', 'B' };
+
+	/** Konstanta koja predstavlja verziju formata */
+	public static final byte VERSION = 1;
+
+	/** Konstanta koja predstavlja veličinu zaglavlja u oktetima */
+	public static final int HEADER_SIZE = MAGIC.length + 1;
+
+	/** Konstanta koja predstavlja oktet kojim završava niz zapisa */
+	public static final byte TAG_END = 0;
+
+	/** Konstanta koja predstavlja oktet tipa zapisa linije */
+	public static final byte TAG_LINE = 1;
+
+	/** Konstanta koja predstavlja oktet tipa zapisa kruga */
+	public static final byte TAG_CIRCLE = 2;
+
+	/** Konstanta koja predstavlja oktet tipa zapisa ispunjenog kruga */
+	public static final byte TAG_FILLED_CIRCLE = 3;
+
+	/** Konstanta koja predstavlja najveću veličinu jednog zapisa u oktetima */
+	public static final int MAX_RECORD_SIZE = 1 + 4 * 5 + 2 * 3;
+
+	/** Konstanta koja predstavlja ekstenziju .jvdb datoteke */
+	public static final String EXTENSION = "jvdb";
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 */
+	private JVDBinaryFormat() {
+	}
+
+	/**
+	 * Metoda koja zapisuje zaglavlje formata u međuspremnik <b>buffer</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje zaglavlje
+	 */
+	public static void putHeader(ByteBuffer buffer) {
+		buffer.put(MAGIC);
+		buffer.put(VERSION);
+	}
+
+	/**
+	 * Metoda koja čita i provjerava zaglavlje formata iz međuspremnika
+	 * <b>buffer</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik iz kojeg se čita zaglavlje
+	 * @throws IOException
+	 *             ukoliko zaglavlje nije ispravno ili verzija nije podržana
+	 */
+	public static void checkHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new IOException("Not a JVDB file: header is missing");
+		}
+
+		for (byte b : MAGIC) {
+			if (buffer.get() != b) {
+				throw new IOException("Not a JVDB file: invalid magic number");
+			}
+		}
+
+		byte version = buffer.get();
+		if (version != VERSION) {
+			throw new IOException("Unsupported JVDB version: " + version);
+		}
+	}
+
+	/**
+	 * Metoda koja zapisuje zapis linije u međuspremnik <b>buffer</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje
+	 * @param x0
+	 *            x-koordinata početne točke linije
+	 * @param y0
+	 *            y-koordinata početne točke linije
+	 * @param x1
+	 *            x-koordinata završne točke linije
+	 * @param y1
+	 *            y-koordinata završne točke linije
+	 * @param rgb
+	 *            RGB vrijednost boje linije
+	 */
+	public static void putLine(ByteBuffer buffer, int x0, int y0, int x1, int y1, int rgb) {
+		buffer.put(TAG_LINE);
+		putVarInt(buffer, x0);
+		putVarInt(buffer, y0);
+		putVarInt(buffer, x1);
+		putVarInt(buffer, y1);
+		putRgb(buffer, rgb);
+	}
+
+	/**
+	 * Metoda koja zapisuje zapis kruga u međuspremnik <b>buffer</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje
+	 * @param cx
+	 *            x-koordinata središta kruga
+	 * @param cy
+	 *            y-koordinata središta kruga
+	 * @param radius
+	 *            radijus kruga
+	 * @param fgRgb
+	 *            RGB vrijednost boje oboda kruga
+	 */
+	public static void putCircle(ByteBuffer buffer, int cx, int cy, int radius, int fgRgb) {
+		buffer.put(TAG_CIRCLE);
+		putVarInt(buffer, cx);
+		putVarInt(buffer, cy);
+		putVarInt(buffer, radius);
+		putRgb(buffer, fgRgb);
+	}
+
+	/**
+	 * Metoda koja zapisuje zapis ispunjenog kruga u međuspremnik
+	 * <b>buffer</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje
+	 * @param cx
+	 *            x-koordinata središta kruga
+	 * @param cy
+	 *            y-koordinata središta kruga
+	 * @param radius
+	 *            radijus kruga
+	 * @param fgRgb
+	 *            RGB vrijednost boje oboda kruga
+	 * @param bgRgb
+	 *            RGB vrijednost boje ispune kruga
+	 */
+	public static void putFilledCircle(ByteBuffer buffer, int cx, int cy, int radius, int fgRgb, int bgRgb) {
+		buffer.put(TAG_FILLED_CIRCLE);
+		putVarInt(buffer, cx);
+		putVarInt(buffer, cy);
+		putVarInt(buffer, radius);
+		putRgb(buffer, fgRgb);
+		putRgb(buffer, bgRgb);
+	}
+
+	/**
+	 * Metoda koja čita jedan zapis iz međuspremnika <b>buffer</b> počevši od
+	 * njegove trenutne pozicije te podatke zapisa predaje posjetitelju
+	 * <b>visitor</b>.
+	 *
+	 * @param buffer
+	 *            međuspremnik iz kojeg se čita zapis
+	 * @param visitor
+	 *            posjetitelj kojem se predaju podaci zapisa
+	 * @return <code>true</code> ukoliko je zapis pročitan,
+	 *         <code>false</code> ukoliko je pročitan završni oktet
+	 *         {@link #TAG_END}
+	 * @throws IOException
+	 *             ukoliko zapis nije ispravan ili nije potpun
+	 */
+	public static boolean read(ByteBuffer buffer, GeometricalObjectVisitor visitor) throws IOException {
+		try {
+			byte tag = buffer.get();
+			switch (tag) {
+			case TAG_END:
+				return false;
+			case TAG_LINE:
+				visitor.visitLine(getVarInt(buffer), getVarInt(buffer), getVarInt(buffer), getVarInt(buffer),
+						getRgb(buffer));
+				return true;
+			case TAG_CIRCLE:
+				visitor.visitCircle(getVarInt(buffer), getVarInt(buffer), getVarInt(buffer), getRgb(buffer));
+				return true;
+			case TAG_FILLED_CIRCLE:
+				visitor.visitFilledCircle(getVarInt(buffer), getVarInt(buffer), getVarInt(buffer), getRgb(buffer),
+						getRgb(buffer));
+				return true;
+			default:
+				throw new IOException("Invalid record tag " + tag + " at byte " + (buffer.position() - 1));
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated JVDB record");
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje cijeli broj kao cik-cak varijabilni cijeli
+	 * broj (7 bitova po oktetu)
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje
+	 * @param value
+	 *            broj koji se zapisuje
+	 */
+	private static void putVarInt(ByteBuffer buffer, int value) {
+		int v = (value << 1) ^ (value >> 31);
+		while ((v & ~0x7F) != 0) {
+			buffer.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		buffer.put((byte) v);
+	}
+
+	/**
+	 * Pomoćna metoda koja čita cik-cak varijabilni cijeli broj
+	 *
+	 * @param buffer
+	 *            međuspremnik iz kojeg se čita
+	 * @return pročitani broj
+	 * @throws IOException
+	 *             ukoliko broj nije ispravno kodiran
+	 */
+	private static int getVarInt(ByteBuffer buffer) throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			v |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (v >>> 1) ^ -(v & 1);
+			}
+		}
+
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje komponente boje kao tri okteta
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje
+	 * @param rgb
+	 *            RGB vrijednost boje
+	 */
+	private static void putRgb(ByteBuffer buffer, int rgb) {
+		buffer.put((byte) (rgb >> 16));
+		buffer.put((byte) (rgb >> 8));
+		buffer.put((byte) rgb);
+	}
+
+	/**
+	 * Pomoćna metoda koja čita tri okteta boje
+	 *
+	 * @param buffer
+	 *            međuspremnik iz kojeg se čita
+	 * @return RGB vrijednost boje
+	 */
+	private static int getRgb(ByteBuffer buffer) {
+		return ((buffer.get() & 0xFF) << 16) | ((buffer.get() & 0xFF) << 8) | (buffer.get() & 0xFF);
+	}
+}
@@ -0,0 +1,190 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectBuilder;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+
+/**
+ * Razred koji predstavlja čitač .jvdb datoteka (vidi {@link JVDBinaryFormat}).
+ * Čitač datoteku čita postupno, kroz međuspremnik veličine
+ * {@value #BUFFER_SIZE} okteta, a objekte stvara koristeći razred
+ * {@link GeometricalObjectBuilder}. Za razliku od tekstualnog formata,
+ * neispravan binarni zapis onemogućuje čitanje ostatka datoteke, pa se u tom
+ * slučaju baca iznimka.
+ *
+ * @see JVDBinaryFormat
+ *
+ * @author Davor Češljaš
+ */
+public class JVDBinaryReader {
+
+	/** Konstanta koja predstavlja veličinu međuspremnika */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Metoda koja čita .jvdb datoteku predstavljenu putanjom <b>file</b>
+	 *
+	 * @param file
+	 *            putanja do .jvdb datoteke
+	 * @return {@link List} svih pročitanih objekata, u redoslijedu
+	 *         pojavljivanja u datoteci
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati ili ona nije ispravna
+	 */
+	public List<GeometricalObject> read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * Metoda koja čita sadržaj .jvdb datoteke iz kanala <b>channel</b>. Kanal
+	 * se ne zatvara.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita sadržaj .jvdb datoteke
+	 * @return {@link List} svih pročitanih objekata, u redoslijedu
+	 *         pojavljivanja u datoteci
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati ili sadržaj nije
+	 *             ispravan
+	 */
+	public List<GeometricalObject> read(ReadableByteChannel channel) throws IOException {
+		return read(channel, new ArrayList<>());
+	}
+
+	/**
+	 * Metoda koja čita sadržaj .jvdb datoteke iz kanala <b>channel</b>, a
+	 * pročitane objekte dodaje u listu <b>objects</b>. Objekti se dodaju
+	 * tijekom čitanja, pa pozivatelj (primjerice iz omotanog kanala, vidi
+	 * {@link ProgressChannel}) može pratiti koliko je objekata do sada
+	 * pročitano. Kanal se ne zatvara.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita sadržaj .jvdb datoteke
+	 * @param objects
+	 *            {@link List} u koju se dodaju pročitani objekti
+	 * @return predana lista <b>objects</b>
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati ili sadržaj nije
+	 *             ispravan
+	 */
+	public List<GeometricalObject> read(ReadableByteChannel channel, List<GeometricalObject> objects)
+			throws IOException {
+		GeometricalObjectBuilder builder = new GeometricalObjectBuilder();
+
+		read(channel, new GeometricalObjectVisitor() {
+
+			@Override
+			public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+				builder.visitLine(x0, y0, x1, y1, rgb);
+				objects.add(builder.getObject());
+			}
+
+			@Override
+			public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+				builder.visitCircle(cx, cy, radius, fgRgb);
+				objects.add(builder.getObject());
+			}
+
+			@Override
+			public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+				builder.visitFilledCircle(cx, cy, radius, fgRgb, bgRgb);
+				objects.add(builder.getObject());
+			}
+		});
+
+		return objects;
+	}
+
+	/**
+	 * Metoda koja čita .jvdb datoteku predstavljenu putanjom <b>file</b> te
+	 * podatke svakog zapisa predaje posjetitelju <b>visitor</b>, bez stvaranja
+	 * primjeraka sučelja {@link GeometricalObject}
+	 *
+	 * @param file
+	 *            putanja do .jvdb datoteke
+	 * @param visitor
+	 *            posjetitelj kojem se predaju podaci zapisa
+	 * @return broj pročitanih zapisa
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati ili ona nije ispravna
+	 */
+	public long read(Path file, GeometricalObjectVisitor visitor) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel, visitor);
+		}
+	}
+
+	/**
+	 * Metoda koja čita sadržaj .jvdb datoteke iz kanala <b>channel</b> te
+	 * podatke svakog zapisa, u redoslijedu pojavljivanja, predaje posjetitelju
+	 * <b>visitor</b>. Kanal se ne zatvara.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita sadržaj .jvdb datoteke
+	 * @param visitor
+	 *            posjetitelj kojem se predaju podaci zapisa
+	 * @return broj pročitanih zapisa
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati ili sadržaj nije
+	 *             ispravan
+	 */
+	public long read(ReadableByteChannel channel, GeometricalObjectVisitor visitor) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		boolean eof = fill(channel, buffer);
+		JVDBinaryFormat.checkHeader(buffer);
+
+		long count = 0;
+		while (true) {
+			if (!eof && buffer.remaining() < JVDBinaryFormat.MAX_RECORD_SIZE) {
+				buffer.compact();
+				eof = fill(channel, buffer);
+			}
+
+			if (!buffer.hasRemaining()) {
+				throw new IOException("Truncated JVDB file: end marker is missing");
+			}
+
+			if (!JVDBinaryFormat.read(buffer, visitor)) {
+				return count;
+			}
+			count++;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja međuspremnik puni iz kanala sve dok se ne napuni ili
+	 * dok se ne dođe do kraja kanala te ga priprema za čitanje
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita
+	 * @param buffer
+	 *            međuspremnik koji se puni
+	 * @return <code>true</code> ukoliko se došlo do kraja kanala,
+	 *         <code>false</code> inače
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati
+	 */
+	private static boolean fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+		boolean eof = false;
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) == -1) {
+				eof = true;
+				break;
+			}
+		}
+
+		buffer.flip();
+		return eof;
+	}
+}
@@ -0,0 +1,125 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+
+/**
+ * Razred koji predstavlja pisač .jvdb datoteka (vidi
+ * {@link JVDBinaryFormat}). Pisač podatke objekata dobiva kao posjetitelj te
+ * ih kodira u međuspremnik veličine {@value #BUFFER_SIZE} okteta, koji se po
+ * popunjavanju zapisuje u kanal. Zaglavlje se zapisuje prilikom stvaranja
+ * pisača, a završni oktet pozivom metode {@link #finish()}. Pisač ne zatvara
+ * kanal.
+ *
+ * @see JVDBinaryFormat
+ *
+ * @author Davor Češljaš
+ */
+public class JVDBinaryWriter implements GeometricalObjectVisitor {
+
+	/** Konstanta koja predstavlja veličinu međuspremnika */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Članska varijabla koja predstavlja kanal u koji se piše */
+	private WritableByteChannel channel;
+
+	/** Članska varijabla koja predstavlja međuspremnik */
+	private ByteBuffer buffer;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda te u međuspremnik
+	 * zapisuje zaglavlje formata.
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuje sadržaj .jvdb datoteke
+	 */
+	public JVDBinaryWriter(WritableByteChannel channel) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		JVDBinaryFormat.putHeader(buffer);
+	}
+
+	/**
+	 * Metoda koja zapisuje predani objekt <b>object</b> kao jedan zapis
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} koji se zapisuje
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	public void write(GeometricalObject object) throws IOException {
+		try {
+			object.accept(this);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Metoda koja zapisuje završni oktet te sav sadržaj međuspremnika zapisuje
+	 * u kanal. Nakon poziva ove metode pisač se više ne smije koristiti.
+	 *
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	public void finish() throws IOException {
+		buffer.put(JVDBinaryFormat.TAG_END);
+		flush();
+	}
+
+	@Override
+	public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+		ensureCapacity();
+		JVDBinaryFormat.putLine(buffer, x0, y0, x1, y1, rgb);
+	}
+
+	@Override
+	public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+		ensureCapacity();
+		JVDBinaryFormat.putCircle(buffer, cx, cy, radius, fgRgb);
+	}
+
+	@Override
+	public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+		ensureCapacity();
+		JVDBinaryFormat.putFilledCircle(buffer, cx, cy, radius, fgRgb, bgRgb);
+	}
+
+	/**
+	 * Pomoćna metoda koja sadržaj međuspremnika zapisuje u kanal ukoliko u
+	 * njemu nema mjesta za još jedan zapis
+	 *
+	 * @throws UncheckedIOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	private void ensureCapacity() {
+		if (buffer.remaining() > JVDBinaryFormat.MAX_RECORD_SIZE) {
+			return;
+		}
+
+		try {
+			flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sav sadržaj međuspremnika zapisuje u kanal
+	 *
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,56 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+/**
+ * Razred koji predstavlja jednu pogrešku nastalu prilikom parsiranja .jvd
+ * datoteke. Svaka pogreška veže se uz redak datoteke u kojem je nastala te
+ * sadrži opis pogreške.
+ *
+ * @see JVDParser
+ *
+ * @author Davor Češljaš
+ */
+public class JVDParseError {
+
+	/** Članska varijabla koja predstavlja redni broj retka (od 1) */
+	private long lineNumber;
+
+	/** Članska varijabla koja predstavlja opis pogreške */
+	private String message;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+	 * konstruktora interno se pohranjuju svi predani parametri
+	 *
+	 * @param lineNumber
+	 *            redni broj retka (od 1) u kojem je nastala pogreška
+	 * @param message
+	 *            opis pogreške
+	 */
+	public JVDParseError(long lineNumber, String message) {
+		this.lineNumber = lineNumber;
+		this.message = message;
+	}
+
+	/**
+	 * Metoda koja dohvaća redni broj retka (od 1) u kojem je nastala pogreška
+	 *
+	 * @return redni broj retka u kojem je nastala pogreška
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Metoda koja dohvaća opis pogreške
+	 *
+	 * @return opis pogreške
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return "Line " + lineNumber + ": " + message;
+	}
+}
@@ -0,0 +1,866 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.ColorCache;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+
+/**
+ * Razred koji predstavlja parser .jvd datoteka. Parser datoteku čita
+ * postupno, kroz međuspremnik veličine {@value #BUFFER_SIZE} okteta, te
+ * cijele brojeve dekodira izravno iz okteta, bez stvaranja primjeraka razreda
+ * {@link String}. Boje se dohvaćaju preko razreda {@link ColorCache}, pa se za
+ * ponovljene boje ne stvaraju novi objekti.
+ * <p>
+ * Svaki neispravan redak bilježi se kao primjerak razreda
+ * {@link JVDParseError}, a sve zabilježene pogreške posljednjeg parsiranja
+ * mogu se dohvatiti metodom {@link #getErrors()}. Prazni retci se
+ * zanemaruju.
+ * </p>
+ * <p>
+ * Metodom {@link #parseParallel(Path, ForkJoinPool)} datoteka se dijeli na
+ * dijelove čije granice padaju na kraj retka. Svaki dio mapira se u memoriju
+ * te se dijelovi parsiraju paralelno, a rezultati se spajaju u redoslijedu
+ * pojavljivanja u datoteci. Napredak paralelnog parsiranja može se pratiti,
+ * a parsiranje prekinuti (vidi
+ * {@link #parseParallel(Path, ForkJoinPool, LongConsumer, BooleanSupplier)}).
+ * </p>
+ * <p>
+ * Primjerci ovog razreda nisu sigurni za korištenje iz više dretvi, osim
+ * metode {@link #getObjectsParsed()}.
+ * </p>
+ *
+ * @see JVDParseError
+ *
+ * @author Davor Češljaš
+ */
+public class JVDParser {
+
+	/** Konstanta koja predstavlja početnu veličinu međuspremnika */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja najmanju veličinu dijela datoteke koji se
+	 * parsira paralelno
+	 */
+	private static final long MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja najveću veličinu dijela datoteke koji se
+	 * parsira paralelno (ograničena veličinom mapiranog međuspremnika)
+	 */
+	private static final long MAX_CHUNK_SIZE = 1024 * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja približan broj okteta dijela datoteke koji se
+	 * parsira između dvije dojave napretka paralelnog parsiranja
+	 */
+	private static final int PROGRESS_STEP = 256 * 1024;
+
+	/** Konstanta koja predstavlja oktete ključne riječi linije */
+	private static final byte[] LINE_KEYWORD = Line.JVD_REPRESENTATION.getBytes(StandardCharsets.US_ASCII);
+
+	/** Konstanta koja predstavlja oktete ključne riječi kruga */
+	private static final byte[] CIRCLE_KEYWORD = Circle.JVD_REPRESENTATION.getBytes(StandardCharsets.US_ASCII);
+
+	/** Konstanta koja predstavlja oktete ključne riječi ispunjenog kruga */
+	private static final byte[] FILLED_CIRCLE_KEYWORD = FilledCircle.JVD_REPRESENTATION
+			.getBytes(StandardCharsets.US_ASCII);
+
+	/** Članska varijabla koja predstavlja priručnu memoriju boja */
+	private ColorCache colorCache;
+
+	/** Članska varijabla koja predstavlja pogreške posljednjeg parsiranja */
+	private List<JVDParseError> errors;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju unutar međuspremnika do koje
+	 * je parsiran trenutni redak
+	 */
+	private int position;
+
+	/**
+	 * Članska varijabla koja predstavlja broj objekata do sada parsiranih
+	 * paralelnim parsiranjem
+	 */
+	private AtomicInteger objectsParsed;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 */
+	public JVDParser() {
+		this.colorCache = new ColorCache();
+		this.errors = new ArrayList<>();
+		this.objectsParsed = new AtomicInteger();
+	}
+
+	/**
+	 * Metoda koja dohvaća sve pogreške zabilježene prilikom posljednjeg
+	 * parsiranja
+	 *
+	 * @return {@link List} pogrešaka posljednjeg parsiranja
+	 */
+	public List<JVDParseError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj objekata do sada parsiranih metodom
+	 * {@link #parseParallel(Path, ForkJoinPool, LongConsumer, BooleanSupplier)}.
+	 * Metoda se smije pozivati iz bilo koje dretve tijekom parsiranja.
+	 *
+	 * @return broj do sada parsiranih objekata
+	 */
+	public int getObjectsParsed() {
+		return objectsParsed.get();
+	}
+
+	/**
+	 * Metoda koja parsira .jvd datoteku predstavljenu putanjom <b>file</b>
+	 *
+	 * @param file
+	 *            putanja do .jvd datoteke
+	 * @return {@link List} svih ispravno parsiranih objekata, u redoslijedu
+	 *         pojavljivanja u datoteci
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	public List<GeometricalObject> parse(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return parse(channel);
+		}
+	}
+
+	/**
+	 * Metoda koja parsira sadržaj .jvd datoteke pročitan iz kanala
+	 * <b>channel</b>. Kanal se ne zatvara.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita sadržaj .jvd datoteke
+	 * @return {@link List} svih ispravno parsiranih objekata, u redoslijedu
+	 *         pojavljivanja u datoteci
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati
+	 */
+	public List<GeometricalObject> parse(ReadableByteChannel channel) throws IOException {
+		return parse(channel, new ArrayList<>());
+	}
+
+	/**
+	 * Metoda koja parsira sadržaj .jvd datoteke pročitan iz kanala
+	 * <b>channel</b>, a ispravno parsirane objekte dodaje u listu
+	 * <b>objects</b>. Objekti se dodaju tijekom parsiranja, pa pozivatelj
+	 * (primjerice iz omotanog kanala, vidi {@link ProgressChannel}) može
+	 * pratiti koliko je objekata do sada parsirano. Kanal se ne zatvara.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita sadržaj .jvd datoteke
+	 * @param objects
+	 *            {@link List} u koju se dodaju parsirani objekti
+	 * @return predana lista <b>objects</b>
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati
+	 */
+	public List<GeometricalObject> parse(ReadableByteChannel channel, List<GeometricalObject> objects)
+			throws IOException {
+		errors = new ArrayList<>();
+
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long lineNumber = 1;
+		boolean eof = false;
+
+		while (!eof) {
+			eof = channel.read(buffer) == -1;
+			buffer.flip();
+
+			int limit = buffer.limit();
+			int end = eof ? limit : lastNewline(buffer, limit) + 1;
+			if (end > 0) {
+				lineNumber = parseRange(buffer, 0, end, lineNumber, objects, errors);
+			}
+
+			buffer.position(end);
+			buffer.compact();
+
+			if (!buffer.hasRemaining()) {
+				ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				larger.put(buffer);
+				buffer = larger;
+			}
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Metoda koja paralelno parsira .jvd datoteku predstavljenu putanjom
+	 * <b>file</b>, koristeći predani primjerak razreda {@link ForkJoinPool}.
+	 * Datoteka se dijeli na dijelove veličine najmanje
+	 * {@value #MIN_CHUNK_SIZE} okteta, čije granice padaju iza znaka za novi
+	 * redak, pa se svaki redak parsira u cijelosti unutar jednog dijela.
+	 * Rezultat i zabilježene pogreške jednaki su onima metode
+	 * {@link #parse(Path)}.
+	 *
+	 * @param file
+	 *            putanja do .jvd datoteke
+	 * @param pool
+	 *            primjerak razreda {@link ForkJoinPool} unutar kojeg se
+	 *            dijelovi parsiraju
+	 * @return {@link List} svih ispravno parsiranih objekata, u redoslijedu
+	 *         pojavljivanja u datoteci
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	public List<GeometricalObject> parseParallel(Path file, ForkJoinPool pool) throws IOException {
+		return parseParallel(file, pool, bytes -> {
+		}, () -> false);
+	}
+
+	/**
+	 * Metoda koja paralelno parsira .jvd datoteku predstavljenu putanjom
+	 * <b>file</b>, kao i metoda {@link #parseParallel(Path, ForkJoinPool)}.
+	 * Dijelovi datoteke parsiraju se u koracima od približno
+	 * {@value #PROGRESS_STEP} okteta koji završavaju na kraju retka. Nakon
+	 * svakog koraka promatraču <b>listener</b> predaje se ukupan broj do sada
+	 * parsiranih okteta (broj parsiranih objekata dohvaća se metodom
+	 * {@link #getObjectsParsed()}), a prije svakog koraka provjerava se je li
+	 * parsiranje prekinuto.
+	 *
+	 * @param file
+	 *            putanja do .jvd datoteke
+	 * @param pool
+	 *            primjerak razreda {@link ForkJoinPool} unutar kojeg se
+	 *            dijelovi parsiraju
+	 * @param listener
+	 *            promatrač napretka, koji se poziva iz dretvi koje parsiraju
+	 *            dijelove
+	 * @param cancelled
+	 *            uvjet koji ukazuje na to je li parsiranje prekinuto
+	 * @return {@link List} svih ispravno parsiranih objekata, u redoslijedu
+	 *         pojavljivanja u datoteci
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 * @throws CancellationException
+	 *             ukoliko je parsiranje prekinuto
+	 */
+	public List<GeometricalObject> parseParallel(Path file, ForkJoinPool pool, LongConsumer listener,
+			BooleanSupplier cancelled) throws IOException {
+		errors = new ArrayList<>();
+		objectsParsed.set(0);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			AtomicLong bytesParsed = new AtomicLong();
+			List<ChunkTask> tasks = new ArrayList<>();
+			for (long[] chunk : split(channel, pool.getParallelism())) {
+				tasks.add(new ChunkTask(channel, chunk[0], chunk[1], bytesParsed, objectsParsed, listener,
+						cancelled));
+			}
+
+			pool.invoke(new RecursiveTask<Void>() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected Void compute() {
+					invokeAll(tasks);
+					return null;
+				}
+			});
+
+			int total = 0;
+			for (ChunkTask task : tasks) {
+				if (task.failure != null) {
+					throw task.failure;
+				}
+				total += task.objects.size();
+			}
+			if (cancelled.getAsBoolean()) {
+				throw new CancellationException("Parsing of " + file + " was cancelled");
+			}
+
+			List<GeometricalObject> objects = new ArrayList<>(total);
+			long lineOffset = 0;
+			for (ChunkTask task : tasks) {
+				objects.addAll(task.objects);
+				for (JVDParseError error : task.errors) {
+					errors.add(new JVDParseError(error.getLineNumber() + lineOffset, error.getMessage()));
+				}
+				lineOffset += task.lineCount;
+			}
+
+			return objects;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sadržaj kanala <b>channel</b> dijeli na dijelove
+	 * čije granice padaju iza znaka za novi redak
+	 *
+	 * @param channel
+	 *            kanal datoteke koja se dijeli
+	 * @param parallelism
+	 *            broj dretvi koje će parsirati dijelove
+	 * @return {@link List} dijelova, pri čemu je svaki dio predstavljen
+	 *         početnom pozicijom i duljinom
+	 * @throws IOException
+	 *             ukoliko iz kanala nije moguće čitati
+	 */
+	private static List<long[]> split(FileChannel channel, int parallelism) throws IOException {
+		long size = channel.size();
+		long chunkCount = Math.max(1, Math.min(size / MIN_CHUNK_SIZE, 4L * parallelism));
+		long chunkSize = Math.min(MAX_CHUNK_SIZE, (size + chunkCount - 1) / chunkCount);
+
+		List<long[]> chunks = new ArrayList<>();
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		long start = 0;
+
+		while (start < size) {
+			long end = Math.min(size, start + chunkSize);
+
+			while (end < size) {
+				probe.clear();
+				int read = channel.read(probe, end);
+				if (read <= 0) {
+					end = size;
+					break;
+				}
+
+				int newline = indexOfNewline(probe, read);
+				if (newline != -1) {
+					end += newline + 1;
+					break;
+				}
+				end += read;
+			}
+
+			if (end - start > Integer.MAX_VALUE) {
+				throw new IOException("Line starting at byte " + start + " is too long to be parsed");
+			}
+
+			chunks.add(new long[] { start, end - start });
+			start = end;
+		}
+
+		return chunks;
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi poziciju prvog znaka za novi redak unutar
+	 * međuspremnika
+	 *
+	 * @param buffer
+	 *            međuspremnik koji se pretražuje
+	 * @param limit
+	 *            pozicija do koje se pretražuje (isključivo)
+	 * @return pozicija prvog znaka za novi redak ili -1 ukoliko on ne postoji
+	 */
+	private static int indexOfNewline(ByteBuffer buffer, int limit) {
+		for (int i = 0; i < limit; i++) {
+			if (buffer.get(i) == '\n') {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje kraj koraka parsiranja koji počinje na
+	 * poziciji <b>from</b> međuspremnika <b>buffer</b>, odnosno poziciju iza
+	 * prvog znaka za novi redak nakon {@value #PROGRESS_STEP} okteta
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži retke .jvd datoteke
+	 * @param from
+	 *            početna pozicija koraka
+	 * @param to
+	 *            završna pozicija međuspremnika (isključivo)
+	 * @return završna pozicija koraka (isključivo)
+	 */
+	private static int stepEnd(ByteBuffer buffer, int from, int to) {
+		if (to - from <= PROGRESS_STEP) {
+			return to;
+		}
+
+		for (int i = from + PROGRESS_STEP; i < to; i++) {
+			if (buffer.get(i) == '\n') {
+				return i + 1;
+			}
+		}
+
+		return to;
+	}
+
+	/**
+	 * Metoda koja parsira sve retke koji se nalaze unutar međuspremnika
+	 * <b>buffer</b> na pozicijama [<b>from</b>, <b>to</b>&gt;. Ispravno
+	 * parsirani objekti dodaju se u listu <b>objects</b>, a pogreške u listu
+	 * <b>errors</b>.
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži retke .jvd datoteke
+	 * @param from
+	 *            početna pozicija (uključivo)
+	 * @param to
+	 *            završna pozicija (isključivo)
+	 * @param firstLine
+	 *            redni broj retka koji počinje na poziciji <b>from</b>
+	 * @param objects
+	 *            lista u koju se dodaju parsirani objekti
+	 * @param errors
+	 *            lista u koju se dodaju pogreške
+	 * @return redni broj retka koji slijedi nakon parsiranih redaka
+	 */
+	long parseRange(ByteBuffer buffer, int from, int to, long firstLine, List<GeometricalObject> objects,
+			List<JVDParseError> errors) {
+		long lineNumber = firstLine;
+		int lineStart = from;
+
+		while (lineStart < to) {
+			int lineEnd = lineStart;
+			while (lineEnd < to && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+
+			int contentEnd = lineEnd;
+			if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+				contentEnd--;
+			}
+
+			try {
+				GeometricalObject object = parseLine(buffer, lineStart, contentEnd);
+				if (object != null) {
+					objects.add(object);
+				}
+			} catch (LineFormatException e) {
+				errors.add(new JVDParseError(lineNumber, e.getMessage()));
+			}
+
+			lineNumber++;
+			lineStart = lineEnd + 1;
+		}
+
+		return lineNumber;
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira jedan redak .jvd datoteke koji se nalazi
+	 * unutar međuspremnika <b>buffer</b> na pozicijama [<b>from</b>,
+	 * <b>to</b>&gt;
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param from
+	 *            početna pozicija retka (uključivo)
+	 * @param to
+	 *            završna pozicija retka (isključivo)
+	 * @return parsirani objekt ili <code>null</code> ukoliko je redak prazan
+	 * @throws LineFormatException
+	 *             ukoliko redak nije ispravan
+	 */
+	private GeometricalObject parseLine(ByteBuffer buffer, int from, int to) throws LineFormatException {
+		position = skipSpaces(buffer, from, to);
+		if (position == to) {
+			return null;
+		}
+
+		int keywordStart = position;
+		while (position < to && !isSpace(buffer.get(position))) {
+			position++;
+		}
+		int keywordEnd = position;
+
+		GeometricalObject object;
+		if (matches(buffer, keywordStart, keywordEnd, LINE_KEYWORD)) {
+			Point start = new Point(nextInt(buffer, to), nextInt(buffer, to));
+			Point end = new Point(nextInt(buffer, to), nextInt(buffer, to));
+			object = new Line(start, end, nextColor(buffer, to));
+		} else if (matches(buffer, keywordStart, keywordEnd, CIRCLE_KEYWORD)) {
+			Point center = new Point(nextInt(buffer, to), nextInt(buffer, to));
+			int radius = nextInt(buffer, to);
+			object = new Circle(center, radius, nextColor(buffer, to));
+		} else if (matches(buffer, keywordStart, keywordEnd, FILLED_CIRCLE_KEYWORD)) {
+			Point center = new Point(nextInt(buffer, to), nextInt(buffer, to));
+			int radius = nextInt(buffer, to);
+			Color fgColor = nextColor(buffer, to);
+			object = new FilledCircle(center, radius, fgColor, nextColor(buffer, to));
+		} else {
+			throw new LineFormatException("Unknown object type '" + ascii(buffer, keywordStart, keywordEnd) + "'");
+		}
+
+		if (skipSpaces(buffer, position, to) != to) {
+			throw new LineFormatException("Unexpected trailing content");
+		}
+
+		return object;
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira tri sljedeća cijela broja kao komponente
+	 * boje
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param to
+	 *            završna pozicija retka (isključivo)
+	 * @return parsirana boja
+	 * @throws LineFormatException
+	 *             ukoliko komponente nisu ispravne
+	 */
+	private Color nextColor(ByteBuffer buffer, int to) throws LineFormatException {
+		int red = nextInt(buffer, to);
+		int green = nextInt(buffer, to);
+		int blue = nextInt(buffer, to);
+
+		try {
+			return colorCache.get(red, green, blue);
+		} catch (IllegalArgumentException e) {
+			throw new LineFormatException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira sljedeći cijeli broj počevši od pozicije
+	 * {@link #position}, preskačući praznine ispred broja
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param to
+	 *            završna pozicija retka (isključivo)
+	 * @return parsirani cijeli broj
+	 * @throws LineFormatException
+	 *             ukoliko na poziciji nije ispravan cijeli broj
+	 */
+	private int nextInt(ByteBuffer buffer, int to) throws LineFormatException {
+		int i = skipSpaces(buffer, position, to);
+		if (i == to) {
+			throw new LineFormatException("Missing value");
+		}
+
+		boolean negative = false;
+		byte b = buffer.get(i);
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			i++;
+		}
+
+		int digitsStart = i;
+		long value = 0;
+		for (; i < to; i++) {
+			b = buffer.get(i);
+			if (b < '0' || b > '9') {
+				break;
+			}
+
+			value = value * 10 + (b - '0');
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				throw new LineFormatException("Number out of range");
+			}
+		}
+
+		if (i == digitsStart || (i < to && !isSpace(buffer.get(i)))) {
+			throw new LineFormatException("Invalid number '" + ascii(buffer, digitsStart, nextSpace(buffer, i, to))
+					+ "'");
+		}
+
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			throw new LineFormatException("Number out of range");
+		}
+
+		position = i;
+		return (int) value;
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi poziciju posljednjeg znaka za novi redak
+	 * unutar međuspremnika
+	 *
+	 * @param buffer
+	 *            međuspremnik koji se pretražuje
+	 * @param limit
+	 *            pozicija do koje se pretražuje (isključivo)
+	 * @return pozicija posljednjeg znaka za novi redak ili -1 ukoliko on ne
+	 *         postoji
+	 */
+	static int lastNewline(ByteBuffer buffer, int limit) {
+		for (int i = limit - 1; i >= 0; i--) {
+			if (buffer.get(i) == '\n') {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Pomoćna metoda koja preskače sve praznine počevši od pozicije
+	 * <b>from</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param from
+	 *            početna pozicija
+	 * @param to
+	 *            završna pozicija retka (isključivo)
+	 * @return pozicija prvog znaka koji nije praznina ili <b>to</b>
+	 */
+	private static int skipSpaces(ByteBuffer buffer, int from, int to) {
+		while (from < to && isSpace(buffer.get(from))) {
+			from++;
+		}
+
+		return from;
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi prvu prazninu počevši od pozicije
+	 * <b>from</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param from
+	 *            početna pozicija
+	 * @param to
+	 *            završna pozicija retka (isključivo)
+	 * @return pozicija prve praznine ili <b>to</b>
+	 */
+	private static int nextSpace(ByteBuffer buffer, int from, int to) {
+		while (from < to && !isSpace(buffer.get(from))) {
+			from++;
+		}
+
+		return from;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li predani oktet praznina (razmak ili
+	 * tabulator)
+	 *
+	 * @param b
+	 *            oktet koji se provjerava
+	 * @return <code>true</code> ukoliko je oktet praznina, <code>false</code>
+	 *         inače
+	 */
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava jesu li okteti na pozicijama [<b>from</b>,
+	 * <b>to</b>&gt; jednaki oktetima <b>keyword</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param from
+	 *            početna pozicija (uključivo)
+	 * @param to
+	 *            završna pozicija (isključivo)
+	 * @param keyword
+	 *            okteti ključne riječi
+	 * @return <code>true</code> ukoliko su okteti jednaki, <code>false</code>
+	 *         inače
+	 */
+	private static boolean matches(ByteBuffer buffer, int from, int to, byte[] keyword) {
+		if (to - from != keyword.length) {
+			return false;
+		}
+
+		for (int i = 0; i < keyword.length; i++) {
+			if (buffer.get(from + i) != keyword[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja oktete na pozicijama [<b>from</b>, <b>to</b>&gt;
+	 * pretvara u {@link String}. Koristi se isključivo za opis pogrešaka.
+	 *
+	 * @param buffer
+	 *            međuspremnik koji sadrži redak
+	 * @param from
+	 *            početna pozicija (uključivo)
+	 * @param to
+	 *            završna pozicija (isključivo)
+	 * @return okteti pretvoreni u {@link String}
+	 */
+	private static String ascii(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[Math.min(to - from, 32)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Pomoćni razred koji nasljeđuje {@link RecursiveTask}. Primjerci ovog
+	 * razreda mapiraju jedan dio datoteke u memoriju i parsiraju ga zasebnim
+	 * primjerkom razreda {@link JVDParser}.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class ChunkTask extends RecursiveTask<Void> {
+
+		/**
+		 * Konstanta koja se koristi prilikom serijalizacije objekata ovog
+		 * razreda
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja kanal datoteke */
+		private FileChannel channel;
+
+		/** Članska varijabla koja predstavlja početnu poziciju dijela */
+		private long start;
+
+		/** Članska varijabla koja predstavlja duljinu dijela */
+		private long length;
+
+		/** Članska varijabla koja predstavlja parsirane objekte ovog dijela */
+		private List<GeometricalObject> objects;
+
+		/**
+		 * Članska varijabla koja predstavlja pogreške ovog dijela, s rednim
+		 * brojevima redaka relativnim u odnosu na početak dijela
+		 */
+		private List<JVDParseError> errors;
+
+		/** Članska varijabla koja predstavlja broj redaka ovog dijela */
+		private long lineCount;
+
+		/**
+		 * Članska varijabla koja predstavlja iznimku nastalu prilikom mapiranja
+		 * dijela
+		 */
+		private IOException failure;
+
+		/**
+		 * Članska varijabla koja predstavlja ukupan broj parsiranih okteta svih
+		 * dijelova
+		 */
+		private AtomicLong bytesParsed;
+
+		/**
+		 * Članska varijabla koja predstavlja ukupan broj parsiranih objekata
+		 * svih dijelova
+		 */
+		private AtomicInteger objectsParsed;
+
+		/** Članska varijabla koja predstavlja promatrača napretka */
+		private LongConsumer listener;
+
+		/**
+		 * Članska varijabla koja predstavlja uvjet koji ukazuje na to je li
+		 * parsiranje prekinuto
+		 */
+		private BooleanSupplier cancelled;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+		 * konstruktora interno se pohranjuju svi predani parametri
+		 *
+		 * @param channel
+		 *            kanal datoteke
+		 * @param start
+		 *            početna pozicija dijela
+		 * @param length
+		 *            duljina dijela
+		 * @param bytesParsed
+		 *            ukupan broj parsiranih okteta svih dijelova
+		 * @param objectsParsed
+		 *            ukupan broj parsiranih objekata svih dijelova
+		 * @param listener
+		 *            promatrač napretka
+		 * @param cancelled
+		 *            uvjet koji ukazuje na to je li parsiranje prekinuto
+		 */
+		public ChunkTask(FileChannel channel, long start, long length, AtomicLong bytesParsed,
+				AtomicInteger objectsParsed, LongConsumer listener, BooleanSupplier cancelled) {
+			this.channel = channel;
+			this.start = start;
+			this.length = length;
+			this.bytesParsed = bytesParsed;
+			this.objectsParsed = objectsParsed;
+			this.listener = listener;
+			this.cancelled = cancelled;
+			this.objects = new ArrayList<>();
+			this.errors = new ArrayList<>();
+		}
+
+		@Override
+		protected Void compute() {
+			try {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+				JVDParser parser = new JVDParser();
+				int end = (int) length;
+				long lineNumber = 1;
+
+				for (int from = 0; from < end && !cancelled.getAsBoolean();) {
+					int to = stepEnd(buffer, from, end);
+					int before = objects.size();
+					lineNumber = parser.parseRange(buffer, from, to, lineNumber, objects, errors);
+
+					objectsParsed.addAndGet(objects.size() - before);
+					listener.accept(bytesParsed.addAndGet(to - from));
+					from = to;
+				}
+				lineCount = lineNumber - 1;
+			} catch (IOException e) {
+				failure = e;
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćni razred koji predstavlja iznimku koja se baca kada redak .jvd
+	 * datoteke nije ispravan
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class LineFormatException extends Exception {
+
+		/**
+		 * Konstanta koja se koristi prilikom serijalizacije objekata ovog
+		 * razreda
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param message
+		 *            opis pogreške
+		 */
+		public LineFormatException(String message) {
+			super(message, null, false, false);
+		}
+	}
+}
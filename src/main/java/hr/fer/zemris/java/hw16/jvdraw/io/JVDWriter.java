@@ -0,0 +1,205 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+
+/**
+ * Razred koji predstavlja pisač .jvd datoteka. Pisač podatke objekata dobiva
+ * kao posjetitelj (vidi {@link GeometricalObjectVisitor}) te ih izravno
+ * kodira u oktete unutar međuspremnika veličine {@value #BUFFER_SIZE} okteta,
+ * koji se po popunjavanju zapisuje u kanal. Time se prilikom pisanja ne
+ * stvaraju primjerci razreda {@link String}.
+ * <p>
+ * Retci se odvajaju znakom za novi redak, pri čemu se nakon posljednjeg retka
+ * znak za novi redak ne zapisuje. Po završetku pisanja potrebno je pozvati
+ * metodu {@link #flush()}. Pisač ne zatvara kanal.
+ * </p>
+ *
+ * @see JVDParser
+ *
+ * @author Davor Češljaš
+ */
+public class JVDWriter implements GeometricalObjectVisitor {
+
+	/** Konstanta koja predstavlja veličinu međuspremnika */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj okteta koji može zauzeti jedan
+	 * redak .jvd datoteke
+	 */
+	private static final int MAX_LINE_SIZE = 128;
+
+	/** Konstanta koja predstavlja oktete ključne riječi linije */
+	private static final byte[] LINE_KEYWORD = Line.JVD_REPRESENTATION.getBytes(StandardCharsets.US_ASCII);
+
+	/** Konstanta koja predstavlja oktete ključne riječi kruga */
+	private static final byte[] CIRCLE_KEYWORD = Circle.JVD_REPRESENTATION.getBytes(StandardCharsets.US_ASCII);
+
+	/** Konstanta koja predstavlja oktete ključne riječi ispunjenog kruga */
+	private static final byte[] FILLED_CIRCLE_KEYWORD = FilledCircle.JVD_REPRESENTATION
+			.getBytes(StandardCharsets.US_ASCII);
+
+	/** Članska varijabla koja predstavlja kanal u koji se piše */
+	private WritableByteChannel channel;
+
+	/** Članska varijabla koja predstavlja međuspremnik */
+	private ByteBuffer buffer;
+
+	/** Članska varijabla koja predstavlja pomoćno polje za znamenke broja */
+	private byte[] digits;
+
+	/** Članska varijabla koja predstavlja broj do sada zapisanih redaka */
+	private long written;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuje sadržaj .jvd datoteke
+	 */
+	public JVDWriter(WritableByteChannel channel) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.digits = new byte[11];
+	}
+
+	/**
+	 * Metoda koja zapisuje predani objekt <b>object</b> kao jedan redak .jvd
+	 * datoteke
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} koji se zapisuje
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	public void write(GeometricalObject object) throws IOException {
+		try {
+			object.accept(this);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća broj do sada zapisanih redaka
+	 *
+	 * @return broj do sada zapisanih redaka
+	 */
+	public long getWritten() {
+		return written;
+	}
+
+	/**
+	 * Metoda koja sav sadržaj međuspremnika zapisuje u kanal
+	 *
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+		beginLine(LINE_KEYWORD);
+		putInt(x0);
+		putInt(y0);
+		putInt(x1);
+		putInt(y1);
+		putColor(rgb);
+	}
+
+	@Override
+	public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+		beginLine(CIRCLE_KEYWORD);
+		putInt(cx);
+		putInt(cy);
+		putInt(radius);
+		putColor(fgRgb);
+	}
+
+	@Override
+	public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+		beginLine(FILLED_CIRCLE_KEYWORD);
+		putInt(cx);
+		putInt(cy);
+		putInt(radius);
+		putColor(fgRgb);
+		putColor(bgRgb);
+	}
+
+	/**
+	 * Pomoćna metoda koja započinje novi redak s ključnom riječi
+	 * <b>keyword</b>. Po potrebi se sadržaj međuspremnika najprije zapisuje u
+	 * kanal.
+	 *
+	 * @param keyword
+	 *            okteti ključne riječi
+	 * @throws UncheckedIOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	private void beginLine(byte[] keyword) {
+		if (buffer.remaining() < MAX_LINE_SIZE) {
+			try {
+				flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		if (written++ > 0) {
+			buffer.put((byte) '\n');
+		}
+		buffer.put(keyword);
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje komponente boje <b>rgb</b>
+	 *
+	 * @param rgb
+	 *            RGB vrijednost boje
+	 */
+	private void putColor(int rgb) {
+		putInt((rgb >> 16) & 0xFF);
+		putInt((rgb >> 8) & 0xFF);
+		putInt(rgb & 0xFF);
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje razmak i dekadski zapis broja <b>value</b>
+	 *
+	 * @param value
+	 *            broj koji se zapisuje
+	 */
+	private void putInt(int value) {
+		buffer.put((byte) ' ');
+
+		long v = value;
+		if (v < 0) {
+			buffer.put((byte) '-');
+			v = -v;
+		}
+
+		int i = digits.length;
+		do {
+			digits[--i] = (byte) ('0' + v % 10);
+			v /= 10;
+		} while (v != 0);
+
+		buffer.put(digits, i, digits.length - i);
+	}
+}
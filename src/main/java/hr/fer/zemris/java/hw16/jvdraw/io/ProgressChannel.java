@@ -0,0 +1,71 @@
+package hr.fer.zemris.java.hw16.jvdraw.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.LongConsumer;
+
+/**
+ * Razred koji implementira sučelje {@link ReadableByteChannel}. Primjerak
+ * ovog razreda omata neki drugi kanal, prebrojava oktete pročitane iz njega te
+ * nakon svakog čitanja ukupan broj pročitanih okteta predaje promatraču. Time
+ * se može pratiti napredak parsera koji čitaju iz kanala (vidi
+ * {@link JVDParser} i {@link JVDBinaryReader}).
+ *
+ * @author Davor Češljaš
+ */
+public class ProgressChannel implements ReadableByteChannel {
+
+	/** Članska varijabla koja predstavlja omotani kanal */
+	private ReadableByteChannel channel;
+
+	/** Članska varijabla koja predstavlja promatrača napretka čitanja */
+	private LongConsumer listener;
+
+	/** Članska varijabla koja predstavlja broj pročitanih okteta */
+	private long bytesRead;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param channel
+	 *            kanal koji se omata
+	 * @param listener
+	 *            promatrač kojem se nakon svakog čitanja predaje ukupan broj
+	 *            pročitanih okteta
+	 */
+	public ProgressChannel(ReadableByteChannel channel, LongConsumer listener) {
+		this.channel = channel;
+		this.listener = listener;
+	}
+
+	/**
+	 * Metoda koja dohvaća ukupan broj okteta pročitanih iz ovog kanala
+	 *
+	 * @return ukupan broj pročitanih okteta
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		int read = channel.read(dst);
+		if (read > 0) {
+			bytesRead += read;
+			listener.accept(bytesRead);
+		}
+
+		return read;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,418 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Apstraktni razred koji djelomično implementira sučelje {@link DrawingModel}.
+ * Razred sadrži zajednički dio svih modela: pohranu promatrača modeliranih
+ * sučeljem {@link DrawingModelListener}, metode za njihovo obavještavanje te
+ * površinu zahvaćenu posljednjom promjenom (vidi {@link #getChangedArea()}).
+ * <p>
+ * Razred dodatno omogućuje grupiranje promjena (vidi {@link #beginBatch()} i
+ * {@link #endBatch()}). Obavijesti nastale tijekom grupe se ne šalju odmah,
+ * već se susjedni rasponi iste vrste spajaju te se promatrači obavještavaju
+ * tek na kraju grupe, a površina zahvaćena promjenom je unija površina svih
+ * promjena unutar grupe. Ukoliko ni nakon spajanja broj obavijesti nije manji
+ * od {@value #MAX_BATCH_EVENTS}, promatrači se obavještavaju da je uklonjen
+ * cijeli stari sadržaj te da je dodan cijeli novi sadržaj modela.
+ * </p>
+ * <p>
+ * Promatrači odgođene obavijesti obrađuju nad sadržajem modela s kraja grupe.
+ * Stoga se i u slučaju kada bi neko brisanje ili umetanje pomaknulo objekte na
+ * koje se odnosi ranija obavijest o umetanju ili promjeni (primjerice kada se
+ * unutar grupe dodani objekt ponovno obriše), promatrači obavještavaju o
+ * zamjeni cijelog sadržaja.
+ * </p>
+ *
+ * @see DrawingModel
+ * @see JVDrawingModel
+ * @see MappedDrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public abstract class AbstractDrawingModel implements DrawingModel {
+
+	/**
+	 * Konstanta koja predstavlja broj obavijesti unutar grupe promjena od kojeg
+	 * se promatrači obavještavaju o zamjeni cijelog sadržaja modela
+	 */
+	public static final int MAX_BATCH_EVENTS = 64;
+
+	/** Konstanta koja predstavlja obavijest o umetanju objekata */
+	private static final int ADDED = 0;
+
+	/** Konstanta koja predstavlja obavijest o brisanju objekata */
+	private static final int REMOVED = 1;
+
+	/** Konstanta koja predstavlja obavijest o promjeni objekata */
+	private static final int CHANGED = 2;
+
+	/**
+	 * Članska varijabla koja predstavlja {@link List} svih promatrača
+	 * modeliranih sučeljem {@link DrawingModelListener} koji slušaju na
+	 * promjene unutar modela
+	 */
+	private List<DrawingModelListener> listeners;
+
+	/**
+	 * Članska varijabla koja predstavlja površinu zahvaćenu posljednjom
+	 * promjenom modela
+	 */
+	protected Rectangle changedArea;
+
+	/** Članska varijabla koja predstavlja dubinu ugniježđenih grupa promjena */
+	private int batchDepth;
+
+	/**
+	 * Članska varijabla koja predstavlja broj objekata u modelu na početku
+	 * grupe promjena
+	 */
+	private int batchStartSize;
+
+	/**
+	 * Članska varijabla koja predstavlja spojene obavijesti nastale tijekom
+	 * grupe promjena
+	 */
+	private List<PendingEvent> pendingEvents;
+
+	/**
+	 * Članska varijabla koja predstavlja najveću poziciju na koju se odnosi
+	 * neka odgođena obavijest o umetanju ili promjeni, odnosno -1 ukoliko
+	 * takve obavijesti nema
+	 */
+	private int pendingDataEnd;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to da se
+	 * odgođene obavijesti ne mogu obraditi nad sadržajem s kraja grupe
+	 */
+	private boolean pendingReset;
+
+	/**
+	 * Članska varijabla koja predstavlja uniju površina zahvaćenih promjenama
+	 * unutar grupe
+	 */
+	private Rectangle pendingArea;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to je li
+	 * neka od promjena unutar grupe zahvatila nepoznatu površinu
+	 */
+	private boolean pendingAreaUnknown;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 */
+	protected AbstractDrawingModel() {
+		this.listeners = new ArrayList<>();
+	}
+
+	@Override
+	public Rectangle getChangedArea() {
+		return changedArea;
+	}
+
+	@Override
+	public void addDrawingModelListener(DrawingModelListener l) {
+		listeners = new ArrayList<>(listeners);
+		listeners.add(l);
+	}
+
+	@Override
+	public void removeDrawingModelListener(DrawingModelListener l) {
+		listeners = new ArrayList<>(listeners);
+		listeners.remove(l);
+	}
+
+	/**
+	 * Metoda koja se koristi za obavještavanje svih registriranih promatrača,
+	 * da se u rasponu [<b>index0</b>, <b>index1</b>] dogodilo umetanje novih
+	 * objekata
+	 *
+	 * @param index0
+	 *            početna pozicija raspona (uključivo)
+	 * @param index1
+	 *            završna pozicija raspona (uključivo)
+	 */
+	protected void fireObjectsAdded(int index0, int index1) {
+		if (batchDepth > 0) {
+			defer(ADDED, index0, index1);
+			return;
+		}
+		notifiyListeners(l -> l.objectsAdded(this, index0, index1));
+	}
+
+	/**
+	 * Metoda koja se koristi za obavještavanje svih registriranih promatrača,
+	 * da se u rasponu [<b>index0</b>, <b>index1</b>] dogodila promjena
+	 * interno spremljenih objekata
+	 *
+	 * @param index0
+	 *            početna pozicija raspona (uključivo)
+	 * @param index1
+	 *            završna pozicija raspona (uključivo)
+	 */
+	protected void fireObjectsChanged(int index0, int index1) {
+		if (batchDepth > 0) {
+			defer(CHANGED, index0, index1);
+			return;
+		}
+		notifiyListeners(l -> l.objectsChanged(this, index0, index1));
+	}
+
+	/**
+	 * Metoda koja se koristi za obavještavanje svih registriranih promatrača,
+	 * da se u rasponu [<b>index0</b>, <b>index1</b>] dogodilo brisanje
+	 * interno spremljenih objekata
+	 *
+	 * @param index0
+	 *            početna pozicija raspona (uključivo)
+	 * @param index1
+	 *            završna pozicija raspona (uključivo)
+	 */
+	protected void fireObjectsRemoved(int index0, int index1) {
+		if (batchDepth > 0) {
+			defer(REMOVED, index0, index1);
+			return;
+		}
+		notifiyListeners(l -> l.objectsRemoved(this, index0, index1));
+	}
+
+	/**
+	 * Metoda koja započinje grupu promjena. Sve obavijesti do odgovarajućeg
+	 * poziva metode {@link #endBatch()} se odgađaju. Grupe se mogu ugnijezditi,
+	 * a obavijesti se šalju na kraju vanjske grupe.
+	 */
+	protected void beginBatch() {
+		if (batchDepth++ > 0) {
+			return;
+		}
+
+		batchStartSize = getSize();
+		pendingEvents = new ArrayList<>();
+		pendingDataEnd = -1;
+		pendingReset = false;
+		pendingArea = null;
+		pendingAreaUnknown = false;
+	}
+
+	/**
+	 * Metoda koja završava grupu promjena započetu metodom
+	 * {@link #beginBatch()}. Ukoliko se radi o vanjskoj grupi, svi promatrači se
+	 * obavještavaju o spojenim promjenama.
+	 */
+	protected void endBatch() {
+		if (--batchDepth > 0) {
+			return;
+		}
+
+		List<PendingEvent> events = pendingEvents;
+		pendingEvents = null;
+		if (events.isEmpty()) {
+			return;
+		}
+		changedArea = pendingAreaUnknown ? null : pendingArea;
+		pendingArea = null;
+
+		if (!pendingReset && events.size() < MAX_BATCH_EVENTS) {
+			for (PendingEvent event : events) {
+				fire(event.type, event.index0, event.index1);
+			}
+			return;
+		}
+
+		if (batchStartSize > 0) {
+			fire(REMOVED, 0, batchStartSize - 1);
+		}
+		if (getSize() > 0) {
+			fire(ADDED, 0, getSize() - 1);
+		}
+	}
+
+	/**
+	 * Metoda koja iterira po svim registriranim promatračima i nad svakim
+	 * poziva metodu {@link Consumer#accept(Object)} predanog primjerka
+	 * sučelja <b>consumer</b>. Razredi koji nasljeđuju ovaj razred mogu
+	 * nadjačati ovu metodu kako bi uz svaku obavijest obavili i dodatni
+	 * posao.
+	 *
+	 * @param consumer
+	 *            strategija koja modelira posao koji se izvodi nad svakim od
+	 *            registriranih promatrača
+	 */
+	protected void notifiyListeners(Consumer<DrawingModelListener> consumer) {
+		listeners.forEach(consumer);
+	}
+
+	/**
+	 * Pomoćna metoda koja odgađa obavijest vrste <b>type</b> o rasponu
+	 * [<b>index0</b>, <b>index1</b>] do kraja grupe promjena. Ukoliko se
+	 * raspon nastavlja na raspon posljednje odgođene obavijesti iste vrste,
+	 * obavijesti se spajaju. Površina zahvaćena promjenom pribraja se uniji
+	 * površina grupe. Ukoliko obavijest pomiče objekte na koje se odnosi neka
+	 * ranija obavijest o umetanju ili promjeni, grupa se označava kao zamjena
+	 * cijelog sadržaja.
+	 *
+	 * @param type
+	 *            vrsta obavijesti
+	 * @param index0
+	 *            početna pozicija raspona (uključivo)
+	 * @param index1
+	 *            završna pozicija raspona (uključivo)
+	 */
+	private void defer(int type, int index0, int index1) {
+		if (changedArea == null) {
+			pendingAreaUnknown = true;
+		} else {
+			pendingArea = union(pendingArea, new Rectangle(changedArea));
+		}
+
+		if (pendingReset) {
+			return;
+		}
+
+		PendingEvent last = pendingEvents.isEmpty() ? null : pendingEvents.get(pendingEvents.size() - 1);
+		if (last == null || last.type != type || !last.merge(index0, index1)) {
+			if (type == REMOVED && pendingDataEnd >= 0 || type == ADDED && index0 <= pendingDataEnd) {
+				pendingReset = true;
+				return;
+			}
+			last = new PendingEvent(type, index0, index1);
+			pendingEvents.add(last);
+		}
+
+		if (type != REMOVED) {
+			pendingDataEnd = Math.max(pendingDataEnd, last.index1);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja odmah obavještava sve promatrače o promjeni vrste
+	 * <b>type</b> u rasponu [<b>index0</b>, <b>index1</b>]
+	 *
+	 * @param type
+	 *            vrsta obavijesti
+	 * @param index0
+	 *            početna pozicija raspona (uključivo)
+	 * @param index1
+	 *            završna pozicija raspona (uključivo)
+	 */
+	private void fire(int type, int index0, int index1) {
+		switch (type) {
+		case ADDED:
+			notifiyListeners(l -> l.objectsAdded(this, index0, index1));
+			break;
+		case REMOVED:
+			notifiyListeners(l -> l.objectsRemoved(this, index0, index1));
+			break;
+		default:
+			notifiyListeners(l -> l.objectsChanged(this, index0, index1));
+			break;
+		}
+	}
+
+	/**
+	 * Metoda koja računa uniju dviju površina, pri čemu se vrijednost
+	 * <code>null</code> tumači kao prazna površina. Rezultat se pohranjuje u
+	 * prvu površinu, ukoliko ona postoji.
+	 *
+	 * @param first
+	 *            prva površina ili <code>null</code>
+	 * @param second
+	 *            druga površina ili <code>null</code>
+	 * @return unija površina ili <code>null</code> ukoliko su obje površine
+	 *         <code>null</code>
+	 */
+	protected static Rectangle union(Rectangle first, Rectangle second) {
+		if (first == null) {
+			return second;
+		}
+		if (second != null) {
+			first.add(second);
+		}
+
+		return first;
+	}
+
+	/**
+	 * Pomoćni razred koji predstavlja jednu odgođenu obavijest unutar grupe
+	 * promjena
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class PendingEvent {
+
+		/** Članska varijabla koja predstavlja vrstu obavijesti */
+		private int type;
+
+		/**
+		 * Članska varijabla koja predstavlja početnu poziciju raspona
+		 * (uključivo)
+		 */
+		private int index0;
+
+		/**
+		 * Članska varijabla koja predstavlja završnu poziciju raspona
+		 * (uključivo)
+		 */
+		private int index1;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param type
+		 *            vrsta obavijesti
+		 * @param index0
+		 *            početna pozicija raspona (uključivo)
+		 * @param index1
+		 *            završna pozicija raspona (uključivo)
+		 */
+		public PendingEvent(int type, int index0, int index1) {
+			this.type = type;
+			this.index0 = index0;
+			this.index1 = index1;
+		}
+
+		/**
+		 * Metoda koja pokušava ovoj obavijesti pripojiti sljedeću obavijest
+		 * iste vrste o rasponu [<b>from</b>, <b>to</b>]. Umetanje unutar ili
+		 * neposredno iza umetnutog raspona, brisanje koje dodiruje mjesto
+		 * prethodnog brisanja te promjena koja dodiruje promijenjeni raspon
+		 * mogu se opisati jednim rasponom.
+		 *
+		 * @param from
+		 *            početna pozicija raspona (uključivo)
+		 * @param to
+		 *            završna pozicija raspona (uključivo)
+		 * @return <code>true</code> ukoliko su obavijesti spojene,
+		 *         <code>false</code> inače
+		 */
+		public boolean merge(int from, int to) {
+			switch (type) {
+			case ADDED:
+				if (from < index0 || from > index1 + 1) {
+					return false;
+				}
+				index1 += to - from + 1;
+				return true;
+			case REMOVED:
+				if (index0 < from || index0 > to + 1) {
+					return false;
+				}
+				index1 += Math.max(0, to - index0 + 1);
+				index0 = from;
+				return true;
+			default:
+				if (from > index1 + 1 || to < index0 - 1) {
+					return false;
+				}
+				index0 = Math.min(index0, from);
+				index1 = Math.max(index1, to);
+				return true;
+			}
+		}
+	}
+}
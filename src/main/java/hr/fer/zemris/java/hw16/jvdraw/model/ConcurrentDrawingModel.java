@@ -0,0 +1,382 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractDrawingModel}. Razred
+ * predstavlja model u koji objekte mogu dodavati i iz kojeg ih mogu brisati
+ * proizvoljne dretve (primjerice dretva koja prima podatke s mreže), bez
+ * prebacivanja posla na dretvu za obradu događaja (EDT).
+ * <p>
+ * Metode {@link #add(GeometricalObject)}, {@link #remove(GeometricalObject)} i
+ * {@link #clear()} promjenu samo stavljaju u neblokirajući red i po potrebi
+ * zakazuju njegovo pražnjenje na EDT-u. Red se prazni u redoslijedu
+ * stavljanja, pa promjene jedne dretve ostaju poredane. Sve promjene iz jednog
+ * pražnjenja čine jednu grupu promjena (vidi {@link AbstractDrawingModel}), a
+ * promatrači se obavještavaju na EDT-u.
+ * </p>
+ * <p>
+ * Sadržaj modela predstavljen je nepromjenjivim snimkama (vidi
+ * {@link #snapshot()}). Nova snimka objavljuje se na kraju pražnjenja reda,
+ * pa čitatelji iz bilo koje dretve uvijek vide dosljedan sadržaj i pri tome ne
+ * blokiraju pisače. Dodavanje na kraj dijeli polje s prethodnim snimkama, dok
+ * se pri prvom brisanju unutar pražnjenja stvara kopija polja. Promjena je
+ * vidljiva metodama {@link #getSize()} i {@link #getObject(int)} tek nakon što
+ * je obrađena na EDT-u.
+ * </p>
+ *
+ * @see AbstractDrawingModel
+ * @see DrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public class ConcurrentDrawingModel extends AbstractDrawingModel {
+
+	/** Konstanta koja predstavlja početni kapacitet polja objekata */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Konstanta koja predstavlja promjenu dodavanja objekta */
+	private static final int ADD = 0;
+
+	/** Konstanta koja predstavlja promjenu brisanja objekta */
+	private static final int REMOVE = 1;
+
+	/** Konstanta koja predstavlja promjenu brisanja svih objekata */
+	private static final int CLEAR = 2;
+
+	/** Članska varijabla koja predstavlja red promjena koje čekaju obradu */
+	private Queue<Operation> operations;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to je li
+	 * pražnjenje reda već zakazano na EDT-u
+	 */
+	private AtomicBoolean drainScheduled;
+
+	/** Članska varijabla koja predstavlja posljednju objavljenu snimku */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda, odnosno stvara
+	 * prazan model
+	 */
+	public ConcurrentDrawingModel() {
+		this.operations = new ConcurrentLinkedQueue<>();
+		this.drainScheduled = new AtomicBoolean();
+		this.snapshot = new Snapshot(new GeometricalObject[INITIAL_CAPACITY], 0, null);
+	}
+
+	@Override
+	public int getSize() {
+		return snapshot.size();
+	}
+
+	@Override
+	public GeometricalObject getObject(int index) {
+		Snapshot current = snapshot;
+		if (index < 0 || index >= current.size()) {
+			return null;
+		}
+
+		return current.get(index);
+	}
+
+	/**
+	 * {@inheritDoc} Ova metoda se može pozvati iz bilo koje dretve, a objekt se
+	 * u model dodaje na EDT-u.
+	 */
+	@Override
+	public void add(GeometricalObject object) {
+		submit(new Operation(ADD, object));
+	}
+
+	/**
+	 * Metoda koja briše predani objekt <b>object</b> iz modela. Objekt se traži
+	 * po identitetu. Ova metoda se može pozvati iz bilo koje dretve, a objekt
+	 * se iz modela briše na EDT-u.
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} koji se briše
+	 */
+	public void remove(GeometricalObject object) {
+		submit(new Operation(REMOVE, object));
+	}
+
+	/**
+	 * Metoda koja briše sve objekte iz modela. Ova metoda se može pozvati iz
+	 * bilo koje dretve, a objekti se iz modela brišu na EDT-u, nakon svih
+	 * ranije predanih promjena.
+	 */
+	public void clear() {
+		submit(new Operation(CLEAR, null));
+	}
+
+	/**
+	 * Metoda koja dohvaća nepromjenjivu snimku trenutnog sadržaja modela.
+	 * Snimka se ne mijenja, pa se po njoj može iterirati iz bilo koje dretve.
+	 *
+	 * @return nepromjenjiva snimka sadržaja modela
+	 */
+	public List<GeometricalObject> snapshot() {
+		return snapshot;
+	}
+
+	@Override
+	public List<GeometricalObject> objectsIntersecting(Rectangle area) {
+		Snapshot current = snapshot;
+		if (area == null || current.bounds == null || area.contains(current.bounds)) {
+			return current;
+		}
+
+		int qMaxX = area.x + area.width - 1;
+		int qMaxY = area.y + area.height - 1;
+		List<GeometricalObject> found = new ArrayList<>();
+		Rectangle box = new Rectangle();
+		for (GeometricalObject object : current) {
+			object.boundsInto(box);
+			if (box.x <= qMaxX && box.x + box.width >= area.x && box.y <= qMaxY && box.y + box.height >= area.y) {
+				found.add(object);
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Pomoćna metoda koja promjenu <b>operation</b> stavlja u red te, ukoliko
+	 * ono već nije zakazano, zakazuje pražnjenje reda na EDT-u
+	 *
+	 * @param operation
+	 *            promjena koja se stavlja u red
+	 */
+	private void submit(Operation operation) {
+		operations.add(operation);
+		if (drainScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this::drain);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se izvodi na EDT-u, a obrađuje sve promjene iz reda
+	 * kao jednu grupu promjena. Uzastopna brisanja obrađuju se zajedno, jednim
+	 * sažimanjem polja. Polje objavljene snimke se smije mijenjati samo
+	 * iza njezinih objekata, pa se prije prvog brisanja kopira. Nova snimka se
+	 * objavljuje prije obavještavanja promatrača.
+	 */
+	private void drain() {
+		drainScheduled.set(false);
+
+		beginBatch();
+		try {
+			Snapshot current = snapshot;
+			GeometricalObject[] objects = current.objects;
+			int size = current.size;
+			Rectangle bounds = current.bounds == null ? null : new Rectangle(current.bounds);
+			boolean shared = true;
+
+			Operation operation;
+			while ((operation = operations.poll()) != null) {
+				switch (operation.type) {
+				case ADD:
+					if (size == objects.length) {
+						objects = Arrays.copyOf(objects, 2 * objects.length);
+						shared = false;
+					}
+					objects[size++] = operation.object;
+					changedArea = operation.object.getBoundingBox();
+					bounds = union(bounds, operation.object.getBoundingBox());
+					fireObjectsAdded(size - 1, size - 1);
+					break;
+				case REMOVE:
+					Map<GeometricalObject, Integer> pending = new IdentityHashMap<>();
+					int requested = 1;
+					pending.put(operation.object, 1);
+					while (operations.peek() != null && operations.peek().type == REMOVE) {
+						pending.merge(operations.poll().object, 1, Integer::sum);
+						requested++;
+					}
+
+					int[] removed = findRemoved(objects, size, pending, requested);
+					if (removed.length == 0) {
+						break;
+					}
+					if (shared) {
+						objects = objects.clone();
+						shared = false;
+					}
+
+					Rectangle area = null;
+					int kept = removed[0];
+					for (int i = 0; i < removed.length; i++) {
+						area = union(area, objects[removed[i]].getBoundingBox());
+						int next = i + 1 < removed.length ? removed[i + 1] : size;
+						for (int j = removed[i] + 1; j < next; j++) {
+							objects[kept++] = objects[j];
+						}
+					}
+					Arrays.fill(objects, kept, size, null);
+					size = kept;
+
+					int end = removed.length - 1;
+					for (int i = end; i >= 0; i--) {
+						if (i == 0 || removed[i - 1] != removed[i] - 1) {
+							changedArea = area;
+							fireObjectsRemoved(removed[i], removed[end]);
+							end = i - 1;
+						}
+					}
+					break;
+				default:
+					if (size == 0) {
+						break;
+					}
+					changedArea = bounds;
+					fireObjectsRemoved(0, size - 1);
+					objects = new GeometricalObject[INITIAL_CAPACITY];
+					shared = false;
+					size = 0;
+					bounds = null;
+					break;
+				}
+			}
+
+			snapshot = new Snapshot(objects, size, bounds);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja jednim prolazom kroz prvih <b>size</b> objekata
+	 * polja <b>objects</b> pronalazi pozicije objekata koji se brišu. Objekti
+	 * se uspoređuju po identitetu, a svako brisanje objekta iz
+	 * <b>pending</b> briše njegovo prvo preostalo pojavljivanje, jednako kao
+	 * i uzastopna pojedinačna brisanja.
+	 *
+	 * @param objects
+	 *            polje objekata
+	 * @param size
+	 *            broj objekata u polju
+	 * @param pending
+	 *            broj brisanja svakog objekta. Mapa se tijekom poziva prazni
+	 * @param requested
+	 *            ukupan broj brisanja
+	 * @return uzlazno sortirane pozicije objekata koji se brišu
+	 */
+	private static int[] findRemoved(GeometricalObject[] objects, int size, Map<GeometricalObject, Integer> pending,
+			int requested) {
+		int[] removed = new int[Math.min(size, requested)];
+		int count = 0;
+		for (int i = 0; i < size && !pending.isEmpty(); i++) {
+			Integer left = pending.get(objects[i]);
+			if (left == null) {
+				continue;
+			}
+
+			if (left == 1) {
+				pending.remove(objects[i]);
+			} else {
+				pending.put(objects[i], left - 1);
+			}
+			removed[count++] = i;
+		}
+
+		return Arrays.copyOf(removed, count);
+	}
+
+	/**
+	 * Pomoćni razred koji predstavlja jednu promjenu koja čeka obradu
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Operation {
+
+		/** Članska varijabla koja predstavlja vrstu promjene */
+		private int type;
+
+		/**
+		 * Članska varijabla koja predstavlja objekt nad kojim se promjena
+		 * obavlja
+		 */
+		private GeometricalObject object;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param type
+		 *            vrsta promjene
+		 * @param object
+		 *            objekt nad kojim se promjena obavlja
+		 */
+		public Operation(int type, GeometricalObject object) {
+			this.type = type;
+			this.object = object;
+		}
+	}
+
+	/**
+	 * Pomoćni razred koji nasljeđuje razred {@link AbstractList}, a
+	 * predstavlja nepromjenjivu snimku sadržaja modela. Snimka smije dijeliti
+	 * polje s kasnijim snimkama, jer one mijenjaju samo mjesta iza njezinih
+	 * objekata.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Snapshot extends AbstractList<GeometricalObject> {
+
+		/** Članska varijabla koja predstavlja polje objekata */
+		private final GeometricalObject[] objects;
+
+		/** Članska varijabla koja predstavlja broj objekata snimke */
+		private final int size;
+
+		/**
+		 * Članska varijabla koja predstavlja površinu koja zahvaća sve objekte
+		 * snimke ili <code>null</code> ukoliko je snimka prazna
+		 */
+		private final Rectangle bounds;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param objects
+		 *            polje objekata
+		 * @param size
+		 *            broj objekata snimke
+		 * @param bounds
+		 *            površina koja zahvaća sve objekte snimke
+		 */
+		public Snapshot(GeometricalObject[] objects, int size, Rectangle bounds) {
+			this.objects = objects;
+			this.size = size;
+			this.bounds = bounds;
+		}
+
+		@Override
+		public GeometricalObject get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+			}
+
+			return objects[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
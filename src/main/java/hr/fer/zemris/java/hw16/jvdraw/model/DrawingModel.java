@@ -1,5 +1,8 @@
 package hr.fer.zemris.java.hw16.jvdraw.model;
 
+import java.awt.Rectangle;
+import java.util.List;
+
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
 
 /**
@@ -10,6 +13,8 @@ import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
  * <li>{@link #getSize()}</li>
  * <li>{@link #add(GeometricalObject)}</li>
  * <li>{@link #getObject(int)}</li>
+ * <li>{@link #objectsIntersecting(Rectangle)}</li>
+ * <li>{@link #getChangedArea()}</li>
  * </ul>
  * 
  * Sučelje također predstavlja apstraktni subjekt unutar oblikovnog obrasca
@@ -58,6 +63,34 @@ public interface DrawingModel {
 	 */
 	void add(GeometricalObject object);
 
+	/**
+	 * Metoda koja dohvaća sve primjerke razreda koji implementiraju sučelje
+	 * {@link GeometricalObject}, a čija minimalna pravokutna površina (vidi
+	 * {@link GeometricalObject#getBoundingBox()}) siječe površinu <b>area</b>.
+	 * Objekti se vraćaju u redoslijedu u kojem su pohranjeni unutar modela,
+	 * odnosno u redoslijedu iscrtavanja. Ukoliko je <b>area</b>
+	 * <code>null</code> vraćaju se svi objekti.
+	 *
+	 * @param area
+	 *            površina koja se pretražuje ili <code>null</code>
+	 * @return {@link List} primjeraka razreda koji implementiraju sučelje
+	 *         {@link GeometricalObject}, a čija površina siječe površinu
+	 *         <b>area</b>
+	 */
+	List<GeometricalObject> objectsIntersecting(Rectangle area);
+
+	/**
+	 * Metoda koja dohvaća površinu zahvaćenu posljednjom promjenom modela,
+	 * odnosno uniju starih i novih minimalnih pravokutnih površina svih
+	 * objekata na koje je promjena utjecala. Metoda je namijenjena
+	 * promatračima koji unutar metoda sučelja {@link DrawingModelListener}
+	 * žele osvježiti samo zahvaćeni dio prikaza.
+	 *
+	 * @return površina zahvaćena posljednjom promjenom modela ili
+	 *         <code>null</code> ukoliko ona nije poznata
+	 */
+	Rectangle getChangedArea();
+
 	/**
 	 * Metoda koja interno pohranjuje primjerak razreda koji implementira
 	 * sučelje {@link DrawingModelListener}, a koji predstavlja promatrača nad
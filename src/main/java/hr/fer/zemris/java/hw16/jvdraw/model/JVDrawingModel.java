@@ -1,64 +1,98 @@
 package hr.fer.zemris.java.hw16.jvdraw.model;
 
-import java.awt.Dimension;
-import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 
-import hr.fer.zemris.java.hw16.jvdraw.canvas.JDrawingCanvas;
-import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
-import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
 import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
-import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryReader;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryWriter;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParseError;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParser;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDWriter;
+import hr.fer.zemris.java.hw16.jvdraw.render.TiledImageRenderer;
 
 /**
- * Razred koji implementira sučelje {@link DrawingModel}. Razred predstavlja
+ * Razred koji nasljeđuje razred {@link AbstractDrawingModel}, odnosno
+ * implementira sučelje {@link DrawingModel}. Razred predstavlja
  * konkretan subjekt unutar oblikovnog obrsca
  * <a href ="https://en.wikipedia.org/wiki/Visitor_pattern">promatrač</a>. Uz
  * metode sučelja {@link DrawingModel}, razred implementira i nekolicinu
  * dodatnih metoda:
  * <ul>
+ * <li>{@link #indexOf(GeometricalObject)}</li>
  * <li>{@link #remove(GeometricalObject)}</li>
  * <li>{@link #change(GeometricalObject, JPanel)}</li>
  * <li>{@link #isModified()}</li>
  * <li>{@link #setModified(boolean)}</li>
+ * <li>{@link #getModificationCount()}</li>
+ * <li>{@link #snapshot()}</li>
  * <li>{@link #clear()}</li>
  * <li>{@link #addAll(List)}</li>
+ * <li>{@link #removeAll(Collection)}</li>
+ * <li>{@link #removeIndices(int...)}</li>
+ * <li>{@link #batch(Consumer)}</li>
+ * <li>{@link #getHistory()}</li>
  * <li>{@link #loadFromJVD(Path)}</li>
- * <li>{@link #exportAsImage(File, String, JDrawingCanvas)}</li>
+ * <li>{@link #loadFromJVD(Path, boolean)}</li>
+ * <li>{@link #writeJVD(WritableByteChannel)}</li>
+ * <li>{@link #writeJVD(OutputStream)}</li>
+ * <li>{@link #loadFromBinary(Path)}</li>
+ * <li>{@link #replaceContents(JVDrawingModel)}</li>
+ * <li>{@link #writeBinary(WritableByteChannel)}</li>
+ * <li>{@link #exportAsImage(File, String)}</li>
  * </ul>
  * 
  * @see DrawingModel
  * 
  * @author Davor Češljaš
  */
-public class JVDrawingModel implements DrawingModel {
+public class JVDrawingModel extends AbstractDrawingModel {
 
 	/**
-	 * Člasnka varijabla koja predstavlja {@link List} svih primjeraka razreda
-	 * koji implementiraju sučelje {@link GeometricalObject}, a koji su
-	 * pohranjeni unutar ovog modela
+	 * Konstanta koja predstavlja veličinu .jvd datoteke (u oktetima) od koje
+	 * se datoteka pri učitavanju metodom {@link #loadFromJVD(Path)} parsira
+	 * paralelno
 	 */
-	private List<GeometricalObject> geometricalObjects;
+	public static final long PARALLEL_LOAD_THRESHOLD = 8 * 1024 * 1024;
 
 	/**
-	 * Članska varijabla koja predstavlja {@link List} svih promatrača
-	 * modeliranih sučeljem {@link DrawingModelListener} koji slušaju na
-	 * promjene unutar modela
+	 * Konstanta koja predstavlja omjer broja objekata u modelu i broja
+	 * objekata koji se brišu metodom {@link #removeIndices(int...)} ispod
+	 * kojeg se objekti brišu pojedinačno, umjesto sažimanjem cijelog spremišta
 	 */
-	private List<DrawingModelListener> listeners;
+	private static final int SINGLE_REMOVAL_RATIO = 32;
+
+	/**
+	 * Članska varijabla koja predstavlja uređeno spremište zapisa svih
+	 * primjeraka razreda koji implementiraju sučelje {@link GeometricalObject},
+	 * a koji su pohranjeni unutar ovog modela. Spremište u vremenu O(log n)
+	 * određuje poziciju objekta u modelu.
+	 */
+	private ObjectStore store;
+
+	/**
+	 * Članska varijabla koja predstavlja prostorni indeks nad svim objektima
+	 * ovog modela, a koji se koristi za brzo pronalaženje objekata unutar neke
+	 * površine
+	 */
+	private SpatialIndex spatialIndex;
 
 	/**
 	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to je li
@@ -66,38 +100,85 @@ public class JVDrawingModel implements DrawingModel {
 	 */
 	private boolean modified;
 
+	/**
+	 * Članska varijabla koja predstavlja broj do sada obavljenih promjena
+	 * modela
+	 */
+	private long modificationCount;
+
+	/**
+	 * Članska varijabla koja predstavlja povijest promjena ovog modela ili
+	 * <code>null</code> ukoliko se promjene ne bilježe
+	 */
+	private ModelHistory history;
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
 	 * konstruktora inicijaliziraju se interne strukture koje primjerak ovog
 	 * razreda sadrži.
 	 */
 	public JVDrawingModel() {
-		this.geometricalObjects = new ArrayList<>();
-		this.listeners = new ArrayList<>();
+		this.store = new ObjectStore();
+		this.spatialIndex = new SpatialIndex();
 	}
 
 	@Override
 	public int getSize() {
-		return geometricalObjects.size();
+		return store.size();
 	}
 
 	@Override
 	public GeometricalObject getObject(int index) {
-		try {
-			return geometricalObjects.get(index);
-		} catch (IndexOutOfBoundsException e) {
+		if (index < 0 || index >= store.size()) {
+			return null;
 		}
 
-		return null;
+		return store.get(index).object;
 	}
 
+	@Override
+	public List<GeometricalObject> objectsIntersecting(Rectangle area) {
+		if (area == null || spatialIndex.covers(area)) {
+			return store.objects();
+		}
+
+		return spatialIndex.query(area);
+	}
+
+	/**
+	 * {@inheritDoc} Ukoliko je objekt već pohranjen unutar ovog modela, metoda
+	 * ne radi ništa.
+	 */
 	@Override
 	public void add(GeometricalObject object) {
-		geometricalObjects.add(object);
-		int index = geometricalObjects.size() - 1;
+		SpatialIndex.Entry entry = spatialIndex.insert(object);
+		if (entry == null) {
+			return;
+		}
+
+		store.append(entry);
+		changedArea = entry.toRectangle();
+		int index = store.size() - 1;
+		if (isRecording()) {
+			history.recordAdd(index, index);
+		}
 		fireObjectsAdded(index, index);
 	}
 
+	/**
+	 * Metoda koja dohvaća poziciju objekta <b>object</b> unutar ovog modela.
+	 * Objekt se traži po identitetu, a pozicija se računa u vremenu O(log n).
+	 *
+	 * @param object
+	 *            objekt čija se pozicija traži
+	 * @return pozicija objekta ili -1 ukoliko objekt nije pohranjen unutar
+	 *         modela
+	 */
+	public int indexOf(GeometricalObject object) {
+		SpatialIndex.Entry entry = spatialIndex.get(object);
+		return entry == null ? -1 : store.indexOf(entry);
+	}
+
 	/**
 	 * Metoda koja se koristi za brisanje primjerka razreda koji implementira
 	 * sučelje {@link GeometricalObject} predanog kao parametar <b>object</b> iz
@@ -106,16 +187,19 @@ public class JVDrawingModel implements DrawingModel {
 	 * @param object
 	 *            primjerak razreda koji implementira sučelje
 	 *            {@link GeometricalObject}, koji se briše iz internog
-	 *            spremišta.
+	 *            spremišta. Objekt se traži po identitetu.
 	 */
 	public void remove(GeometricalObject object) {
-		int index = geometricalObjects.indexOf(object);
-		if (index == -1) {
+		SpatialIndex.Entry entry = spatialIndex.get(object);
+		if (entry == null) {
 			return;
 		}
 
-		geometricalObjects.remove(object);
-		fireObjectsRemoved(index, index);
+		int index = store.indexOf(entry);
+		if (isRecording()) {
+			history.recordRemove(new int[] { index }, new GeometricalObject[] { object });
+		}
+		removeEntry(entry, index);
 	}
 
 	/**
@@ -127,20 +211,82 @@ public class JVDrawingModel implements DrawingModel {
 	 *
 	 * @param object
 	 *            primjerak razreda koji implementira sučelje
-	 *            {@link GeometricalObject}, nad kojim se vrši promjena
+	 *            {@link GeometricalObject}, nad kojim se vrši promjena. Objekt
+	 *            se traži po identitetu.
 	 * @param panel
 	 *            primjerak razreda {@link JPanel} na temelju kojeg se vrši
 	 *            promjena
 	 */
 	public void change(GeometricalObject object, JPanel panel) {
-		int index = geometricalObjects.indexOf(object);
-		if (index == -1) {
+		SpatialIndex.Entry entry = spatialIndex.get(object);
+		if (entry == null) {
 			return;
 		}
+		int index = store.indexOf(entry);
 
+		byte[] state = isRecording() ? ModelHistory.encode(object) : null;
 		if (!object.change(panel)) {
 			return;
 		}
+		if (state != null) {
+			history.recordChange(index, state);
+		}
+		changedArea = union(spatialIndex.update(object), object.getBoundingBox());
+
+		fireObjectsChanged(index, index);
+	}
+
+	/**
+	 * Metoda koja objekt na poziciji <b>index</b> zamjenjuje objektom
+	 * <b>object</b>, koji zauzima njegovo mjesto u redoslijedu iscrtavanja.
+	 * Ukoliko pozicija nije unutar modela ili je objekt već pohranjen unutar
+	 * modela, metoda ne radi ništa. O ovoj promjeni biti će obaviješteni svi
+	 * promatrači
+	 *
+	 * @param index
+	 *            pozicija objekta koji se zamjenjuje
+	 * @param object
+	 *            objekt koji se pohranjuje na poziciju <b>index</b>
+	 */
+	void replace(int index, GeometricalObject object) {
+		if (index < 0 || index >= store.size()) {
+			return;
+		}
+
+		SpatialIndex.Entry entry = spatialIndex.insert(object);
+		if (entry == null) {
+			return;
+		}
+		SpatialIndex.Entry old = store.get(index);
+		if (isRecording()) {
+			history.recordChange(index, ModelHistory.encode(old.object));
+		}
+		store.replace(old, entry);
+		changedArea = union(spatialIndex.remove(old.object), entry.toRectangle());
+
+		fireObjectsChanged(index, index);
+	}
+
+	/**
+	 * Metoda koja objektu na poziciji <b>index</b> vraća stanje <b>state</b>
+	 * kodirano metodom {@link ModelHistory#encode(GeometricalObject)}. Stanje
+	 * se upisuje u postojeći objekt, pa se njegov identitet i naziv ne
+	 * mijenjaju. Vraćanje stanja se ne bilježi u povijest promjena. O ovoj
+	 * promjeni biti će obaviješteni svi promatrači
+	 *
+	 * @param index
+	 *            pozicija objekta
+	 * @param state
+	 *            kodirano stanje objekta
+	 */
+	void restore(int index, byte[] state) {
+		if (index < 0 || index >= store.size()) {
+			return;
+		}
+
+		GeometricalObject object = store.get(index).object;
+		ModelHistory.decode(state, object);
+		changedArea = union(spatialIndex.update(object), object.getBoundingBox());
 
 		fireObjectsChanged(index, index);
 	}
@@ -165,16 +311,31 @@ public class JVDrawingModel implements DrawingModel {
 		this.modified = modified;
 	}
 
-	@Override
-	public void addDrawingModelListener(DrawingModelListener l) {
-		listeners = new ArrayList<>(listeners);
-		listeners.add(l);
+	/**
+	 * Metoda koja dohvaća broj do sada obavljenih promjena modela. Broj se
+	 * povećava pri svakoj obavijesti promatračima, pa se usporedbom dvaju
+	 * dohvaćenih brojeva može utvrditi je li se model u međuvremenu mijenjao.
+	 *
+	 * @return broj do sada obavljenih promjena modela
+	 */
+	public long getModificationCount() {
+		return modificationCount;
 	}
 
-	@Override
-	public void removeDrawingModelListener(DrawingModelListener l) {
-		listeners = new ArrayList<>(listeners);
-		listeners.remove(l);
+	/**
+	 * Metoda koja stvara nepromjenjivu snimku trenutnog sadržaja modela.
+	 * Podaci objekata kopiraju se u primjerak razreda
+	 * {@link PrimitiveDrawingModel}, pa kasnije promjene objekata (vidi
+	 * {@link #change(GeometricalObject, JPanel)}) ne utječu na snimku. Snimka se
+	 * potom može zapisati iz pozadinske dretve, dok se ovaj model i dalje
+	 * mijenja.
+	 *
+	 * @return snimka trenutnog sadržaja modela
+	 */
+	public PrimitiveDrawingModel snapshot() {
+		PrimitiveDrawingModel snapshot = new PrimitiveDrawingModel();
+		snapshot.addAll(store.objects());
+		return snapshot;
 	}
 
 	/**
@@ -183,225 +344,528 @@ public class JVDrawingModel implements DrawingModel {
 	 * spremljeni. O ovoj promjeni biti će obaviješteni svi promatrači
 	 */
 	public void clear() {
-		int lastIndex = getSize() - 1;
-		geometricalObjects.clear();
+		if (store.size() == 0) {
+			modified = true;
+			fireObjectsRemoved(0, 0);
+			return;
+		}
 
-		modified = true;
-		fireObjectsRemoved(0, lastIndex < 0 ? 0 : lastIndex);
+		JVDrawingModel removed = new JVDrawingModel();
+		swapContents(removed);
+		if (isRecording()) {
+			history.recordClear(removed);
+		}
 	}
 
 	/**
 	 * Metoda koja interno sprema sve primjerke razreda koji implementiraju
 	 * sučelje {@link GeometricalObject} koji su predani kroz parametar
-	 * <b>objects</b>, u istom redoslijedu.O ovoj promjeni biti će obaviješteni
-	 * svi promatrači
+	 * <b>objects</b>, u istom redoslijedu. Objekti koji su već pohranjeni se
+	 * preskaču. O ovoj promjeni biti će obaviješteni svi promatrači
 	 *
 	 * @param objects
 	 *            {@link List} primjeraka razreda koji implementiraju sučelje
 	 *            {@link GeometricalObject} koje je potrebno interno pohraniti
 	 */
 	public void addAll(List<GeometricalObject> objects) {
-		int firstIndex = geometricalObjects.size();
-
-		this.geometricalObjects.addAll(objects);
+		int firstIndex = store.size();
+
+		changedArea = null;
+		for (GeometricalObject object : objects) {
+			SpatialIndex.Entry entry = spatialIndex.insert(object);
+			if (entry != null) {
+				store.append(entry);
+				changedArea = union(changedArea, entry.toRectangle());
+			}
+		}
 
 		modified = true;
 
-		int lastIndex = geometricalObjects.size() - 1;
+		int lastIndex = store.size() - 1;
+		if (lastIndex >= firstIndex && isRecording()) {
+			history.recordAdd(firstIndex, lastIndex);
+		}
 		fireObjectsAdded(firstIndex, lastIndex < 0 ? 0 : lastIndex);
 	}
 
+	/**
+	 * Metoda koja briše sve primjerke razreda koji implementiraju sučelje
+	 * {@link GeometricalObject} predane kroz parametar <b>objects</b>. Objekti
+	 * se traže po identitetu, a oni koji nisu pohranjeni unutar modela se
+	 * preskaču. Objekti se brišu od posljednje pozicije prema prvoj, pa su
+	 * promatrači obavješteni jednom obavijesti za svaki neprekinuti raspon
+	 * obrisanih pozicija (vidi {@link #batch(Consumer)}).
+	 *
+	 * @param objects
+	 *            {@link Collection} objekata koje je potrebno obrisati
+	 */
+	public void removeAll(Collection<? extends GeometricalObject> objects) {
+		int[] indices = new int[objects.size()];
+		int count = 0;
+		for (GeometricalObject object : objects) {
+			SpatialIndex.Entry entry = spatialIndex.get(object);
+			if (entry != null) {
+				indices[count++] = store.indexOf(entry);
+			}
+		}
+
+		removeIndices(Arrays.copyOf(indices, count));
+	}
+
+	/**
+	 * Metoda koja briše primjerke razreda koji implementiraju sučelje
+	 * {@link GeometricalObject} na pozicijama <b>indices</b>. Pozicije se ne
+	 * moraju sortirati, a pozicije koje se ponavljaju ili nisu unutar modela se
+	 * preskaču. Ukoliko se briše mnogo objekata, spremište se sažima u jednom
+	 * prolazu. Promatrači se obavještavaju jednom obavijesti za svaki
+	 * neprekinuti raspon obrisanih pozicija, od posljednjeg prema prvom (vidi
+	 * {@link #batch(Consumer)}).
+	 *
+	 * @param indices
+	 *            pozicije objekata koje je potrebno obrisati
+	 */
+	public void removeIndices(int... indices) {
+		int[] sorted = indices.clone();
+		Arrays.sort(sorted);
+
+		int count = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			int index = sorted[i];
+			if (index >= 0 && index < store.size() && (count == 0 || sorted[count - 1] != index)) {
+				sorted[count++] = index;
+			}
+		}
+		if (count == 0) {
+			return;
+		}
+		int[] removed = Arrays.copyOf(sorted, count);
+
+		if (isRecording()) {
+			GeometricalObject[] objects = new GeometricalObject[count];
+			for (int i = 0; i < count; i++) {
+				objects[i] = store.get(removed[i]).object;
+			}
+			history.recordRemove(removed, objects);
+		}
+
+		if (count < store.size() / SINGLE_REMOVAL_RATIO) {
+			batch(model -> {
+				for (int i = removed.length - 1; i >= 0; i--) {
+					removeEntry(store.get(removed[i]), removed[i]);
+				}
+			});
+			return;
+		}
+
+		beginBatch();
+		try {
+			Rectangle area = null;
+			for (SpatialIndex.Entry entry : store.removeAt(removed)) {
+				area = union(area, spatialIndex.remove(entry.object));
+			}
+
+			int end = removed.length - 1;
+			for (int i = end; i >= 0; i--) {
+				if (i == 0 || removed[i - 1] != removed[i] - 1) {
+					changedArea = area;
+					fireObjectsRemoved(removed[i], removed[end]);
+					end = i - 1;
+				}
+			}
+		} finally {
+			endBatch();
+		}
+	}
+
+	/**
+	 * Metoda koja nad ovim modelom izvodi sve promjene koje obavlja strategija
+	 * <b>mutation</b> kao jednu grupu promjena. Tijekom izvođenja strategije
+	 * promatrači se ne obavještavaju, već se na kraju obavještavaju o spojenim
+	 * rasponima promjena (vidi {@link AbstractDrawingModel}), pa je primjerice
+	 * dodavanje tisuća objekata jedan po jedan za promatrače jedna obavijest.
+	 * Promatrači se obavještavaju i ukoliko strategija baci iznimku.
+	 *
+	 * @param mutation
+	 *            strategija koja mijenja ovaj model
+	 */
+	public void batch(Consumer<? super JVDrawingModel> mutation) {
+		beginBatch();
+		try {
+			mutation.accept(this);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/**
+	 * Metoda koja se koristi za učitavanje svih primjeraka sučelja
+	 * {@link GeometricalObject} koji su spremljeni unutar .jvd datoteke.
+	 * Datoteke veće od {@value #PARALLEL_LOAD_THRESHOLD} okteta parsiraju se
+	 * paralelno. Za više detalja pogledati metodu
+	 * {@link #loadFromJVD(Path, boolean)}
+	 *
+	 * @param jvdFile
+	 *            Putanja do .jvd datoteke koja se parsira
+	 * @return {@link List} pogrešaka za sve retke datoteke koje nije bilo
+	 *         moguće parsirati (ti se retci preskaču)
+	 * @throws IOException
+	 *             Ukoliko nije moguće pročitati datoteku predstavljenu putanjom
+	 *             <b>jvdFile</b>
+	 */
+	public List<JVDParseError> loadFromJVD(Path jvdFile) throws IOException {
+		return loadFromJVD(jvdFile, Files.size(jvdFile) >= PARALLEL_LOAD_THRESHOLD);
+	}
+
 	/**
 	 * Metoda koja se koristi za učitavanje svih primjeraka sučelja
 	 * {@link GeometricalObject} koji su spremljeni unutar .jvd datoteke. Metoda
-	 * najprije poziva metodu {@link #clear()}, a potom parsira datoteku čija je
-	 * putanja predana kao parametar <b>jvdFile</b>. Na kraju metoda koristeći
-	 * metodu {@link #addAll(List)} dodaje primjerke sučelja
-	 * {@link GeometricalObject} u interno spremište. Važno je naglasiti da će
-	 * ovom promjenom zastavica <b>modified</b> biti postavljena na
-	 * <code>false</code>
+	 * koristeći razred {@link JVDParser} parsira datoteku čija je putanja
+	 * predana kao parametar <b>jvdFile</b>, sekvencijalno ili paralelno
+	 * (ovisno o parametru <b>parallel</b>). Potom se sadržaj modela odjednom
+	 * zamjenjuje svim učitanim primjercima sučelja {@link GeometricalObject}
+	 * (vidi {@link #replaceContents(JVDrawingModel)}). Važno je naglasiti da
+	 * će ovom promjenom zastavica <b>modified</b> biti postavljena na
+	 * <code>false</code>, a povijest promjena odbačena. Pri paralelnom
+	 * parsiranju redoslijed objekata je očuvan, ali automatski generirani
+	 * nazivi objekata (primjerice Line1, Circle2) ne prate redoslijed
+	 * objekata u datoteci
 	 *
 	 * @param jvdFile
 	 *            Putanja do .jvd datoteke koja se parsira
+	 * @param parallel
+	 *            <code>true</code> ukoliko se datoteka parsira paralelno,
+	 *            <code>false</code> inače
+	 * @return {@link List} pogrešaka za sve retke datoteke koje nije bilo
+	 *         moguće parsirati (ti se retci preskaču)
 	 * @throws IOException
 	 *             Ukoliko nije moguće pročitati datoteku predstavljenu putanjom
 	 *             <b>jvdFile</b>
 	 */
-	public void loadFromJVD(Path jvdFile) throws IOException {
-		clear();
+	public List<JVDParseError> loadFromJVD(Path jvdFile, boolean parallel) throws IOException {
+		JVDParser parser = new JVDParser();
+		List<GeometricalObject> objects = parallel ? parser.parseParallel(jvdFile, ForkJoinPool.commonPool())
+				: parser.parse(jvdFile);
 
-		List<GeometricalObject> objects = new ArrayList<>();
-		for (String line : Files.readAllLines(jvdFile, StandardCharsets.UTF_8)) {
-			GeometricalObject object = createGeometricalObjectFromJVD(line);
-			if (object == null) {
-				continue;
-			}
+		replaceContents(objects);
+		return parser.getErrors();
+	}
 
-			objects.add(object);
+	/**
+	 * Metoda koja se koristi za učitavanje svih primjeraka sučelja
+	 * {@link GeometricalObject} koji su spremljeni unutar .jvdb datoteke
+	 * (vidi {@link JVDBinaryFormat}). Datoteka se čita koristeći razred
+	 * {@link JVDBinaryReader}, a potom se sadržaj modela zamjenjuje kao i kod
+	 * metode {@link #loadFromJVD(Path, boolean)}. Za razliku od .jvd datoteke,
+	 * neispravna .jvdb datoteka se ne učitava djelomično.
+	 *
+	 * @param jvdbFile
+	 *            Putanja do .jvdb datoteke koja se čita
+	 * @throws IOException
+	 *             Ukoliko nije moguće pročitati datoteku predstavljenu putanjom
+	 *             <b>jvdbFile</b> ili ona nije ispravna
+	 */
+	public void loadFromBinary(Path jvdbFile) throws IOException {
+		replaceContents(new JVDBinaryReader().read(jvdbFile));
+	}
+
+	/**
+	 * Metoda koja sve primjerke sučelja {@link GeometricalObject} spremljene
+	 * unutar ovog modela zapisuje u .jvdb formatu (vidi
+	 * {@link JVDBinaryFormat}) u kanal <b>channel</b>, koristeći razred
+	 * {@link JVDBinaryWriter}. Kanal se ne zatvara.
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuje sadržaj .jvdb datoteke
+	 * @throws IOException
+	 *             Ukoliko u kanal nije moguće pisati
+	 */
+	public void writeBinary(WritableByteChannel channel) throws IOException {
+		JVDBinaryWriter writer = new JVDBinaryWriter(channel);
+		for (GeometricalObject object : store.objects()) {
+			writer.write(object);
 		}
+		writer.finish();
+	}
 
-		addAll(objects);
+	/**
+	 * Metoda koja sve primjerke sučelja {@link GeometricalObject} spremljene
+	 * unutar ovog modela zapisuje u .jvd formatu u kanal <b>channel</b>.
+	 * Zapisivanje se obavlja koristeći razred {@link JVDWriter}, pa se pri
+	 * tome ne stvara tekstualna reprezentacija cijelog dokumenta. Sadržaj je
+	 * jednak onome kojeg vraća metoda {@link #toString()}. Kanal se ne
+	 * zatvara.
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuje sadržaj .jvd datoteke
+	 * @throws IOException
+	 *             Ukoliko u kanal nije moguće pisati
+	 */
+	public void writeJVD(WritableByteChannel channel) throws IOException {
+		JVDWriter writer = new JVDWriter(channel);
+		for (GeometricalObject object : store.objects()) {
+			writer.write(object);
+		}
+		writer.flush();
+	}
 
-		modified = false;
+	/**
+	 * Metoda koja sve primjerke sučelja {@link GeometricalObject} spremljene
+	 * unutar ovog modela zapisuje u .jvd formatu u tok <b>os</b>. Za više
+	 * detalja pogledati metodu {@link #writeJVD(WritableByteChannel)}. Tok se
+	 * ne zatvara.
+	 *
+	 * @param os
+	 *            tok u koji se zapisuje sadržaj .jvd datoteke
+	 * @throws IOException
+	 *             Ukoliko u tok nije moguće pisati
+	 */
+	public void writeJVD(OutputStream os) throws IOException {
+		writeJVD(Channels.newChannel(os));
 	}
 
 	/**
 	 * Metoda koja se koristi kako bi se svi primjerci sučelja
 	 * {@link GeometricalObject} spremljeni unutar ovog modela iscrtali kao
-	 * slika ekstenzije(formata) <b>extension</b>, koristeći predani parametar
-	 * <b>canvas</b>. Slika će biti spremljena u datoteku predstavljenu predanim
-	 * primjerkom razreda {@link File} <b>imageFile</b>.
+	 * slika ekstenzije(formata) <b>extension</b>. Slika će biti spremljena u
+	 * datoteku predstavljenu predanim primjerkom razreda {@link File}
+	 * <b>imageFile</b>. Iscrtavanje se obavlja paralelno, po pločicama,
+	 * koristeći razred {@link TiledImageRenderer}, pa veličina slike ne ovisi o
+	 * veličini platna.
 	 * <p>
-	 * Napomena: Slika neće biti veličine platna, već će se pronaći minimalna
-	 * površina koja u cijelosti zahvaća sve površine primjeraka sučelja
-	 * {@link GeometricalObject} koji su interno spremljeni
+	 * Napomena: Slika će biti veličine minimalne površine koja u cijelosti
+	 * zahvaća sve površine primjeraka sučelja {@link GeometricalObject} koji su
+	 * interno spremljeni. Ukoliko je model prazan stvara se slika veličine
+	 * jednog piksela
 	 * </p>
 	 *
 	 * @param imageFile
 	 *            apstraktna reprezentacija datoteke unutar koje se sprema slika
 	 * @param extension
 	 *            ekstenzija, odnosno format stvorene slike
-	 * @param canvas
-	 *            primjerak razreda {@link JDrawingCanvas}, koji se koristi za
-	 *            crtanje slike
 	 * @throws IOException
 	 *             Ukoliko nije moguće pisati ili nije moguće stvoriti datoteku
 	 *             predstavljenu parametrom <b>imageFile</b>
 	 */
-	public void exportAsImage(File imageFile, String extension, JDrawingCanvas canvas) throws IOException {
-		Dimension canvasDim = canvas.getSize();
+	public void exportAsImage(File imageFile, String extension) throws IOException {
+		Rectangle boundingBox = findBoundingBox();
+		BufferedImage image = new TiledImageRenderer().render(this, boundingBox, BufferedImage.TYPE_3BYTE_BGR);
 
-		BufferedImage image = new BufferedImage(canvasDim.width, canvasDim.height, BufferedImage.TYPE_3BYTE_BGR);
-		Graphics2D g2 = (Graphics2D) image.getGraphics();
+		ImageIO.write(image, extension, imageFile);
+	}
 
-		canvas.paint(g2);
-		g2.dispose();
+	/**
+	 * Metoda koja sadržaj ovog modela zamjenjuje sadržajem modela
+	 * <b>loaded</b>, a zastavicu <b>modified</b> postavlja na
+	 * <code>false</code>. Interne strukture (spremište i prostorni indeks)
+	 * preuzimaju se bez kopiranja, a model <b>loaded</b> nakon poziva ostaje
+	 * prazan. Time se model može napuniti u pozadinskoj dretvi, a na dretvi za
+	 * obradu događaja samo zamijeniti. Promatrači se obavještavaju jednom
+	 * grupom promjena (vidi {@link #batch(Consumer)}), odnosno brisanjem starog
+	 * i umetanjem novog sadržaja. Povijest promjena (vidi {@link ModelHistory})
+	 * se odbacuje.
+	 *
+	 * @param loaded
+	 *            model čiji se sadržaj preuzima. Model ne smije imati
+	 *            promatrače
+	 */
+	public void replaceContents(JVDrawingModel loaded) {
+		swapContents(loaded);
+		loaded.store = new ObjectStore();
+		loaded.spatialIndex = new SpatialIndex();
 
-		Rectangle boundingBox = findBoundingBox(canvasDim);
-		if (boundingBox != null) {
-			image = image.getSubimage(boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height);
+		if (history != null) {
+			history.discardAllEdits();
 		}
+		modified = false;
+	}
 
-		ImageIO.write(image, extension, imageFile);
+	/**
+	 * Metoda koja zamjenjuje interne strukture (spremište i prostorni indeks)
+	 * ovog modela i modela <b>other</b>, bez kopiranja. Promatrači ovog modela
+	 * obavještavaju se jednom grupom promjena, odnosno brisanjem starog i
+	 * umetanjem novog sadržaja, dok se promatrači modela <b>other</b> ne
+	 * obavještavaju. Zamjena se ne bilježi u povijest promjena.
+	 *
+	 * @param other
+	 *            model s kojim se zamjenjuje sadržaj
+	 */
+	void swapContents(JVDrawingModel other) {
+		batch(model -> {
+			if (store.size() != 0) {
+				changedArea = spatialIndex.getBounds();
+				fireObjectsRemoved(0, store.size() - 1);
+			}
+
+			ObjectStore otherStore = other.store;
+			SpatialIndex otherIndex = other.spatialIndex;
+			other.store = store;
+			other.spatialIndex = spatialIndex;
+			store = otherStore;
+			spatialIndex = otherIndex;
+
+			if (store.size() != 0) {
+				changedArea = spatialIndex.getBounds();
+				fireObjectsAdded(0, store.size() - 1);
+			}
+		});
 	}
 
 	/**
-	 * Pomoćna metoda koja pronalazi minimalnu površinu koja u cijelosti zahvaća
-	 * sve površine primjeraka sučelja {@link GeometricalObject} koji su interno
-	 * spremljeni unutar ovog modela
+	 * Metoda koja objekte <b>objects</b> umeće na pozicije <b>indices</b>, u
+	 * jednom prolazu kroz spremište. Pozicije se odnose na model nakon
+	 * umetanja te moraju biti uzlazno sortirane i bez ponavljanja. Koristi se
+	 * za poništavanje brisanja (vidi {@link ModelHistory}), pa se umetanje ne
+	 * bilježi u povijest promjena. Promatrači se obavještavaju jednom
+	 * obavijesti za svaki neprekinuti raspon umetnutih pozicija.
 	 *
-	 * @param canvasDim
-	 *            veličina platna na kojem je iscrtana slika, a koja se koristi
-	 *            kao maksimalna veličina slike
-	 * @return primjerak razreda {@link Rectangle} koji predstavlja minimalnu
-	 *         površinu koja u cijelosti zahvaća sve površine primjeraka sučelja
-	 *         {@link GeometricalObject} koji su interno spremljeni unutar ovog
-	 *         modela
+	 * @param indices
+	 *            uzlazno sortirane pozicije na koje se objekti umeću
+	 * @param objects
+	 *            objekti koji se umeću, u redoslijedu pozicija. Objekti ne
+	 *            smiju biti pohranjeni unutar modela
 	 */
-	private Rectangle findBoundingBox(Dimension canvasDim) {
-		if (geometricalObjects.isEmpty()) {
-			return null;
+	void insertAt(int[] indices, GeometricalObject[] objects) {
+		SpatialIndex.Entry[] entries = new SpatialIndex.Entry[objects.length];
+		Rectangle area = null;
+		for (int i = 0; i < objects.length; i++) {
+			entries[i] = spatialIndex.insert(objects[i]);
+			area = union(area, entries[i].toRectangle());
 		}
 
-		int xMin = canvasDim.width;
-		int yMin = canvasDim.height;
-		int xMax = 0;
-		int yMax = 0;
-
-		for (GeometricalObject object : geometricalObjects) {
-			Rectangle rect = object.getBoundingBox();
-			xMin = Math.min(xMin, rect.x);
-			yMin = Math.min(yMin, rect.y);
-			xMax = Math.max(xMax, rect.x + rect.width);
-			yMax = Math.max(yMax, rect.y + rect.height);
-		}
+		Rectangle insertedArea = area;
+		batch(model -> {
+			store.insertAt(indices, entries);
+
+			int start = 0;
+			for (int i = 0; i < indices.length; i++) {
+				if (i == indices.length - 1 || indices[i + 1] != indices[i] + 1) {
+					changedArea = insertedArea;
+					fireObjectsAdded(indices[start], indices[i]);
+					start = i + 1;
+				}
+			}
+		});
+	}
 
-		return new Rectangle(Math.max(0, xMin), Math.max(0, yMin), Math.min(canvasDim.width, xMax - xMin),
-				Math.min(canvasDim.height, yMax - yMin));
+	/**
+	 * Metoda koja dohvaća povijest promjena ovog modela
+	 *
+	 * @return povijest promjena ili <code>null</code> ukoliko se promjene ne
+	 *         bilježe
+	 */
+	public ModelHistory getHistory() {
+		return history;
 	}
 
 	/**
-	 * Pomoćna metoda koja se koristi za obavještavanje svih registriranih
-	 * promatrača, da se u rasponu [<b>index0</b>, <b>index1</b>] dogodilo
-	 * umetanje novih objekata
+	 * Metoda koja postavlja povijest promjena ovog modela. Poziva se iz
+	 * konstruktora razreda {@link ModelHistory}.
 	 *
-	 * @param index0
-	 *            početna pozicija raspona (uključivo)
-	 * @param index1
-	 *            završna pozicija raspona (uključivo)
+	 * @param history
+	 *            povijest promjena
 	 */
-	private void fireObjectsAdded(int index0, int index1) {
-		notifiyListeners(l -> l.objectsAdded(this, index0, index1));
+	void setHistory(ModelHistory history) {
+		this.history = history;
 	}
 
 	/**
-	 * Pomoćna metoda koja se koristi za obavještavanje svih registriranih
-	 * promatrača, da se u rasponu [<b>index0</b>, <b>index1</b>] dogodila
-	 * promjena interno spremljenih objekata
+	 * {@inheritDoc} Grupa promjena ujedno se u povijest promjena bilježi kao
+	 * jedna promjena (vidi {@link ModelHistory}).
+	 */
+	@Override
+	protected void beginBatch() {
+		super.beginBatch();
+		if (history != null) {
+			history.beginCompound();
+		}
+	}
+
+	@Override
+	protected void endBatch() {
+		try {
+			if (history != null) {
+				history.endCompound();
+			}
+		} finally {
+			super.endBatch();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sadržaj modela zamjenjuje učitanim objektima
+	 * <b>objects</b> te zastavicu <b>modified</b> postavlja na
+	 * <code>false</code>
 	 *
-	 * @param index0
-	 *            početna pozicija raspona (uključivo)
-	 * @param index1
-	 *            završna pozicija raspona (uključivo)
+	 * @param objects
+	 *            {@link List} učitanih objekata
 	 */
-	private void fireObjectsChanged(int index0, int index1) {
-		notifiyListeners(l -> l.objectsChanged(this, index0, index1));
+	private void replaceContents(List<GeometricalObject> objects) {
+		JVDrawingModel loaded = new JVDrawingModel();
+		loaded.addAll(objects);
+		replaceContents(loaded);
 	}
 
 	/**
-	 * Pomoćna metoda koja se koristi za obavještavanje svih registriranih
-	 * promatrača, da se u rasponu [<b>index0</b>, <b>index1</b>] dogodilo
-	 * brisanje interno spremljenih objekata
+	 * Pomoćna metoda koja zapis <b>entry</b> na poziciji <b>index</b> briše iz
+	 * spremišta i prostornog indeksa, bez bilježenja u povijest promjena. O
+	 * ovoj promjeni biti će obaviješteni svi promatrači
 	 *
-	 * @param index0
-	 *            početna pozicija raspona (uključivo)
-	 * @param index1
-	 *            završna pozicija raspona (uključivo)
+	 * @param entry
+	 *            zapis koji se briše
+	 * @param index
+	 *            pozicija zapisa
 	 */
-	private void fireObjectsRemoved(int index0, int index1) {
-		notifiyListeners(l -> l.objectsRemoved(this, index0, index1));
+	private void removeEntry(SpatialIndex.Entry entry, int index) {
+		store.remove(entry);
+		changedArea = spatialIndex.remove(entry.object);
+		fireObjectsRemoved(index, index);
 	}
 
 	/**
-	 * Pomoćna metoda koja iterira po svim registriranim promatračima i nad
-	 * svakim poziva metodu {@link Consumer#accept(Object)} predanog primjerka
-	 * sučelja <b>consumer</b>. Ova metoda dodatno postavlja zastavicu
-	 * <b>modified</b> na vrijednost <code>true</code>
+	 * Pomoćna metoda koja provjerava bilježe li se trenutno promjene ovog
+	 * modela u povijest promjena
 	 *
-	 * @param consumer
-	 *            strategija koja modelira posao koji se izvodi nad svakim od
-	 *            registriranih promatrača
+	 * @return <code>true</code> ukoliko se promjene bilježe,
+	 *         <code>false</code> inače
 	 */
-	private void notifiyListeners(Consumer<DrawingModelListener> consumer) {
-		modified = true;
-		listeners.forEach(consumer);
+	private boolean isRecording() {
+		return history != null && history.isRecording();
 	}
 
 	/**
-	 * Pomoćna metoda koja se koristi za stvaranje novog primjerka sučelja
-	 * {@link GeometricalObject} iz predanog retka <b>line</b> .jvd datoteke.
+	 * Metoda koja pronalazi minimalnu površinu koja u cijelosti zahvaća
+	 * sve površine primjeraka sučelja {@link GeometricalObject} koji su interno
+	 * spremljeni unutar ovog modela, uključujući i rubne piksele (vidi
+	 * {@link TiledImageRenderer#imageArea(java.util.Collection)}). Metoda je
+	 * vidljiva unutar paketa kako bi se mogla mjeriti zasebno
 	 *
-	 * @param line
-	 *            redak .jvd datoteke
-	 * @return stvoreni primjerak sučelja {@link GeometricalObject}
-	 */
-	private GeometricalObject createGeometricalObjectFromJVD(String line) {
-		if (line.startsWith(Line.JVD_REPRESENTATION)) {
-			return Line.createFromJVDLine(line);
-		} else if (line.startsWith(Circle.JVD_REPRESENTATION)) {
-			return Circle.createFromJVDLine(line);
-		} else if (line.startsWith(FilledCircle.JVD_REPRESENTATION)) {
-			return FilledCircle.createFromJVDLine(line);
-		}
+	 * @return primjerak razreda {@link Rectangle} koji predstavlja minimalnu
+	 *         površinu koja u cijelosti zahvaća sve površine primjeraka sučelja
+	 *         {@link GeometricalObject} koji su interno spremljeni unutar ovog
+	 *         modela, odnosno površina veličine jednog piksela ukoliko je
+	 *         model prazan
+	 */
+	Rectangle findBoundingBox() {
+		return TiledImageRenderer.imageArea(store.objects());
+	}
 
-		return null;
+	/**
+	 * {@inheritDoc} Ova metoda dodatno postavlja zastavicu <b>modified</b> na
+	 * vrijednost <code>true</code> te povećava broj promjena (vidi
+	 * {@link #getModificationCount()})
+	 */
+	@Override
+	protected void notifiyListeners(Consumer<DrawingModelListener> consumer) {
+		modified = true;
+		modificationCount++;
+		super.notifiyListeners(consumer);
 	}
 
 	@Override
 	public String toString() {
 		StringJoiner joiner = new StringJoiner("\n");
 
-		for (GeometricalObject obj : geometricalObjects) {
+		for (GeometricalObject obj : store.objects()) {
 			joiner.add(obj.toJVD());
 		}
 
@@ -0,0 +1,405 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+
+/**
+ * Razred koji predstavlja indeks minimalnih pravokutnih površina zapisa .jvdb
+ * datoteke, pohranjen u pomoćnoj datoteci uz samu .jvdb datoteku (ekstenzija
+ * {@value #EXTENSION}). Indeks se stvara pri prvom otvaranju .jvdb datoteke te
+ * ponovno kada se .jvdb datoteka promijeni, a potom se preslikava u memoriju.
+ * <p>
+ * Pomoćna datoteka sadrži zaglavlje, za svaki zapis njegovu poziciju unutar
+ * .jvdb datoteke i granice njegove površine (uključivo), te za svaki blok od
+ * {@value #BLOCK_SIZE} uzastopnih zapisa uniju njihovih površina. Upit
+ * {@link #query(Rectangle)} najprije pregledava blokove, a granice pojedinih
+ * zapisa čita samo unutar blokova koji sijeku traženu površinu, pri čemu se
+ * sami zapisi ne dekodiraju.
+ * </p>
+ *
+ * @see MappedDrawingModel
+ *
+ * @author Davor Češljaš
+ */
+class MappedBoundsIndex {
+
+	/** Konstanta koja predstavlja ekstenziju pomoćne datoteke indeksa */
+	static final String EXTENSION = ".idx";
+
+	/** Konstanta koja predstavlja oktete kojima počinje pomoćna datoteka */
+	private static final int MAGIC = 0x4A564449;
+
+	/** Konstanta koja predstavlja verziju formata pomoćne datoteke */
+	private static final int VERSION = 1;
+
+	/** Konstanta koja predstavlja broj zapisa unutar jednog bloka */
+	private static final int BLOCK_SIZE = 64;
+
+	/** Konstanta koja predstavlja veličinu zaglavlja u oktetima */
+	private static final int HEADER_SIZE = 32;
+
+	/** Konstanta koja predstavlja veličinu jednog zapisa indeksa u oktetima */
+	private static final int ENTRY_SIZE = 20;
+
+	/** Konstanta koja predstavlja veličinu jednog bloka indeksa u oktetima */
+	private static final int BLOCK_ENTRY_SIZE = 16;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj zapisa čiji indeks stane u jedno
+	 * preslikavanje
+	 */
+	private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / (ENTRY_SIZE + BLOCK_ENTRY_SIZE);
+
+	/** Članska varijabla koja predstavlja preslikani sadržaj indeksa */
+	private ByteBuffer index;
+
+	/** Članska varijabla koja predstavlja broj indeksiranih zapisa */
+	private int count;
+
+	/** Članska varijabla koja predstavlja poziciju prvog bloka */
+	private int blocksStart;
+
+	/**
+	 * Članska varijabla koja predstavlja površinu koja zahvaća sve indeksirane
+	 * zapise ili <code>null</code> ukoliko zapisa nema
+	 */
+	private Rectangle bounds;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Ukoliko pomoćna
+	 * datoteka ne postoji ili ne odgovara .jvdb datoteci, ona se (ponovno)
+	 * stvara. Ukoliko pomoćnu datoteku nije moguće stvoriti uz .jvdb datoteku,
+	 * ona se stvara u direktoriju za privremene datoteke.
+	 *
+	 * @param dataFile
+	 *            putanja do .jvdb datoteke
+	 * @param data
+	 *            preslikani sadržaj .jvdb datoteke
+	 * @throws IOException
+	 *             ukoliko indeks nije moguće stvoriti ili pročitati ili .jvdb
+	 *             datoteka nije ispravna
+	 */
+	MappedBoundsIndex(Path dataFile, ByteBuffer data) throws IOException {
+		long size = Files.size(dataFile);
+		long modified = Files.getLastModifiedTime(dataFile).toMillis();
+
+		Path indexFile = dataFile.resolveSibling(dataFile.getFileName() + EXTENSION);
+		if (!isValid(indexFile, size, modified)) {
+			try {
+				build(indexFile, data, size, modified);
+			} catch (IOException e) {
+				indexFile = Files.createTempFile("jvdraw", EXTENSION);
+				indexFile.toFile().deleteOnExit();
+				build(indexFile, data, size, modified);
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+			index = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		count = index.getInt(24);
+		blocksStart = HEADER_SIZE + count * ENTRY_SIZE;
+		for (int block = 0, blocks = blockCount(); block < blocks; block++) {
+			int position = blocksStart + block * BLOCK_ENTRY_SIZE;
+			Rectangle blockBounds = toRectangle(index.getInt(position), index.getInt(position + 4),
+					index.getInt(position + 8), index.getInt(position + 12));
+			bounds = bounds == null ? blockBounds : bounds.union(blockBounds);
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća broj indeksiranih zapisa
+	 *
+	 * @return broj indeksiranih zapisa
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju zapisa <b>i</b> unutar .jvdb datoteke
+	 *
+	 * @param i
+	 *            redni broj zapisa
+	 * @return pozicija zapisa unutar .jvdb datoteke
+	 */
+	int offset(int i) {
+		return index.getInt(HEADER_SIZE + i * ENTRY_SIZE);
+	}
+
+	/**
+	 * Metoda koja dohvaća površinu koja zahvaća sve indeksirane zapise
+	 *
+	 * @return površina koja zahvaća sve zapise ili <code>null</code> ukoliko
+	 *         zapisa nema
+	 */
+	Rectangle getBounds() {
+		return bounds == null ? null : new Rectangle(bounds);
+	}
+
+	/**
+	 * Metoda koja pronalazi redne brojeve svih zapisa čija površina siječe
+	 * površinu <b>area</b>. Redni brojevi vraćaju se uzlazno, odnosno u
+	 * redoslijedu iscrtavanja.
+	 *
+	 * @param area
+	 *            površina koja se pretražuje
+	 * @return polje rednih brojeva zapisa
+	 */
+	int[] query(Rectangle area) {
+		if (area.width <= 0 || area.height <= 0) {
+			return new int[0];
+		}
+
+		int qMinX = area.x;
+		int qMinY = area.y;
+		int qMaxX = area.x + area.width - 1;
+		int qMaxY = area.y + area.height - 1;
+
+		int[] found = new int[16];
+		int size = 0;
+		for (int block = 0, blocks = blockCount(); block < blocks; block++) {
+			if (!intersects(blocksStart + block * BLOCK_ENTRY_SIZE, qMinX, qMinY, qMaxX, qMaxY)) {
+				continue;
+			}
+
+			int end = Math.min(count, (block + 1) * BLOCK_SIZE);
+			for (int i = block * BLOCK_SIZE; i < end; i++) {
+				if (!intersects(HEADER_SIZE + i * ENTRY_SIZE + 4, qMinX, qMinY, qMaxX, qMaxY)) {
+					continue;
+				}
+
+				if (size == found.length) {
+					found = Arrays.copyOf(found, size * 2);
+				}
+				found[size++] = i;
+			}
+		}
+
+		return Arrays.copyOf(found, size);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća broj blokova indeksa
+	 *
+	 * @return broj blokova indeksa
+	 */
+	private int blockCount() {
+		return (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava siječe li površina zapisana na poziciji
+	 * <b>position</b> traženu površinu (granice su uključive)
+	 *
+	 * @param position
+	 *            pozicija granica površine unutar indeksa
+	 * @param qMinX
+	 *            najmanja x-koordinata tražene površine
+	 * @param qMinY
+	 *            najmanja y-koordinata tražene površine
+	 * @param qMaxX
+	 *            najveća x-koordinata tražene površine
+	 * @param qMaxY
+	 *            najveća y-koordinata tražene površine
+	 * @return <code>true</code> ukoliko se površine sijeku, <code>false</code>
+	 *         inače
+	 */
+	private boolean intersects(int position, int qMinX, int qMinY, int qMaxX, int qMaxY) {
+		return index.getInt(position) <= qMaxX && index.getInt(position + 8) >= qMinX
+				&& index.getInt(position + 4) <= qMaxY && index.getInt(position + 12) >= qMinY;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava odgovara li postojeća pomoćna datoteka
+	 * <b>indexFile</b> .jvdb datoteci predane veličine i vremena izmjene
+	 *
+	 * @param indexFile
+	 *            putanja do pomoćne datoteke
+	 * @param size
+	 *            veličina .jvdb datoteke
+	 * @param modified
+	 *            vrijeme posljednje izmjene .jvdb datoteke
+	 * @return <code>true</code> ukoliko je pomoćnu datoteku moguće koristiti,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isValid(Path indexFile, long size, long modified) {
+		if (!Files.isRegularFile(indexFile)) {
+			return false;
+		}
+
+		try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) != -1) {
+			}
+			header.flip();
+
+			return header.remaining() == HEADER_SIZE && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+					&& header.getLong(8) == size && header.getLong(16) == modified
+					&& channel.size() == HEADER_SIZE + (long) header.getInt(24) * ENTRY_SIZE
+							+ (long) (header.getInt(24) + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_ENTRY_SIZE;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja prolazi svim zapisima .jvdb datoteke te stvara
+	 * pomoćnu datoteku <b>indexFile</b>
+	 *
+	 * @param indexFile
+	 *            putanja do pomoćne datoteke
+	 * @param data
+	 *            preslikani sadržaj .jvdb datoteke
+	 * @param size
+	 *            veličina .jvdb datoteke
+	 * @param modified
+	 *            vrijeme posljednje izmjene .jvdb datoteke
+	 * @throws IOException
+	 *             ukoliko u pomoćnu datoteku nije moguće pisati ili .jvdb
+	 *             datoteka nije ispravna
+	 */
+	private static void build(Path indexFile, ByteBuffer data, long size, long modified) throws IOException {
+		ByteBuffer records = data.duplicate();
+		records.position(0);
+		JVDBinaryFormat.checkHeader(records);
+
+		try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			channel.position(HEADER_SIZE);
+
+			BoundsVisitor visitor = new BoundsVisitor();
+			int[] blocks = new int[4 * 256];
+			int count = 0;
+			while (true) {
+				int offset = records.position();
+				if (!JVDBinaryFormat.read(records, visitor)) {
+					break;
+				}
+				if (count == MAX_RECORDS) {
+					throw new IOException("Too many records to index");
+				}
+
+				if (buffer.remaining() < ENTRY_SIZE) {
+					write(channel, buffer);
+				}
+				buffer.putInt(offset).putInt(visitor.minX).putInt(visitor.minY).putInt(visitor.maxX)
+						.putInt(visitor.maxY);
+
+				int block = 4 * (count / BLOCK_SIZE);
+				if (block == blocks.length) {
+					blocks = Arrays.copyOf(blocks, blocks.length * 2);
+				}
+				if (count % BLOCK_SIZE == 0) {
+					blocks[block] = visitor.minX;
+					blocks[block + 1] = visitor.minY;
+					blocks[block + 2] = visitor.maxX;
+					blocks[block + 3] = visitor.maxY;
+				} else {
+					blocks[block] = Math.min(blocks[block], visitor.minX);
+					blocks[block + 1] = Math.min(blocks[block + 1], visitor.minY);
+					blocks[block + 2] = Math.max(blocks[block + 2], visitor.maxX);
+					blocks[block + 3] = Math.max(blocks[block + 3], visitor.maxY);
+				}
+				count++;
+			}
+
+			for (int i = 0, n = 4 * ((count + BLOCK_SIZE - 1) / BLOCK_SIZE); i < n; i++) {
+				if (buffer.remaining() < Integer.BYTES) {
+					write(channel, buffer);
+				}
+				buffer.putInt(blocks[i]);
+			}
+			write(channel, buffer);
+
+			buffer.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(modified).putInt(count).putInt(BLOCK_SIZE);
+			channel.position(0);
+			write(channel, buffer);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sav sadržaj međuspremnika <b>buffer</b> zapisuje u
+	 * kanal <b>channel</b> te ga priprema za ponovno punjenje
+	 *
+	 * @param channel
+	 *            kanal u koji se piše
+	 * @param buffer
+	 *            međuspremnik čiji se sadržaj zapisuje
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Pomoćna metoda koja od uključivih granica stvara primjerak razreda
+	 * {@link Rectangle}
+	 *
+	 * @param minX
+	 *            najmanja x-koordinata
+	 * @param minY
+	 *            najmanja y-koordinata
+	 * @param maxX
+	 *            najveća x-koordinata
+	 * @param maxY
+	 *            najveća y-koordinata
+	 * @return površina zadana granicama
+	 */
+	private static Rectangle toRectangle(int minX, int minY, int maxX, int maxY) {
+		return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
+
+	/**
+	 * Privatni statički razred koji implementira sučelje
+	 * {@link GeometricalObjectVisitor}, a koji računa granice površine
+	 * posjećenog zapisa na isti način kao metode
+	 * {@link hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject#getBoundingBox()}
+	 * konkretnih objekata (granice su uključive)
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class BoundsVisitor implements GeometricalObjectVisitor {
+
+		/** Članske varijable koje predstavljaju granice površine zapisa */
+		private int minX, minY, maxX, maxY;
+
+		@Override
+		public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+			minX = Math.min(x0, x1);
+			minY = Math.min(y0, y1);
+			maxX = Math.max(x0, x1);
+			maxY = Math.max(y0, y1);
+		}
+
+		@Override
+		public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+			minX = cx - radius;
+			minY = cy - radius;
+			maxX = cx + radius;
+			maxY = cy + radius;
+		}
+
+		@Override
+		public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+			visitCircle(cx, cy, radius, fgRgb);
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.java.hw16.jvdraw.canvas.JDrawingCanvas;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.ColorCache;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractDrawingModel}. Razred
+ * predstavlja model namijenjen vrlo velikim crtežima koji se uglavnom samo
+ * pregledavaju. Sadržaj .jvdb datoteke (vidi {@link JVDBinaryFormat}) se
+ * preslikava u memoriju, a primjerci sučelja {@link GeometricalObject} se ne
+ * drže u memoriji, već se pri svakom dohvatu metodom {@link #getObject(int)}
+ * dekodira odgovarajući zapis i stvara nepromjenjivi pogled na njega.
+ * <p>
+ * Uz .jvdb datoteku održava se pomoćna datoteka s indeksom minimalnih
+ * pravokutnih površina zapisa (vidi {@link MappedBoundsIndex}), pa metoda
+ * {@link #objectsIntersecting(Rectangle)} dekodira samo zapise koji sijeku
+ * traženu površinu, i to tek prilikom dohvata iz vraćene liste. Time komponenta
+ * {@link JDrawingCanvas} dekodira samo ono što iscrtava.
+ * </p>
+ * <p>
+ * Objekti dodani metodom {@link #add(GeometricalObject)} pohranjuju se u
+ * memoriji, iza zapisa iz datoteke, dok se sama datoteka nikada ne mijenja.
+ * Primjerci ovog razreda nisu sigurni za korištenje iz više dretvi.
+ * </p>
+ *
+ * @see MappedBoundsIndex
+ * @see DrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public class MappedDrawingModel extends AbstractDrawingModel {
+
+	/** Članska varijabla koja predstavlja putanju do .jvdb datoteke */
+	private Path file;
+
+	/** Članska varijabla koja predstavlja preslikani sadržaj .jvdb datoteke */
+	private ByteBuffer data;
+
+	/** Članska varijabla koja predstavlja indeks površina zapisa */
+	private MappedBoundsIndex index;
+
+	/**
+	 * Članska varijabla koja predstavlja objekte dodane nakon otvaranja
+	 * datoteke
+	 */
+	private List<GeometricalObject> appended;
+
+	/** Članska varijabla koja predstavlja posjetitelja koji stvara poglede */
+	private ViewDecoder decoder;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+	 * konstruktora se .jvdb datoteka preslikava u memoriju te se po potrebi
+	 * stvara pomoćna datoteka s indeksom površina zapisa.
+	 *
+	 * @param file
+	 *            putanja do .jvdb datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati, ona nije ispravna ili
+	 *             je prevelika za preslikavanje u memoriju
+	 */
+	public MappedDrawingModel(Path file) throws IOException {
+		this.file = file;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File is too large to be mapped: " + file);
+			}
+			this.data = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		this.index = new MappedBoundsIndex(file, data);
+		this.appended = new ArrayList<>();
+		this.decoder = new ViewDecoder();
+	}
+
+	/**
+	 * Metoda koja dohvaća putanju do .jvdb datoteke nad kojom je model stvoren
+	 *
+	 * @return putanja do .jvdb datoteke
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	@Override
+	public int getSize() {
+		return index.size() + appended.size();
+	}
+
+	@Override
+	public GeometricalObject getObject(int i) {
+		if (i < 0 || i >= getSize()) {
+			return null;
+		}
+		if (i >= index.size()) {
+			return appended.get(i - index.size());
+		}
+
+		data.position(index.offset(i));
+		decoder.index = i;
+		try {
+			JVDBinaryFormat.read(data, decoder);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return decoder.view;
+	}
+
+	@Override
+	public void add(GeometricalObject object) {
+		appended.add(object);
+		changedArea = object.getBoundingBox();
+
+		int i = getSize() - 1;
+		fireObjectsAdded(i, i);
+	}
+
+	@Override
+	public List<GeometricalObject> objectsIntersecting(Rectangle area) {
+		if (area == null) {
+			return new ObjectList(null, appended);
+		}
+
+		List<GeometricalObject> appendedFound = new ArrayList<>();
+		int qMaxX = area.x + area.width - 1;
+		int qMaxY = area.y + area.height - 1;
+		Rectangle box = new Rectangle();
+		for (GeometricalObject object : appended) {
+			object.boundsInto(box);
+			if (box.x <= qMaxX && box.x + box.width >= area.x && box.y <= qMaxY && box.y + box.height >= area.y) {
+				appendedFound.add(object);
+			}
+		}
+
+		Rectangle bounds = index.getBounds();
+		if (bounds == null || area.contains(bounds)) {
+			return new ObjectList(null, appendedFound);
+		}
+
+		return new ObjectList(index.query(area), appendedFound);
+	}
+
+	/**
+	 * Privatni razred koji nasljeđuje razred {@link AbstractList}. Primjerci
+	 * ovog razreda predstavljaju rezultat metode
+	 * {@link MappedDrawingModel#objectsIntersecting(Rectangle)}, pri čemu se
+	 * zapisi dekodiraju tek prilikom dohvata.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class ObjectList extends AbstractList<GeometricalObject> {
+
+		/**
+		 * Članska varijabla koja predstavlja pozicije pronađenih zapisa ili
+		 * <code>null</code> ukoliko lista sadrži sve zapise
+		 */
+		private int[] indices;
+
+		/** Članska varijabla koja predstavlja pronađene dodane objekte */
+		private List<GeometricalObject> appendedFound;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param indices
+		 *            pozicije pronađenih zapisa ili <code>null</code> ukoliko
+		 *            lista sadrži sve zapise
+		 * @param appendedFound
+		 *            pronađeni dodani objekti
+		 */
+		public ObjectList(int[] indices, List<GeometricalObject> appendedFound) {
+			this.indices = indices;
+			this.appendedFound = appendedFound;
+		}
+
+		@Override
+		public GeometricalObject get(int i) {
+			int mapped = indices == null ? index.size() : indices.length;
+			if (i >= mapped) {
+				return appendedFound.get(i - mapped);
+			}
+
+			return getObject(indices == null ? i : indices[i]);
+		}
+
+		@Override
+		public int size() {
+			return (indices == null ? index.size() : indices.length) + appendedFound.size();
+		}
+	}
+
+	/**
+	 * Privatni razred koji implementira sučelje
+	 * {@link GeometricalObjectVisitor}. Primjerak ovog razreda od dekodiranih
+	 * podataka zapisa stvara pogled modeliran razredom {@link ShapeView}.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class ViewDecoder implements GeometricalObjectVisitor {
+
+		/** Članska varijabla koja predstavlja priručnu memoriju boja */
+		private ColorCache colorCache = new ColorCache();
+
+		/** Članska varijabla koja predstavlja poziciju zapisa koji se dekodira */
+		private int index;
+
+		/** Članska varijabla koja predstavlja posljednji stvoreni pogled */
+		private ShapeView view;
+
+		@Override
+		public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+			view = new ShapeView(MappedDrawingModel.this, index, ShapeView.LINE, x0, y0, x1, y1,
+					colorCache.get(rgb), null);
+		}
+
+		@Override
+		public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+			view = new ShapeView(MappedDrawingModel.this, index, ShapeView.CIRCLE, cx, cy, radius, 0,
+					colorCache.get(fgRgb), null);
+		}
+
+		@Override
+		public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+			view = new ShapeView(MappedDrawingModel.this, index, ShapeView.FILLED_CIRCLE, cx, cy, radius, 0,
+					colorCache.get(fgRgb), colorCache.get(bgRgb));
+		}
+	}
+}
@@ -0,0 +1,717 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+
+/**
+ * Razred koji predstavlja povijest promjena modela {@link JVDrawingModel}, a
+ * koji omogućuje poništavanje (metoda {@link #undo()}) i ponovno izvođenje
+ * (metoda {@link #redo()}) promjena.
+ * <p>
+ * Model svaku promjenu (dodavanje, brisanje, izmjenu i brisanje svih objekata)
+ * bilježi kao sažeti zapis razlike, a ne kao snimku cijelog sadržaja:
+ * dodavanje pamti samo raspon pozicija, brisanje pozicije i obrisane objekte,
+ * a izmjena prijašnje stanje objekta kodirano kao zapis .jvdb formata (vidi
+ * {@link JVDBinaryFormat}). Brisanje svih objekata pamti odvojene interne
+ * strukture modela, pa se ni pri brisanju ni pri poništavanju ništa ne kopira.
+ * Promjene obavljene unutar jedne grupe promjena (vidi
+ * {@link JVDrawingModel#batch(java.util.function.Consumer)}) poništavaju se
+ * zajedno.
+ * </p>
+ * <p>
+ * Zauzeće memorije zapisa procjenjuje se, a kada procjena prijeđe postavljenu
+ * granicu (vidi {@link #setMemoryLimit(long)}), najstariji zapisi se
+ * odbacuju. Posljednja promjena se uvijek može poništiti.
+ * </p>
+ *
+ * @see JVDrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public class ModelHistory {
+
+	/**
+	 * Konstanta koja predstavlja pretpostavljenu granicu zauzeća memorije u
+	 * oktetima
+	 */
+	public static final long DEFAULT_MEMORY_LIMIT = 32 * 1024 * 1024;
+
+	/** Konstanta koja predstavlja procjenu zauzeća jednog zapisa u oktetima */
+	private static final int EDIT_COST = 32;
+
+	/**
+	 * Konstanta koja predstavlja procjenu zauzeća jednog objekta u oktetima,
+	 * uključujući i njegov zapis u internim strukturama modela
+	 */
+	private static final int OBJECT_COST = 96;
+
+	/** Članska varijabla koja predstavlja model čije se promjene bilježe */
+	private JVDrawingModel model;
+
+	/** Članska varijabla koja predstavlja zapise koji se mogu poništiti */
+	private Deque<Edit> undoEdits;
+
+	/**
+	 * Članska varijabla koja predstavlja zapise koji se mogu ponovno izvesti
+	 */
+	private Deque<Edit> redoEdits;
+
+	/**
+	 * Članska varijabla koja predstavlja zapise trenutno otvorene grupe
+	 * promjena
+	 */
+	private List<Edit> compound;
+
+	/** Članska varijabla koja predstavlja dubinu ugniježđenih grupa promjena */
+	private int compoundDepth;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to izvodi
+	 * li se trenutno poništavanje ili ponovno izvođenje
+	 */
+	private boolean applying;
+
+	/** Članska varijabla koja predstavlja granicu zauzeća memorije u oktetima */
+	private long memoryLimit;
+
+	/**
+	 * Članska varijabla koja predstavlja procjenu zauzeća svih zapisa, koji se
+	 * mogu poništiti ili ponovno izvesti
+	 */
+	private long memoryUsage;
+
+	/** Članska varijabla koja predstavlja promatrače povijesti */
+	private List<ChangeListener> listeners;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda s granicom zauzeća
+	 * memorije od {@value #DEFAULT_MEMORY_LIMIT} okteta. Za više detalja
+	 * pogledati {@link #ModelHistory(JVDrawingModel, long)}
+	 *
+	 * @param model
+	 *            model čije se promjene bilježe
+	 */
+	public ModelHistory(JVDrawingModel model) {
+		this(model, DEFAULT_MEMORY_LIMIT);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda te ga postavlja
+	 * kao povijest promjena modela <b>model</b>, umjesto eventualne prijašnje
+	 * povijesti
+	 *
+	 * @param model
+	 *            model čije se promjene bilježe
+	 * @param memoryLimit
+	 *            granica zauzeća memorije u oktetima
+	 */
+	public ModelHistory(JVDrawingModel model, long memoryLimit) {
+		this.model = model;
+		this.memoryLimit = memoryLimit;
+		this.undoEdits = new ArrayDeque<>();
+		this.redoEdits = new ArrayDeque<>();
+		this.listeners = new ArrayList<>();
+
+		model.setHistory(this);
+	}
+
+	/**
+	 * Metoda koja provjerava postoji li promjena koju je moguće poništiti
+	 *
+	 * @return <code>true</code> ukoliko postoji promjena koju je moguće
+	 *         poništiti, <code>false</code> inače
+	 */
+	public boolean canUndo() {
+		return !undoEdits.isEmpty();
+	}
+
+	/**
+	 * Metoda koja provjerava postoji li poništena promjena koju je moguće
+	 * ponovno izvesti
+	 *
+	 * @return <code>true</code> ukoliko postoji promjena koju je moguće
+	 *         ponovno izvesti, <code>false</code> inače
+	 */
+	public boolean canRedo() {
+		return !redoEdits.isEmpty();
+	}
+
+	/**
+	 * Metoda koja poništava posljednju promjenu modela. Ukoliko takva promjena
+	 * ne postoji, metoda ne radi ništa.
+	 */
+	public void undo() {
+		if (!canUndo()) {
+			return;
+		}
+
+		Edit edit = undoEdits.pop();
+		apply(edit, true);
+		redoEdits.push(edit);
+		fireStateChanged();
+	}
+
+	/**
+	 * Metoda koja ponovno izvodi posljednju poništenu promjenu modela. Ukoliko
+	 * takva promjena ne postoji, metoda ne radi ništa.
+	 */
+	public void redo() {
+		if (!canRedo()) {
+			return;
+		}
+
+		Edit edit = redoEdits.pop();
+		apply(edit, false);
+		undoEdits.push(edit);
+		fireStateChanged();
+	}
+
+	/**
+	 * Metoda koja odbacuje sve zapise promjena. Poziva se primjerice kada se
+	 * sadržaj modela zamijeni sadržajem datoteke.
+	 */
+	public void discardAllEdits() {
+		undoEdits.clear();
+		redoEdits.clear();
+		memoryUsage = 0;
+		fireStateChanged();
+	}
+
+	/**
+	 * Metoda koja dohvaća granicu zauzeća memorije
+	 *
+	 * @return granica zauzeća memorije u oktetima
+	 */
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	/**
+	 * Metoda koja postavlja granicu zauzeća memorije te po potrebi odbacuje
+	 * najstarije zapise
+	 *
+	 * @param memoryLimit
+	 *            granica zauzeća memorije u oktetima
+	 */
+	public void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+		trim();
+	}
+
+	/**
+	 * Metoda koja dohvaća procjenu zauzeća memorije svih zapisa
+	 *
+	 * @return procjena zauzeća memorije u oktetima
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * Metoda koja dodaje promatrača koji se obavještava o svakoj promjeni
+	 * povijesti (primjerice kako bi se omogućile ili onemogućile akcije
+	 * poništavanja)
+	 *
+	 * @param l
+	 *            promatrač koji se dodaje
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * Metoda koja briše promatrača povijesti
+	 *
+	 * @param l
+	 *            promatrač koji se briše
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Metoda koja provjerava bilježe li se trenutno promjene modela. Promjene
+	 * se ne bilježe tijekom poništavanja i ponovnog izvođenja.
+	 *
+	 * @return <code>true</code> ukoliko se promjene bilježe,
+	 *         <code>false</code> inače
+	 */
+	boolean isRecording() {
+		return !applying;
+	}
+
+	/**
+	 * Metoda koja bilježi dodavanje objekata na pozicije [<b>index0</b>,
+	 * <b>index1</b>]
+	 *
+	 * @param index0
+	 *            pozicija prvog dodanog objekta
+	 * @param index1
+	 *            pozicija posljednjeg dodanog objekta
+	 */
+	void recordAdd(int index0, int index1) {
+		record(new AddEdit(index0, index1));
+	}
+
+	/**
+	 * Metoda koja bilježi brisanje objekata <b>objects</b> s pozicija
+	 * <b>indices</b>
+	 *
+	 * @param indices
+	 *            uzlazno sortirane pozicije obrisanih objekata
+	 * @param objects
+	 *            obrisani objekti, u redoslijedu pozicija
+	 */
+	void recordRemove(int[] indices, GeometricalObject[] objects) {
+		record(new RemoveEdit(indices, objects));
+	}
+
+	/**
+	 * Metoda koja bilježi izmjenu objekta na poziciji <b>index</b>
+	 *
+	 * @param index
+	 *            pozicija objekta
+	 * @param state
+	 *            stanje objekta prije izmjene (vidi {@link #encode})
+	 */
+	void recordChange(int index, byte[] state) {
+		record(new ChangeEdit(index, state));
+	}
+
+	/**
+	 * Metoda koja bilježi brisanje svih objekata
+	 *
+	 * @param removed
+	 *            model koji sadrži odvojene interne strukture modela
+	 */
+	void recordClear(JVDrawingModel removed) {
+		record(new ClearEdit(removed));
+	}
+
+	/**
+	 * Metoda koja otvara grupu promjena. Sve promjene zabilježene do
+	 * odgovarajućeg poziva metode {@link #endCompound()} poništavaju se
+	 * zajedno.
+	 */
+	void beginCompound() {
+		if (compoundDepth++ == 0) {
+			compound = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Metoda koja zatvara grupu promjena otvorenu metodom
+	 * {@link #beginCompound()}
+	 */
+	void endCompound() {
+		if (compoundDepth == 0 || --compoundDepth != 0) {
+			return;
+		}
+
+		List<Edit> edits = compound;
+		compound = null;
+		if (edits.size() == 1) {
+			record(edits.get(0));
+		} else if (!edits.isEmpty()) {
+			record(new CompoundEdit(edits));
+		}
+	}
+
+	/**
+	 * Metoda koja kodira trenutno stanje objekta <b>object</b> kao zapis .jvdb
+	 * formata
+	 *
+	 * @param object
+	 *            objekt čije se stanje kodira
+	 * @return kodirano stanje objekta
+	 */
+	static byte[] encode(GeometricalObject object) {
+		ByteBuffer buffer = ByteBuffer.allocate(JVDBinaryFormat.MAX_RECORD_SIZE);
+		object.accept(new GeometricalObjectVisitor() {
+
+			@Override
+			public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+				JVDBinaryFormat.putLine(buffer, x0, y0, x1, y1, rgb);
+			}
+
+			@Override
+			public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+				JVDBinaryFormat.putCircle(buffer, cx, cy, radius, fgRgb);
+			}
+
+			@Override
+			public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+				JVDBinaryFormat.putFilledCircle(buffer, cx, cy, radius, fgRgb, bgRgb);
+			}
+		});
+
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	/**
+	 * Metoda koja stanje kodirano metodom {@link #encode} upisuje u postojeći
+	 * objekt <b>object</b> (vidi {@link GeometricalObject#stateSetter()})
+	 *
+	 * @param state
+	 *            kodirano stanje objekta
+	 * @param object
+	 *            objekt u koji se stanje upisuje
+	 */
+	static void decode(byte[] state, GeometricalObject object) {
+		try {
+			JVDBinaryFormat.read(ByteBuffer.wrap(state), object.stateSetter());
+		} catch (IOException e) {
+			throw new IllegalStateException("Corrupted undo record", e);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zapis <b>edit</b> dodaje u povijest, odnosno u
+	 * trenutno otvorenu grupu promjena. Dodavanjem se odbacuju svi zapisi koji
+	 * se mogu ponovno izvesti.
+	 *
+	 * @param edit
+	 *            zapis koji se dodaje
+	 */
+	private void record(Edit edit) {
+		if (compound != null) {
+			compound.add(edit);
+			return;
+		}
+
+		while (!redoEdits.isEmpty()) {
+			memoryUsage -= redoEdits.pop().cost();
+		}
+		undoEdits.push(edit);
+		memoryUsage += edit.cost();
+		trim();
+		fireStateChanged();
+	}
+
+	/**
+	 * Pomoćna metoda koja odbacuje najstarije zapise dok procjena zauzeća
+	 * memorije ne padne ispod granice, pri čemu se posljednji zapis ne
+	 * odbacuje
+	 */
+	private void trim() {
+		while (memoryUsage > memoryLimit && undoEdits.size() > 1) {
+			memoryUsage -= undoEdits.removeLast().cost();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja poništava ili ponovno izvodi zapis <b>edit</b> kao
+	 * jednu grupu promjena modela, pri čemu se promjene ne bilježe
+	 *
+	 * @param edit
+	 *            zapis koji se primjenjuje
+	 * @param undo
+	 *            <code>true</code> ukoliko se zapis poništava,
+	 *            <code>false</code> ukoliko se ponovno izvodi
+	 */
+	private void apply(Edit edit, boolean undo) {
+		applying = true;
+		try {
+			model.batch(m -> {
+				if (undo) {
+					edit.undo(m);
+				} else {
+					edit.redo(m);
+				}
+			});
+		} finally {
+			applying = false;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sve promatrače obavještava o promjeni povijesti
+	 */
+	private void fireStateChanged() {
+		ChangeEvent event = new ChangeEvent(this);
+		for (ChangeListener l : new ArrayList<>(listeners)) {
+			l.stateChanged(event);
+		}
+	}
+
+	/**
+	 * Apstraktni razred koji predstavlja jedan zapis povijesti promjena
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static abstract class Edit {
+
+		/**
+		 * Metoda koja poništava promjenu nad modelom <b>model</b>
+		 *
+		 * @param model
+		 *            model nad kojim se promjena poništava
+		 */
+		abstract void undo(JVDrawingModel model);
+
+		/**
+		 * Metoda koja ponovno izvodi promjenu nad modelom <b>model</b>
+		 *
+		 * @param model
+		 *            model nad kojim se promjena izvodi
+		 */
+		abstract void redo(JVDrawingModel model);
+
+		/**
+		 * Metoda koja procjenjuje zauzeće memorije ovog zapisa
+		 *
+		 * @return procjena zauzeća memorije u oktetima
+		 */
+		abstract long cost();
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zapis dodavanja objekata na kraj
+	 * modela. Dok promjena nije poništena pamti se samo raspon pozicija.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class AddEdit extends Edit {
+
+		/** Članska varijabla koja predstavlja poziciju prvog objekta */
+		private int index0;
+
+		/** Članska varijabla koja predstavlja poziciju posljednjeg objekta */
+		private int index1;
+
+		/**
+		 * Članska varijabla koja predstavlja objekte uklonjene poništavanjem
+		 * ili <code>null</code> ukoliko promjena nije poništena
+		 */
+		private List<GeometricalObject> objects;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param index0
+		 *            pozicija prvog dodanog objekta
+		 * @param index1
+		 *            pozicija posljednjeg dodanog objekta
+		 */
+		public AddEdit(int index0, int index1) {
+			this.index0 = index0;
+			this.index1 = index1;
+		}
+
+		@Override
+		void undo(JVDrawingModel model) {
+			int[] indices = new int[index1 - index0 + 1];
+			objects = new ArrayList<>(indices.length);
+			for (int i = 0; i < indices.length; i++) {
+				indices[i] = index0 + i;
+				objects.add(model.getObject(index0 + i));
+			}
+
+			model.removeIndices(indices);
+		}
+
+		@Override
+		void redo(JVDrawingModel model) {
+			model.addAll(objects);
+			objects = null;
+		}
+
+		@Override
+		long cost() {
+			return EDIT_COST + (long) OBJECT_COST * (index1 - index0 + 1);
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zapis brisanja objekata s proizvoljnih
+	 * pozicija
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class RemoveEdit extends Edit {
+
+		/** Članska varijabla koja predstavlja uzlazno sortirane pozicije */
+		private int[] indices;
+
+		/** Članska varijabla koja predstavlja obrisane objekte */
+		private GeometricalObject[] objects;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param indices
+		 *            uzlazno sortirane pozicije obrisanih objekata
+		 * @param objects
+		 *            obrisani objekti, u redoslijedu pozicija
+		 */
+		public RemoveEdit(int[] indices, GeometricalObject[] objects) {
+			this.indices = indices;
+			this.objects = objects;
+		}
+
+		@Override
+		void undo(JVDrawingModel model) {
+			model.insertAt(indices, objects);
+		}
+
+		@Override
+		void redo(JVDrawingModel model) {
+			model.removeIndices(indices);
+		}
+
+		@Override
+		long cost() {
+			return EDIT_COST + (long) (OBJECT_COST + Integer.BYTES) * indices.length;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zapis izmjene objekta. Zapis pamti
+	 * kodirano stanje objekta, koje se pri svakom poništavanju ili ponovnom
+	 * izvođenju zamjenjuje trenutnim stanjem. Stanje se upisuje u postojeći
+	 * objekt, pa objekt zadržava identitet i naziv.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class ChangeEdit extends Edit {
+
+		/** Članska varijabla koja predstavlja poziciju objekta */
+		private int index;
+
+		/** Članska varijabla koja predstavlja kodirano stanje objekta */
+		private byte[] state;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param index
+		 *            pozicija objekta
+		 * @param state
+		 *            kodirano stanje objekta prije izmjene
+		 */
+		public ChangeEdit(int index, byte[] state) {
+			this.index = index;
+			this.state = state;
+		}
+
+		@Override
+		void undo(JVDrawingModel model) {
+			byte[] current = encode(model.getObject(index));
+			model.restore(index, state);
+			state = current;
+		}
+
+		@Override
+		void redo(JVDrawingModel model) {
+			undo(model);
+		}
+
+		@Override
+		long cost() {
+			return EDIT_COST + state.length;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zapis brisanja svih objekata. Zapis
+	 * pamti model koji sadrži odvojene interne strukture, a poništavanje i
+	 * ponovno izvođenje ih samo zamjenjuju (vidi
+	 * {@link JVDrawingModel#swapContents(JVDrawingModel)}).
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class ClearEdit extends Edit {
+
+		/** Članska varijabla koja predstavlja model s odvojenim sadržajem */
+		private JVDrawingModel removed;
+
+		/** Članska varijabla koja predstavlja broj obrisanih objekata */
+		private int size;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param removed
+		 *            model koji sadrži odvojene interne strukture
+		 */
+		public ClearEdit(JVDrawingModel removed) {
+			this.removed = removed;
+			this.size = removed.getSize();
+		}
+
+		@Override
+		void undo(JVDrawingModel model) {
+			model.swapContents(removed);
+		}
+
+		@Override
+		void redo(JVDrawingModel model) {
+			model.swapContents(removed);
+		}
+
+		@Override
+		long cost() {
+			return EDIT_COST + (long) OBJECT_COST * size;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zapis grupe promjena, koje se
+	 * poništavaju obrnutim redoslijedom
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class CompoundEdit extends Edit {
+
+		/** Članska varijabla koja predstavlja zapise grupe */
+		private List<Edit> edits;
+
+		/** Članska varijabla koja predstavlja procjenu zauzeća memorije */
+		private long cost;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param edits
+		 *            zapisi grupe, redoslijedom izvođenja
+		 */
+		public CompoundEdit(List<Edit> edits) {
+			this.edits = edits;
+			this.cost = EDIT_COST;
+			for (Edit edit : edits) {
+				cost += edit.cost();
+			}
+		}
+
+		@Override
+		void undo(JVDrawingModel model) {
+			for (int i = edits.size() - 1; i >= 0; i--) {
+				edits.get(i).undo(model);
+			}
+		}
+
+		@Override
+		void redo(JVDrawingModel model) {
+			for (Edit edit : edits) {
+				edit.redo(model);
+			}
+		}
+
+		@Override
+		long cost() {
+			return cost;
+		}
+	}
+}
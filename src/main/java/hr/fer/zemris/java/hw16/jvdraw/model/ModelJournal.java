@@ -0,0 +1,691 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectBuilder;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+
+/**
+ * Razred koji implementira sučelje {@link DrawingModelListener}. Primjerak
+ * ovog razreda predstavlja dnevnik promjena modela {@link JVDrawingModel}, koji
+ * uz posljednju spremljenu datoteku (osnovu) omogućuje oporavak nespremljenih
+ * promjena nakon neočekivanog prekida rada programa.
+ * <p>
+ * Dnevnik promjene prima kao promatrač modela te ih kodira u memorijski
+ * međuspremnik, pa pisanje u dnevnik ne usporava crtanje. Sadržaj
+ * međuspremnika se svakih {@value #FLUSH_INTERVAL} ms, u zasebnoj dretvi,
+ * dodaje na kraj datoteke dnevnika te sinkronizira s diskom. Objekti se
+ * kodiraju kao zapisi .jvdb formata (vidi {@link JVDBinaryFormat}).
+ * </p>
+ * <p>
+ * Datoteka dnevnika započinje zaglavljem koje pamti veličinu i vrijeme
+ * posljednje izmjene osnove, pa se dnevnik ne primjenjuje na osnovu koja je u
+ * međuvremenu promijenjena. Nepotpun zapis na kraju dnevnika (nastao prekidom
+ * tijekom pisanja) se zanemaruje.
+ * </p>
+ * <p>
+ * Dnevnik je zaključan (vidi {@link FileLock}) dok god se u njega bilježe
+ * promjene, pa se dnevnik koji koristi drugi pokrenuti program ne nudi za
+ * oporavak niti se prepisuje. Svaki nespremljeni model ima vlastiti dnevnik u
+ * direktoriju za privremene datoteke.
+ * </p>
+ *
+ * @see JVDrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public class ModelJournal implements DrawingModelListener {
+
+	/** Konstanta koja predstavlja ekstenziju datoteke dnevnika */
+	public static final String EXTENSION = ".journal";
+
+	/**
+	 * Konstanta koja predstavlja interval (u milisekundama) nakon kojeg se
+	 * promjene zapisuju na disk
+	 */
+	public static final long FLUSH_INTERVAL = 1000;
+
+	/** Konstanta koja predstavlja oznaku datoteke dnevnika ("JVDJ") */
+	private static final int MAGIC = 0x4A56444A;
+
+	/** Konstanta koja predstavlja verziju formata dnevnika */
+	private static final byte VERSION = 1;
+
+	/** Konstanta koja predstavlja veličinu zaglavlja u oktetima */
+	private static final int HEADER_SIZE = Integer.BYTES + 1 + 2 * Long.BYTES;
+
+	/** Konstanta koja predstavlja zapis dodavanja objekta */
+	private static final byte OP_ADD = 1;
+
+	/** Konstanta koja predstavlja zapis brisanja raspona objekata */
+	private static final byte OP_REMOVE = 2;
+
+	/** Konstanta koja predstavlja zapis zamjene objekta */
+	private static final byte OP_CHANGE = 3;
+
+	/** Konstanta koja predstavlja zapis brisanja svih objekata */
+	private static final byte OP_CLEAR = 4;
+
+	/** Konstanta koja predstavlja najveću veličinu jednog zapisa */
+	private static final int MAX_ENTRY_SIZE = 1 + Integer.BYTES + JVDBinaryFormat.MAX_RECORD_SIZE;
+
+	/** Konstanta koja predstavlja početnu veličinu međuspremnika */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja početak naziva dnevnika nespremljenih
+	 * modela
+	 */
+	private static final String UNTITLED_PREFIX = "jvdraw-untitled-";
+
+	/**
+	 * Konstanta koja predstavlja datoteke dnevnika koje ovaj program trenutno
+	 * koristi. Takve datoteke se pri traženju dnevnika za oporavak ne otvaraju,
+	 * jer bi zatvaranje dodatnog kanala na nekim sustavima otključalo datoteku.
+	 */
+	private static final Set<Path> OPEN_JOURNALS = ConcurrentHashMap.newKeySet();
+
+	/** Konstanta koja predstavlja dretvu koja zapisuje dnevnike na disk */
+	private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "jvdraw-journal");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/** Članska varijabla koja predstavlja model čije se promjene bilježe */
+	private JVDrawingModel model;
+
+	/** Članska varijabla koja predstavlja putanju do datoteke dnevnika */
+	private Path file;
+
+	/** Članska varijabla koja predstavlja kanal datoteke dnevnika */
+	private FileChannel channel;
+
+	/**
+	 * Članska varijabla koja predstavlja međuspremnik u koji se kodiraju
+	 * promjene
+	 */
+	private ByteBuffer pending;
+
+	/**
+	 * Članska varijabla koja predstavlja međuspremnik čiji se sadržaj zapisuje
+	 * na disk
+	 */
+	private ByteBuffer writing;
+
+	/** Članska varijabla koja predstavlja posjetitelja koji kodira objekte */
+	private RecordEncoder encoder;
+
+	/** Članska varijabla koja predstavlja periodično zapisivanje na disk */
+	private ScheduledFuture<?> flushTask;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to je li
+	 * zapisivanje u dnevnik zaustavljeno
+	 */
+	private volatile boolean stopped;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+	 * konstruktora se sadržaj zaključane datoteke dnevnika briše i zamjenjuje
+	 * zaglavljem, a primjerak se registrira kao promatrač modela.
+	 *
+	 * @param model
+	 *            model čije se promjene bilježe
+	 * @param file
+	 *            putanja do datoteke dnevnika
+	 * @param channel
+	 *            kanal datoteke dnevnika, zaključan metodom
+	 *            {@link #openLocked(Path)}
+	 * @param base
+	 *            putanja do osnove ili <code>null</code> ukoliko model nije
+	 *            spremljen
+	 * @throws IOException
+	 *             ukoliko u datoteku dnevnika nije moguće pisati
+	 */
+	private ModelJournal(JVDrawingModel model, Path file, FileChannel channel, Path base) throws IOException {
+		this.model = model;
+		this.file = file;
+		this.channel = channel;
+		this.pending = ByteBuffer.allocate(BUFFER_SIZE);
+		this.writing = ByteBuffer.allocate(BUFFER_SIZE);
+		this.encoder = new RecordEncoder();
+
+		channel.truncate(0);
+		channel.position(0);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		putHeader(header, base);
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+		channel.force(false);
+
+		model.addDrawingModelListener(this);
+		flushTask = FLUSHER.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL, FLUSH_INTERVAL,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Metoda koja započinje bilježenje promjena modela <b>model</b> čija je
+	 * osnova <b>base</b>. Dnevnik spremljenog modela određuje se metodom
+	 * {@link #journalFileFor(Path)}, a njegov prethodni sadržaj se briše.
+	 * Nespremljeni model dobiva novi dnevnik u direktoriju za privremene
+	 * datoteke, a najnoviji napušteni dnevnik nespremljenog modela (vidi
+	 * {@link #isRecoverable(Path)}) se briše. Ukoliko je <b>recover</b>
+	 * <code>true</code>, promjene prethodnog dnevnika se najprije primjenjuju
+	 * na model te ujedno bilježe u novi dnevnik.
+	 *
+	 * @param model
+	 *            model čije se promjene bilježe, a koji sadrži osnovu
+	 * @param base
+	 *            putanja do osnove ili <code>null</code> ukoliko model nije
+	 *            spremljen
+	 * @param recover
+	 *            zastavica koja ukazuje na to treba li primijeniti promjene
+	 *            prethodnog dnevnika
+	 * @return stvoreni dnevnik
+	 * @throws IOException
+	 *             ukoliko dnevnik nije moguće pročitati ili stvoriti, odnosno
+	 *             ukoliko dnevnik osnove koristi drugi pokrenuti program
+	 */
+	public static ModelJournal start(JVDrawingModel model, Path base, boolean recover) throws IOException {
+		if (base != null) {
+			Path file = journalFileFor(base);
+			FileChannel channel = openLocked(file);
+			try {
+				ByteBuffer recovered = recover ? readRecoverable(channel, base) : null;
+				ModelJournal journal = new ModelJournal(model, file, channel, base);
+				if (recovered != null) {
+					model.batch(m -> replay(recovered, m));
+				}
+				return journal;
+			} catch (IOException e) {
+				close(file, channel);
+				throw e;
+			}
+		}
+
+		Path file = Files.createTempFile(temporaryDirectory(), UNTITLED_PREFIX, EXTENSION);
+		FileChannel channel = openLocked(file);
+		ModelJournal journal;
+		try {
+			journal = new ModelJournal(model, file, channel, null);
+		} catch (IOException e) {
+			close(file, channel);
+			Files.deleteIfExists(file);
+			throw e;
+		}
+
+		Path previous = findUntitled();
+		if (previous == null) {
+			return journal;
+		}
+		try (FileChannel previousChannel = FileChannel.open(previous, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			if (tryLock(previousChannel, false) == null) {
+				return journal;
+			}
+
+			ByteBuffer recovered = recover ? readRecoverable(previousChannel, null) : null;
+			if (recovered != null) {
+				model.batch(m -> replay(recovered, m));
+				journal.flush();
+			}
+			Files.deleteIfExists(previous);
+		} catch (IOException e) {
+			journal.close();
+			throw e;
+		}
+
+		return journal;
+	}
+
+	/**
+	 * Metoda koja provjerava postoji li za osnovu <b>base</b> dnevnik s barem
+	 * jednom promjenom, a koji je započet nad trenutnim sadržajem osnove i ne
+	 * koristi ga niti jedan pokrenuti program. Za nespremljeni model traži se
+	 * bilo koji takav dnevnik nespremljenog modela.
+	 *
+	 * @param base
+	 *            putanja do osnove ili <code>null</code> za nespremljeni model
+	 * @return <code>true</code> ukoliko se promjene dnevnika mogu oporaviti,
+	 *         <code>false</code> inače
+	 */
+	public static boolean isRecoverable(Path base) {
+		return base == null ? findUntitled() != null : isRecoverable(journalFileFor(base), base);
+	}
+
+	/**
+	 * Metoda koja određuje putanju do datoteke dnevnika spremljenog modela
+	 * čija je osnova <b>base</b>. Dnevnik se nalazi uz osnovu.
+	 *
+	 * @param base
+	 *            putanja do osnove
+	 * @return putanja do datoteke dnevnika
+	 */
+	public static Path journalFileFor(Path base) {
+		return base.resolveSibling(base.getFileName() + EXTENSION);
+	}
+
+	/**
+	 * Metoda koja u dnevnik bilježi cijeli trenutni sadržaj modela, kao
+	 * brisanje svih objekata i dodavanje svakog objekta. Koristi se kada se
+	 * osnova i model razlikuju za promjene koje nisu zabilježene.
+	 */
+	public void writeContents() {
+		synchronized (this) {
+			ensureCapacity(1);
+			pending.put(OP_CLEAR);
+		}
+		objectsAdded(model, 0, model.getSize() - 1);
+	}
+
+	/**
+	 * Metoda koja sve zabilježene promjene odmah zapisuje u datoteku dnevnika
+	 * te je sinkronizira s diskom
+	 *
+	 * @throws IOException
+	 *             ukoliko u datoteku dnevnika nije moguće pisati
+	 */
+	public void flush() throws IOException {
+		synchronized (channel) {
+			synchronized (this) {
+				ByteBuffer full = pending;
+				pending = writing;
+				writing = full;
+			}
+
+			writing.flip();
+			if (!writing.hasRemaining()) {
+				writing.clear();
+				return;
+			}
+			while (writing.hasRemaining()) {
+				channel.write(writing);
+			}
+			writing.clear();
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Metoda koja zaustavlja bilježenje promjena te briše datoteku dnevnika.
+	 * Poziva se kada dnevnik više nije potreban, primjerice nakon spremanja
+	 * modela ili zatvaranja programa.
+	 */
+	public void close() {
+		stopped = true;
+		model.removeDrawingModelListener(this);
+		flushTask.cancel(false);
+
+		synchronized (channel) {
+			try {
+				close(file, channel);
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	@Override
+	public void objectsAdded(DrawingModel source, int index0, int index1) {
+		if (stopped) {
+			return;
+		}
+
+		synchronized (this) {
+			for (int i = index0; i <= index1; i++) {
+				ensureCapacity(MAX_ENTRY_SIZE);
+				pending.put(OP_ADD);
+				source.getObject(i).accept(encoder);
+			}
+		}
+	}
+
+	@Override
+	public void objectsRemoved(DrawingModel source, int index0, int index1) {
+		if (stopped) {
+			return;
+		}
+
+		synchronized (this) {
+			ensureCapacity(MAX_ENTRY_SIZE);
+			pending.put(OP_REMOVE);
+			pending.putInt(index0);
+			pending.putInt(index1);
+		}
+	}
+
+	@Override
+	public void objectsChanged(DrawingModel source, int index0, int index1) {
+		if (stopped) {
+			return;
+		}
+
+		synchronized (this) {
+			for (int i = index0; i <= index1; i++) {
+				ensureCapacity(MAX_ENTRY_SIZE);
+				pending.put(OP_CHANGE);
+				pending.putInt(i);
+				source.getObject(i).accept(encoder);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se periodično poziva iz dretve za zapisivanje. Ukoliko
+	 * zapisivanje ne uspije, bilježenje se zaustavlja, a datoteka dnevnika
+	 * ostaje onakva kakva je.
+	 */
+	private void flushQuietly() {
+		if (stopped) {
+			return;
+		}
+
+		try {
+			flush();
+		} catch (IOException e) {
+			stopped = true;
+			flushTask.cancel(false);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja osigurava da u međuspremniku promjena ima mjesta za
+	 * barem <b>bytes</b> okteta, po potrebi udvostručujući međuspremnik
+	 *
+	 * @param bytes
+	 *            broj okteta koji se zapisuje
+	 */
+	private void ensureCapacity(int bytes) {
+		if (pending.remaining() >= bytes) {
+			return;
+		}
+
+		ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + bytes));
+		pending.flip();
+		larger.put(pending);
+		pending = larger;
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara datoteku dnevnika <b>file</b> (po potrebi ju
+	 * stvara) te ju zaključava za ovaj program
+	 *
+	 * @param file
+	 *            putanja do datoteke dnevnika
+	 * @return zaključani kanal datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće otvoriti ili ju koristi drugi
+	 *             pokrenuti program
+	 */
+	private static FileChannel openLocked(Path file) throws IOException {
+		Path key = file.toAbsolutePath().normalize();
+		if (!OPEN_JOURNALS.add(key)) {
+			throw new IOException("Journal is already in use: " + file);
+		}
+
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			if (tryLock(channel, false) == null) {
+				throw new IOException("Journal is used by another session: " + file);
+			}
+			return channel;
+		} catch (IOException e) {
+			if (channel != null) {
+				channel.close();
+			}
+			OPEN_JOURNALS.remove(key);
+			throw e;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zatvara (i time otključava) kanal <b>channel</b>
+	 * datoteke dnevnika <b>file</b>
+	 *
+	 * @param file
+	 *            putanja do datoteke dnevnika
+	 * @param channel
+	 *            kanal datoteke otvoren metodom {@link #openLocked(Path)}
+	 * @throws IOException
+	 *             ukoliko kanal nije moguće zatvoriti
+	 */
+	private static void close(Path file, FileChannel channel) throws IOException {
+		try {
+			channel.close();
+		} finally {
+			OPEN_JOURNALS.remove(file.toAbsolutePath().normalize());
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja pokušava zaključati cijelu datoteku kanala
+	 * <b>channel</b>
+	 *
+	 * @param channel
+	 *            kanal datoteke
+	 * @param shared
+	 *            <code>true</code> za dijeljeno, a <code>false</code> za
+	 *            isključivo zaključavanje
+	 * @return zaključavanje ili <code>null</code> ukoliko je datoteka već
+	 *         zaključana
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće zaključati
+	 */
+	private static FileLock tryLock(FileChannel channel, boolean shared) throws IOException {
+		try {
+			return channel.tryLock(0, Long.MAX_VALUE, shared);
+		} catch (OverlappingFileLockException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava sadrži li dnevnik <b>file</b> barem jednu
+	 * promjenu osnove <b>base</b> te je li slobodan, odnosno ne koristi li ga
+	 * niti jedan pokrenuti program
+	 *
+	 * @param file
+	 *            putanja do datoteke dnevnika
+	 * @param base
+	 *            putanja do osnove ili <code>null</code> za nespremljeni model
+	 * @return <code>true</code> ukoliko se promjene dnevnika mogu oporaviti,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isRecoverable(Path file, Path base) {
+		if (!Files.isRegularFile(file) || OPEN_JOURNALS.contains(file.toAbsolutePath().normalize())) {
+			return false;
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return tryLock(channel, true) != null && readRecoverable(channel, base) != null;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita cijeli sadržaj dnevnika iz kanala
+	 * <b>channel</b>, ukoliko dnevnik sadrži barem jednu promjenu i započet je
+	 * nad trenutnim sadržajem osnove <b>base</b>
+	 *
+	 * @param channel
+	 *            kanal datoteke dnevnika
+	 * @param base
+	 *            putanja do osnove ili <code>null</code> za nespremljeni model
+	 * @return sadržaj dnevnika pozicioniran iza zaglavlja ili
+	 *         <code>null</code> ukoliko se dnevnik ne može oporaviti
+	 * @throws IOException
+	 *             ukoliko dnevnik nije moguće pročitati
+	 */
+	private static ByteBuffer readRecoverable(FileChannel channel, Path base) throws IOException {
+		long size = channel.size();
+		if (size <= HEADER_SIZE || size > Integer.MAX_VALUE) {
+			return null;
+		}
+
+		ByteBuffer content = ByteBuffer.allocate((int) size);
+		channel.position(0);
+		while (content.hasRemaining() && channel.read(content) != -1) {
+		}
+		content.flip();
+
+		ByteBuffer expected = ByteBuffer.allocate(HEADER_SIZE);
+		putHeader(expected, base);
+		expected.flip();
+
+		ByteBuffer header = content.duplicate();
+		header.limit(HEADER_SIZE);
+		if (!header.equals(expected)) {
+			return null;
+		}
+
+		content.position(HEADER_SIZE);
+		return content;
+	}
+
+	/**
+	 * Pomoćna metoda koja u direktoriju za privremene datoteke pronalazi
+	 * najnoviji dnevnik nespremljenog modela koji se može oporaviti (vidi
+	 * {@link #isRecoverable(Path, Path)})
+	 *
+	 * @return putanja do dnevnika ili <code>null</code> ukoliko takav dnevnik
+	 *         ne postoji
+	 */
+	private static Path findUntitled() {
+		Path newest = null;
+		long newestTime = Long.MIN_VALUE;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(temporaryDirectory(),
+				UNTITLED_PREFIX + "*" + EXTENSION)) {
+			for (Path file : stream) {
+				long time = Files.getLastModifiedTime(file).toMillis();
+				if (time > newestTime && isRecoverable(file, null)) {
+					newest = file;
+					newestTime = time;
+				}
+			}
+		} catch (IOException e) {
+		}
+
+		return newest;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća direktorij za privremene datoteke
+	 *
+	 * @return putanja do direktorija za privremene datoteke
+	 */
+	private static Path temporaryDirectory() {
+		return Paths.get(System.getProperty("java.io.tmpdir"));
+	}
+
+	/**
+	 * Pomoćna metoda koja u međuspremnik <b>buffer</b> zapisuje zaglavlje
+	 * dnevnika za osnovu <b>base</b>
+	 *
+	 * @param buffer
+	 *            međuspremnik u koji se zapisuje
+	 * @param base
+	 *            putanja do osnove ili <code>null</code> za nespremljeni model
+	 * @throws IOException
+	 *             ukoliko podatke o osnovi nije moguće dohvatiti
+	 */
+	private static void putHeader(ByteBuffer buffer, Path base) throws IOException {
+		buffer.putInt(MAGIC);
+		buffer.put(VERSION);
+		buffer.putLong(base == null ? -1 : Files.size(base));
+		buffer.putLong(base == null ? -1 : Files.getLastModifiedTime(base).toMillis());
+	}
+
+	/**
+	 * Pomoćna metoda koja zapise dnevnika iz međuspremnika <b>buffer</b>
+	 * primjenjuje na model <b>model</b>. Primjena se zaustavlja na prvom
+	 * nepotpunom ili neispravnom zapisu.
+	 *
+	 * @param buffer
+	 *            međuspremnik sa zapisima dnevnika
+	 * @param model
+	 *            model na koji se zapisi primjenjuju
+	 */
+	private static void replay(ByteBuffer buffer, JVDrawingModel model) {
+		GeometricalObjectBuilder builder = new GeometricalObjectBuilder();
+
+		try {
+			while (buffer.hasRemaining()) {
+				switch (buffer.get()) {
+				case OP_ADD:
+					JVDBinaryFormat.read(buffer, builder);
+					model.add(builder.getObject());
+					break;
+				case OP_REMOVE:
+					int index0 = buffer.getInt();
+					int index1 = buffer.getInt();
+					int[] indices = new int[Math.max(0, index1 - index0 + 1)];
+					for (int i = 0; i < indices.length; i++) {
+						indices[i] = index0 + i;
+					}
+					model.removeIndices(indices);
+					break;
+				case OP_CHANGE:
+					int index = buffer.getInt();
+					JVDBinaryFormat.read(buffer, builder);
+					model.replace(index, builder.getObject());
+					break;
+				case OP_CLEAR:
+					model.clear();
+					break;
+				default:
+					return;
+				}
+			}
+		} catch (IOException | BufferUnderflowException e) {
+		}
+	}
+
+	/**
+	 * Privatni razred koji implementira sučelje
+	 * {@link GeometricalObjectVisitor}. Primjerak ovog razreda podatke objekta
+	 * kodira kao zapis .jvdb formata unutar međuspremnika promjena.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class RecordEncoder implements GeometricalObjectVisitor {
+
+		@Override
+		public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+			JVDBinaryFormat.putLine(pending, x0, y0, x1, y1, rgb);
+		}
+
+		@Override
+		public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+			JVDBinaryFormat.putCircle(pending, cx, cy, radius, fgRgb);
+		}
+
+		@Override
+		public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+			JVDBinaryFormat.putFilledCircle(pending, cx, cy, radius, fgRgb, bgRgb);
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+
+/**
+ * Razred koji predstavlja uređeno spremište zapisa prostornog indeksa (vidi
+ * {@link SpatialIndex.Entry}). Svaki zapis prilikom dodavanja dobiva redni broj
+ * (vidi {@link SpatialIndex.Entry#order}) koji predstavlja njegovo mjesto
+ * unutar polja zapisa. Obrisani zapisi ostavljaju prazno mjesto, a broj živih
+ * zapisa ispred pojedinog mjesta održava se
+ * <a href="https://en.wikipedia.org/wiki/Fenwick_tree">Fenwickovim
+ * stablom</a>. Time se pozicija zapisa u modelu, zapis na nekoj poziciji te
+ * brisanje zapisa računaju u vremenu O(log n).
+ * <p>
+ * Kada praznih mjesta postane više od živih zapisa, polje se sažima te se
+ * zapisima dodjeljuju novi redni brojevi, uz očuvanje njihova redoslijeda.
+ * </p>
+ *
+ * @see JVDrawingModel
+ * @see SpatialIndex
+ *
+ * @author Davor Češljaš
+ */
+class ObjectStore {
+
+	/** Konstanta koja predstavlja početni kapacitet spremišta */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Konstanta koja predstavlja najmanji broj praznih mjesta od kojeg se
+	 * spremište sažima
+	 */
+	private static final int MIN_COMPACTION_HOLES = 64;
+
+	/**
+	 * Članska varijabla koja predstavlja zapise, pri čemu je zapis pohranjen
+	 * na mjestu koje odgovara njegovom rednom broju
+	 */
+	private SpatialIndex.Entry[] slots;
+
+	/**
+	 * Članska varijabla koja predstavlja Fenwickovo stablo nad zastavicama
+	 * zauzetosti mjesta (indeksirano od 1)
+	 */
+	private int[] tree;
+
+	/** Članska varijabla koja predstavlja prvo nekorišteno mjesto */
+	private int next;
+
+	/** Članska varijabla koja predstavlja broj živih zapisa */
+	private int size;
+
+	/** Članska varijabla koja predstavlja nepromjenjivi pogled na objekte */
+	private List<GeometricalObject> objects;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda, odnosno stvara
+	 * prazno spremište
+	 */
+	public ObjectStore() {
+		this.objects = new ObjectList();
+		clear();
+	}
+
+	/**
+	 * Metoda koja dohvaća broj živih zapisa
+	 *
+	 * @return broj živih zapisa
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Metoda koja zapis <b>entry</b> dodaje na kraj spremišta te mu dodjeljuje
+	 * redni broj
+	 *
+	 * @param entry
+	 *            zapis koji se dodaje
+	 */
+	public void append(SpatialIndex.Entry entry) {
+		if (next == slots.length) {
+			grow();
+		}
+
+		entry.order = next;
+		slots[next] = entry;
+		add(next + 1, 1);
+		next++;
+		size++;
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju zapisa <b>entry</b> među živim zapisima
+	 *
+	 * @param entry
+	 *            zapis pohranjen u ovom spremištu
+	 * @return pozicija zapisa
+	 */
+	public int indexOf(SpatialIndex.Entry entry) {
+		return prefix((int) entry.order + 1) - 1;
+	}
+
+	/**
+	 * Metoda koja dohvaća zapis na poziciji <b>index</b> među živim zapisima
+	 *
+	 * @param index
+	 *            pozicija zapisa
+	 * @return zapis na traženoj poziciji
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko pozicija nije unutar [0, {@link #size()})
+	 */
+	public SpatialIndex.Entry get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+
+		int position = 0;
+		int remaining = index + 1;
+		for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+			int candidate = position + step;
+			if (candidate < tree.length && tree[candidate] < remaining) {
+				position = candidate;
+				remaining -= tree[candidate];
+			}
+		}
+
+		return slots[position];
+	}
+
+	/**
+	 * Metoda koja zapis <b>entry</b> zamjenjuje zapisom <b>replacement</b>, koji
+	 * preuzima njegovo mjesto i redni broj
+	 *
+	 * @param entry
+	 *            zapis pohranjen u ovom spremištu
+	 * @param replacement
+	 *            zapis koji zauzima mjesto zapisa <b>entry</b>
+	 */
+	public void replace(SpatialIndex.Entry entry, SpatialIndex.Entry replacement) {
+		int slot = (int) entry.order;
+		replacement.order = slot;
+		slots[slot] = replacement;
+	}
+
+	/**
+	 * Metoda koja briše zapis <b>entry</b> iz spremišta te po potrebi sažima
+	 * spremište
+	 *
+	 * @param entry
+	 *            zapis pohranjen u ovom spremištu
+	 */
+	public void remove(SpatialIndex.Entry entry) {
+		int slot = (int) entry.order;
+		slots[slot] = null;
+		add(slot + 1, -1);
+		size--;
+
+		int holes = next - size;
+		if (holes > size && holes >= MIN_COMPACTION_HOLES) {
+			rebuild(slots.length);
+		}
+	}
+
+	/**
+	 * Metoda koja iz spremišta u jednom prolazu briše zapise na pozicijama
+	 * <b>indices</b> te sažima spremište. Pozicije moraju biti uzlazno
+	 * sortirane, bez ponavljanja te unutar [0, {@link #size()}).
+	 *
+	 * @param indices
+	 *            uzlazno sortirane pozicije zapisa koji se brišu
+	 * @return obrisani zapisi, u redoslijedu pozicija
+	 */
+	public SpatialIndex.Entry[] removeAt(int[] indices) {
+		SpatialIndex.Entry[] removed = new SpatialIndex.Entry[indices.length];
+
+		int index = 0;
+		int k = 0;
+		for (int slot = 0; slot < next && k < indices.length; slot++) {
+			if (slots[slot] == null) {
+				continue;
+			}
+			if (indices[k] == index) {
+				removed[k++] = slots[slot];
+				slots[slot] = null;
+			}
+			index++;
+		}
+
+		size -= k;
+		rebuild(slots.length);
+		return removed;
+	}
+
+	/**
+	 * Metoda koja zapise <b>entries</b> umeće na pozicije <b>indices</b> te u
+	 * jednom prolazu sažima spremište. Pozicije se odnose na spremište nakon
+	 * umetanja, moraju biti uzlazno sortirane i bez ponavljanja, a svaka mora
+	 * biti unutar [0, {@link #size()} + <code>entries.length</code>).
+	 *
+	 * @param indices
+	 *            uzlazno sortirane pozicije na koje se zapisi umeću
+	 * @param entries
+	 *            zapisi koji se umeću, u redoslijedu pozicija
+	 */
+	public void insertAt(int[] indices, SpatialIndex.Entry[] entries) {
+		int total = size + entries.length;
+		SpatialIndex.Entry[] newSlots = new SpatialIndex.Entry[Math.max(INITIAL_CAPACITY, 2 * total)];
+
+		int slot = 0;
+		int k = 0;
+		for (int index = 0; index < total; index++) {
+			if (k < indices.length && indices[k] == index) {
+				newSlots[index] = entries[k++];
+				continue;
+			}
+			while (slots[slot] == null) {
+				slot++;
+			}
+			newSlots[index] = slots[slot++];
+		}
+
+		slots = newSlots;
+		next = total;
+		size = total;
+		rebuild(slots.length);
+	}
+
+	/**
+	 * Metoda koja briše sve zapise iz spremišta
+	 */
+	public void clear() {
+		slots = new SpatialIndex.Entry[INITIAL_CAPACITY];
+		tree = new int[INITIAL_CAPACITY + 1];
+		next = 0;
+		size = 0;
+	}
+
+	/**
+	 * Metoda koja dohvaća nepromjenjivi pogled na objekte svih živih zapisa, u
+	 * redoslijedu njihova dodavanja. Pogled prati promjene spremišta, a
+	 * iteracija po njemu ne koristi stablo.
+	 *
+	 * @return nepromjenjivi pogled na objekte
+	 */
+	public List<GeometricalObject> objects() {
+		return objects;
+	}
+
+	/**
+	 * Pomoćna metoda koja povećava kapacitet spremišta
+	 */
+	private void grow() {
+		rebuild(Math.max(INITIAL_CAPACITY, 2 * size));
+	}
+
+	/**
+	 * Pomoćna metoda koja žive zapise sažima na početak novog polja kapaciteta
+	 * <b>capacity</b>, dodjeljuje im nove redne brojeve te u vremenu O(n)
+	 * izgrađuje novo stablo
+	 *
+	 * @param capacity
+	 *            kapacitet novog polja
+	 */
+	private void rebuild(int capacity) {
+		SpatialIndex.Entry[] newSlots = new SpatialIndex.Entry[capacity];
+		int[] newTree = new int[capacity + 1];
+
+		int count = 0;
+		for (int i = 0; i < next; i++) {
+			SpatialIndex.Entry entry = slots[i];
+			if (entry != null) {
+				entry.order = count;
+				newSlots[count++] = entry;
+			}
+		}
+
+		for (int i = 1; i <= capacity; i++) {
+			if (i <= count) {
+				newTree[i]++;
+			}
+			int parent = i + (i & -i);
+			if (parent <= capacity) {
+				newTree[parent] += newTree[i];
+			}
+		}
+
+		slots = newSlots;
+		tree = newTree;
+		next = count;
+	}
+
+	/**
+	 * Pomoćna metoda koja vrijednosti na mjestu <b>i</b> (indeksirano od 1)
+	 * unutar stabla dodaje <b>delta</b>
+	 *
+	 * @param i
+	 *            mjesto unutar stabla
+	 * @param delta
+	 *            promjena vrijednosti
+	 */
+	private void add(int i, int delta) {
+		for (; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa broj živih zapisa na prvih <b>i</b> mjesta
+	 *
+	 * @param i
+	 *            broj mjesta
+	 * @return broj živih zapisa
+	 */
+	private int prefix(int i) {
+		int sum = 0;
+		for (; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Privatni razred koji nasljeđuje razred {@link AbstractList}, a
+	 * predstavlja nepromjenjivi pogled na objekte živih zapisa
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class ObjectList extends AbstractList<GeometricalObject> {
+
+		@Override
+		public GeometricalObject get(int index) {
+			return ObjectStore.this.get(index).object;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<GeometricalObject> iterator() {
+			return new Iterator<GeometricalObject>() {
+
+				/** Članska varijabla koja predstavlja sljedeće mjesto */
+				private int slot = skipHoles(0);
+
+				@Override
+				public boolean hasNext() {
+					return slot < next;
+				}
+
+				@Override
+				public GeometricalObject next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+
+					GeometricalObject object = slots[slot].object;
+					slot = skipHoles(slot + 1);
+					return object;
+				}
+			};
+		}
+
+		/**
+		 * Pomoćna metoda koja pronalazi prvo zauzeto mjesto počevši od mjesta
+		 * <b>slot</b>
+		 *
+		 * @param slot
+		 *            mjesto od kojeg se traži
+		 * @return prvo zauzeto mjesto ili {@link ObjectStore#next} ukoliko
+		 *         ono ne postoji
+		 */
+		private int skipHoles(int slot) {
+			while (slot < next && slots[slot] == null) {
+				slot++;
+			}
+			return slot;
+		}
+	}
+}
@@ -0,0 +1,412 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.ColorCache;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryReader;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractDrawingModel}. Razred
+ * predstavlja model koji objekte ne pohranjuje kao primjerke sučelja
+ * {@link GeometricalObject}, već u primitivnim poljima (po jedno polje za
+ * vrstu objekta, koordinate, prednju i stražnju boju). Time jedan objekt
+ * zauzima {@value #BYTES_PER_OBJECT} okteta, umjesto pet do sedam zasebnih
+ * objekata u memoriji. Metoda {@link #getObject(int)} pri svakom dohvatu
+ * stvara nepromjenjivi pogled na pohranjeni objekt (vidi {@link ShapeView}).
+ * <p>
+ * Uz metode sučelja {@link DrawingModel}, razred nudi i metode
+ * {@link #addAll(List)}, {@link #clear()} i {@link #loadFromBinary(Path)}, pri
+ * čemu potonja zapise .jvdb datoteke izravno upisuje u polja. Primjerci ovog
+ * razreda nisu sigurni za korištenje iz više dretvi.
+ * </p>
+ *
+ * @see ShapeView
+ * @see DrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public class PrimitiveDrawingModel extends AbstractDrawingModel {
+
+	/** Konstanta koja predstavlja broj okteta koje zauzima jedan objekt */
+	public static final int BYTES_PER_OBJECT = 1 + 4 * Integer.BYTES + 2 * Integer.BYTES;
+
+	/** Konstanta koja predstavlja početni kapacitet polja */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Članska varijabla koja predstavlja vrste objekata */
+	private byte[] types;
+
+	/**
+	 * Članska varijabla koja predstavlja koordinate objekata, po četiri za
+	 * svaki objekt (vidi {@link ShapeView})
+	 */
+	private int[] coordinates;
+
+	/** Članska varijabla koja predstavlja prednje boje objekata (ARGB) */
+	private int[] fgColors;
+
+	/** Članska varijabla koja predstavlja stražnje boje objekata (ARGB) */
+	private int[] bgColors;
+
+	/** Članska varijabla koja predstavlja broj pohranjenih objekata */
+	private int size;
+
+	/**
+	 * Članske varijable koje predstavljaju granice površine koja zahvaća sve
+	 * pohranjene objekte (uključivo)
+	 */
+	private int minX, minY, maxX, maxY;
+
+	/**
+	 * Članska varijabla koja predstavlja posjetitelja koji podatke objekata
+	 * upisuje u polja
+	 */
+	private GeometricalObjectVisitor appender;
+
+	/** Članska varijabla koja predstavlja priručnu memoriju boja */
+	private ColorCache colorCache;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 */
+	public PrimitiveDrawingModel() {
+		this.appender = new Appender();
+		this.colorCache = new ColorCache();
+		clearArrays();
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public GeometricalObject getObject(int index) {
+		if (index < 0 || index >= size) {
+			return null;
+		}
+
+		int c = 4 * index;
+		int type = types[index];
+		return new ShapeView(this, index, type, coordinates[c], coordinates[c + 1], coordinates[c + 2],
+				coordinates[c + 3], colorCache.get(fgColors[index]),
+				type == ShapeView.FILLED_CIRCLE ? colorCache.get(bgColors[index]) : null);
+	}
+
+	@Override
+	public void add(GeometricalObject object) {
+		object.accept(appender);
+		changedArea = boundsOf(size - 1);
+		fireObjectsAdded(size - 1, size - 1);
+	}
+
+	/**
+	 * Metoda koja pohranjuje sve objekte iz liste <b>objects</b>, u istom
+	 * redoslijedu. O ovoj promjeni promatrači se obavještavaju jednom
+	 * obavijesti.
+	 *
+	 * @param objects
+	 *            {@link List} objekata koje je potrebno pohraniti
+	 */
+	public void addAll(List<GeometricalObject> objects) {
+		int firstIndex = size;
+		ensureCapacity(size + objects.size());
+		for (GeometricalObject object : objects) {
+			object.accept(appender);
+		}
+
+		fireAddedSince(firstIndex);
+	}
+
+	/**
+	 * Metoda koja briše sve pohranjene objekte te oslobađa polja. O ovoj
+	 * promjeni biti će obaviješteni svi promatrači.
+	 */
+	public void clear() {
+		int lastIndex = size - 1;
+		changedArea = size == 0 ? null : new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+		clearArrays();
+
+		fireObjectsRemoved(0, lastIndex < 0 ? 0 : lastIndex);
+	}
+
+	/**
+	 * Metoda koja sve zapise .jvdb datoteke <b>file</b> dodaje na kraj ovog
+	 * modela. Zapisi se iz datoteke izravno upisuju u polja, bez stvaranja
+	 * primjeraka sučelja {@link GeometricalObject}. Ukoliko datoteka nije
+	 * ispravna, model ostaje nepromijenjen.
+	 *
+	 * @param file
+	 *            putanja do .jvdb datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati ili ona nije ispravna
+	 */
+	public void loadFromBinary(Path file) throws IOException {
+		int firstIndex = size;
+		try {
+			new JVDBinaryReader().read(file, appender);
+		} catch (IOException e) {
+			size = firstIndex;
+			throw e;
+		}
+
+		fireAddedSince(firstIndex);
+	}
+
+	/**
+	 * Metoda koja smanjuje kapacitet polja na broj pohranjenih objekata
+	 */
+	public void trimToSize() {
+		types = Arrays.copyOf(types, size);
+		coordinates = Arrays.copyOf(coordinates, 4 * size);
+		fgColors = Arrays.copyOf(fgColors, size);
+		bgColors = Arrays.copyOf(bgColors, size);
+	}
+
+	@Override
+	public List<GeometricalObject> objectsIntersecting(Rectangle area) {
+		if (area == null || size == 0 || (area.x <= minX && area.y <= minY && area.x + area.width - 1 >= maxX
+				&& area.y + area.height - 1 >= maxY)) {
+			return new ViewList(null, size);
+		}
+
+		if (area.width <= 0 || area.height <= 0) {
+			return new ViewList(null, 0);
+		}
+
+		int qMinX = area.x;
+		int qMinY = area.y;
+		int qMaxX = area.x + area.width - 1;
+		int qMaxY = area.y + area.height - 1;
+
+		int[] found = new int[16];
+		int count = 0;
+		for (int i = 0, c = 0; i < size; i++, c += 4) {
+			int x0, y0, x1, y1;
+			if (types[i] == ShapeView.LINE) {
+				x0 = Math.min(coordinates[c], coordinates[c + 2]);
+				y0 = Math.min(coordinates[c + 1], coordinates[c + 3]);
+				x1 = Math.max(coordinates[c], coordinates[c + 2]);
+				y1 = Math.max(coordinates[c + 1], coordinates[c + 3]);
+			} else {
+				int r = coordinates[c + 2];
+				x0 = coordinates[c] - r;
+				y0 = coordinates[c + 1] - r;
+				x1 = coordinates[c] + r;
+				y1 = coordinates[c + 1] + r;
+			}
+
+			if (x0 > qMaxX || x1 < qMinX || y0 > qMaxY || y1 < qMinY) {
+				continue;
+			}
+
+			if (count == found.length) {
+				found = Arrays.copyOf(found, 2 * count);
+			}
+			found[count++] = i;
+		}
+
+		return new ViewList(found, count);
+	}
+
+	/**
+	 * Pomoćna metoda koja promatrače obavještava o objektima dodanima od
+	 * pozicije <b>firstIndex</b> do kraja modela
+	 *
+	 * @param firstIndex
+	 *            pozicija prvog dodanog objekta
+	 */
+	private void fireAddedSince(int firstIndex) {
+		changedArea = null;
+		for (int i = firstIndex; i < size; i++) {
+			changedArea = union(changedArea, boundsOf(i));
+		}
+
+		int lastIndex = size - 1;
+		fireObjectsAdded(firstIndex, lastIndex < firstIndex ? firstIndex : lastIndex);
+	}
+
+	/**
+	 * Pomoćna metoda koja računa minimalnu pravokutnu površinu objekta na
+	 * poziciji <b>index</b>, jednako kao i metoda
+	 * {@link GeometricalObject#getBoundingBox()}
+	 *
+	 * @param index
+	 *            pozicija objekta
+	 * @return minimalna pravokutna površina objekta
+	 */
+	private Rectangle boundsOf(int index) {
+		int c = 4 * index;
+		if (types[index] == ShapeView.LINE) {
+			int x = Math.min(coordinates[c], coordinates[c + 2]);
+			int y = Math.min(coordinates[c + 1], coordinates[c + 3]);
+			return new Rectangle(x, y, Math.max(coordinates[c], coordinates[c + 2]) - x,
+					Math.max(coordinates[c + 1], coordinates[c + 3]) - y);
+		}
+
+		int r = coordinates[c + 2];
+		return new Rectangle(coordinates[c] - r, coordinates[c + 1] - r, 2 * r, 2 * r);
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara prazna polja početnog kapaciteta
+	 */
+	private void clearArrays() {
+		types = new byte[INITIAL_CAPACITY];
+		coordinates = new int[4 * INITIAL_CAPACITY];
+		fgColors = new int[INITIAL_CAPACITY];
+		bgColors = new int[INITIAL_CAPACITY];
+		size = 0;
+		minX = minY = Integer.MAX_VALUE;
+		maxX = maxY = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Pomoćna metoda koja osigurava da polja mogu pohraniti barem
+	 * <b>capacity</b> objekata
+	 *
+	 * @param capacity
+	 *            traženi kapacitet
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= types.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, types.length + (types.length >> 1));
+		types = Arrays.copyOf(types, newCapacity);
+		coordinates = Arrays.copyOf(coordinates, 4 * newCapacity);
+		fgColors = Arrays.copyOf(fgColors, newCapacity);
+		bgColors = Arrays.copyOf(bgColors, newCapacity);
+	}
+
+	/**
+	 * Pomoćna metoda koja na kraj polja upisuje jedan objekt te proširuje
+	 * granice površine koja zahvaća sve objekte
+	 *
+	 * @param type
+	 *            vrsta objekta
+	 * @param a
+	 *            prva koordinata
+	 * @param b
+	 *            druga koordinata
+	 * @param c
+	 *            treća koordinata
+	 * @param d
+	 *            četvrta koordinata
+	 * @param fgRgb
+	 *            prednja boja
+	 * @param bgRgb
+	 *            stražnja boja
+	 * @param x0
+	 *            najmanja x-koordinata objekta
+	 * @param y0
+	 *            najmanja y-koordinata objekta
+	 * @param x1
+	 *            najveća x-koordinata objekta
+	 * @param y1
+	 *            najveća y-koordinata objekta
+	 */
+	private void append(int type, int a, int b, int c, int d, int fgRgb, int bgRgb, int x0, int y0, int x1,
+			int y1) {
+		ensureCapacity(size + 1);
+
+		types[size] = (byte) type;
+		int i = 4 * size;
+		coordinates[i] = a;
+		coordinates[i + 1] = b;
+		coordinates[i + 2] = c;
+		coordinates[i + 3] = d;
+		fgColors[size] = fgRgb;
+		bgColors[size] = bgRgb;
+		size++;
+
+		minX = Math.min(minX, x0);
+		minY = Math.min(minY, y0);
+		maxX = Math.max(maxX, x1);
+		maxY = Math.max(maxY, y1);
+	}
+
+	/**
+	 * Privatni razred koji implementira sučelje
+	 * {@link GeometricalObjectVisitor}. Primjerak ovog razreda primljene
+	 * podatke objekta upisuje na kraj polja modela.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class Appender implements GeometricalObjectVisitor {
+
+		@Override
+		public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+			append(ShapeView.LINE, x0, y0, x1, y1, rgb, 0, Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1),
+					Math.max(y0, y1));
+		}
+
+		@Override
+		public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+			append(ShapeView.CIRCLE, cx, cy, radius, 0, fgRgb, 0, cx - radius, cy - radius, cx + radius,
+					cy + radius);
+		}
+
+		@Override
+		public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+			append(ShapeView.FILLED_CIRCLE, cx, cy, radius, 0, fgRgb, bgRgb, cx - radius, cy - radius,
+					cx + radius, cy + radius);
+		}
+	}
+
+	/**
+	 * Privatni razred koji nasljeđuje razred {@link AbstractList}. Primjerci
+	 * ovog razreda predstavljaju rezultat metode
+	 * {@link PrimitiveDrawingModel#objectsIntersecting(Rectangle)}, pri čemu
+	 * se pogledi stvaraju tek prilikom dohvata.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class ViewList extends AbstractList<GeometricalObject> {
+
+		/**
+		 * Članska varijabla koja predstavlja pozicije pronađenih objekata ili
+		 * <code>null</code> ukoliko lista sadrži sve objekte
+		 */
+		private int[] indices;
+
+		/** Članska varijabla koja predstavlja veličinu liste */
+		private int count;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param indices
+		 *            pozicije pronađenih objekata ili <code>null</code>
+		 *            ukoliko lista sadrži sve objekte
+		 * @param count
+		 *            veličina liste
+		 */
+		public ViewList(int[] indices, int count) {
+			this.indices = indices;
+			this.count = count;
+		}
+
+		@Override
+		public GeometricalObject get(int i) {
+			if (i < 0 || i >= count) {
+				throw new IndexOutOfBoundsException("Index: " + i + ", size: " + count);
+			}
+
+			return getObject(indices == null ? i : indices[i]);
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Circle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.FilledCircle;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.Line;
+
+/**
+ * Razred koji implementira sučelje {@link GeometricalObject}. Primjerci ovog
+ * razreda predstavljaju pogled na jedan objekt modela koji objekte ne pohranjuje
+ * kao primjerke sučelja {@link GeometricalObject}, već u primitivnom obliku
+ * (vidi {@link MappedDrawingModel} i {@link PrimitiveDrawingModel}). Pogled se
+ * iscrtava jednako kao i odgovarajući primjerak razreda {@link Line},
+ * {@link Circle} ili {@link FilledCircle}, ali se ne može mijenjati. Dva
+ * pogleda su jednaka ukoliko pripadaju istom modelu i predstavljaju objekt na
+ * istoj poziciji, pa se pogledi mogu stvarati pri svakom dohvatu.
+ *
+ * @see MappedDrawingModel
+ * @see PrimitiveDrawingModel
+ *
+ * @author Davor Češljaš
+ */
+final class ShapeView implements GeometricalObject {
+
+	/** Konstanta koja predstavlja vrstu zapisa linije */
+	static final int LINE = 0;
+
+	/** Konstanta koja predstavlja vrstu zapisa kruga */
+	static final int CIRCLE = 1;
+
+	/** Konstanta koja predstavlja vrstu zapisa ispunjenog kruga */
+	static final int FILLED_CIRCLE = 2;
+
+	/** Članska varijabla koja predstavlja model kojem pogled pripada */
+	private final DrawingModel model;
+
+	/** Članska varijabla koja predstavlja poziciju zapisa unutar modela */
+	private final int index;
+
+	/** Članska varijabla koja predstavlja vrstu zapisa */
+	private final int type;
+
+	/**
+	 * Članske varijable koje predstavljaju koordinate zapisa. Za liniju su to
+	 * koordinate početne i završne točke, a za krug koordinate središta i
+	 * radijus
+	 */
+	private final int a, b, c, d;
+
+	/** Članska varijabla koja predstavlja prednju boju */
+	private final Color fgColor;
+
+	/**
+	 * Članska varijabla koja predstavlja stražnju boju ili <code>null</code>
+	 * ukoliko ona ne postoji
+	 */
+	private final Color bgColor;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param model
+	 *            model kojem pogled pripada
+	 * @param index
+	 *            pozicija zapisa unutar modela
+	 * @param type
+	 *            vrsta zapisa
+	 * @param a
+	 *            prva koordinata
+	 * @param b
+	 *            druga koordinata
+	 * @param c
+	 *            treća koordinata
+	 * @param d
+	 *            četvrta koordinata (koristi se samo za liniju)
+	 * @param fgColor
+	 *            prednja boja
+	 * @param bgColor
+	 *            stražnja boja ili <code>null</code>
+	 */
+	ShapeView(DrawingModel model, int index, int type, int a, int b, int c, int d, Color fgColor,
+			Color bgColor) {
+		this.model = model;
+		this.index = index;
+		this.type = type;
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		this.d = d;
+		this.fgColor = fgColor;
+		this.bgColor = bgColor;
+	}
+
+	@Override
+	public void paint(Graphics2D g2) {
+		Color colorSave = g2.getColor();
+
+		if (type == LINE) {
+			g2.setColor(fgColor);
+			g2.drawLine(a, b, c, d);
+		} else {
+			if (type == FILLED_CIRCLE) {
+				g2.setColor(bgColor);
+				g2.fillOval(a - c, b - c, 2 * c, 2 * c);
+			}
+			g2.setColor(fgColor);
+			g2.drawOval(a - c, b - c, 2 * c, 2 * c);
+		}
+
+		g2.setColor(colorSave);
+	}
+
+	@Override
+	public Rectangle getBoundingBox() {
+		Rectangle bounds = new Rectangle();
+		boundsInto(bounds);
+		return bounds;
+	}
+
+	@Override
+	public void boundsInto(Rectangle bounds) {
+		if (type == LINE) {
+			int minX = Math.min(a, c);
+			int minY = Math.min(b, d);
+			bounds.setBounds(minX, minY, Math.max(a, c) - minX, Math.max(b, d) - minY);
+		} else {
+			bounds.setBounds(a - c, b - c, 2 * c, 2 * c);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} Pogled se ne može mijenjati, pa ova metoda uvijek baca
+	 * iznimku.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             uvijek
+	 */
+	@Override
+	public void changeSecondCoordinate(Point newCoordinate) {
+		throw new UnsupportedOperationException("Mapped objects are read-only");
+	}
+
+	@Override
+	public JPanel createChangePanel() {
+		JPanel panel = new JPanel();
+		panel.add(new JLabel(toString() + " is read-only"));
+		return panel;
+	}
+
+	/**
+	 * {@inheritDoc} Pogled se ne može mijenjati, pa ova metoda uvijek vraća
+	 * <code>false</code>.
+	 */
+	@Override
+	public boolean change(JPanel panel) {
+		return false;
+	}
+
+	@Override
+	public String toJVD() {
+		switch (type) {
+		case LINE:
+			return String.format("%s %d %d %d %d %d %d %d", Line.JVD_REPRESENTATION, a, b, c, d, fgColor.getRed(),
+					fgColor.getGreen(), fgColor.getBlue());
+		case CIRCLE:
+			return String.format("%s %d %d %d %d %d %d", Circle.JVD_REPRESENTATION, a, b, c, fgColor.getRed(),
+					fgColor.getGreen(), fgColor.getBlue());
+		default:
+			return String.format("%s %d %d %d %d %d %d %d %d %d", FilledCircle.JVD_REPRESENTATION, a, b, c,
+					fgColor.getRed(), fgColor.getGreen(), fgColor.getBlue(), bgColor.getRed(), bgColor.getGreen(),
+					bgColor.getBlue());
+		}
+	}
+
+	@Override
+	public void accept(GeometricalObjectVisitor visitor) {
+		switch (type) {
+		case LINE:
+			visitor.visitLine(a, b, c, d, fgColor.getRGB());
+			break;
+		case CIRCLE:
+			visitor.visitCircle(a, b, c, fgColor.getRGB());
+			break;
+		default:
+			visitor.visitFilledCircle(a, b, c, fgColor.getRGB(), bgColor.getRGB());
+			break;
+		}
+	}
+
+	/**
+	 * {@inheritDoc} Pogled se ne može mijenjati, pa ova metoda uvijek baca
+	 * iznimku.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             uvijek
+	 */
+	@Override
+	public GeometricalObjectVisitor stateSetter() {
+		throw new UnsupportedOperationException("Mapped objects are read-only");
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(model) + index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ShapeView other = (ShapeView) obj;
+		return model == other.model && index == other.index;
+	}
+
+	@Override
+	public String toString() {
+		String name = type == LINE ? Line.NAME : type == CIRCLE ? Circle.NAME : FilledCircle.NAME;
+		return name + " #" + (index + 1);
+	}
+}
@@ -0,0 +1,480 @@
+package hr.fer.zemris.java.hw16.jvdraw.model;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+
+/**
+ * Razred koji predstavlja prostorni indeks nad primjercima sučelja
+ * {@link GeometricalObject}. Indeks je ostvaren kao uniformna mreža ćelija
+ * veličine {@value #CELL_SIZE} x {@value #CELL_SIZE} piksela, pri čemu se
+ * svaki objekt pohranjuje u sve ćelije koje siječe njegova minimalna
+ * pravokutna površina (vidi {@link GeometricalObject#getBoundingBox()}).
+ * Objekti koji bi zauzeli više od {@value #MAX_CELLS_PER_OBJECT} ćelija
+ * pohranjuju se u zasebnu listu koja se uvijek pregledava.
+ * <p>
+ * Zapisi indeksa (vidi {@link Entry}) dijele se sa spremištem
+ * {@link ObjectStore}, koje svakom zapisu dodjeljuje redni broj, čime se
+ * rezultati upita {@link #query(Rectangle)} mogu vratiti u istom redoslijedu u
+ * kojem su objekti pohranjeni u modelu (redoslijed iscrtavanja).
+ * </p>
+ *
+ * @see JVDrawingModel
+ *
+ * @author Davor Češljaš
+ */
+class SpatialIndex {
+
+	/** Konstanta koja predstavlja veličinu stranice jedne ćelije u pikselima */
+	static final int CELL_SIZE = 128;
+
+	/**
+	 * Konstanta koja predstavlja maksimalan broj ćelija u koje se pohranjuje
+	 * jedan objekt
+	 */
+	private static final int MAX_CELLS_PER_OBJECT = 64;
+
+	/**
+	 * Konstanta koja predstavlja usporedbu zapisa indeksa po rednom broju
+	 * umetanja
+	 */
+	private static final Comparator<Entry> BY_ORDER = (e1, e2) -> Long.compare(e1.order, e2.order);
+
+	/**
+	 * Članska varijabla koja predstavlja ćelije mreže. Ključ je sažetak
+	 * koordinata ćelije (vidi {@link #cellKey(int, int)})
+	 */
+	private Map<Long, List<Entry>> cells;
+
+	/**
+	 * Članska varijabla koja predstavlja zapise objekata čije površine
+	 * zahvaćaju previše ćelija
+	 */
+	private List<Entry> large;
+
+	/** Članska varijabla koja predstavlja zapise svih indeksiranih objekata */
+	private Map<GeometricalObject, Entry> entries;
+
+	/**
+	 * Članska varijabla koja predstavlja oznaku trenutnog upita, a koristi se
+	 * kako se isti objekt ne bi vratio više puta
+	 */
+	private int queryStamp;
+
+	/**
+	 * Članske varijable koje predstavljaju granice površine koja zahvaća sve
+	 * do sada indeksirane objekte
+	 */
+	private int minX, minY, maxX, maxY;
+
+	/**
+	 * Članska varijabla koja predstavlja pomoćni primjerak razreda
+	 * {@link Rectangle} u koji se zapisuje površina objekta koji se
+	 * pohranjuje (vidi {@link GeometricalObject#boundsInto(Rectangle)})
+	 */
+	private Rectangle box;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda, odnosno stvara
+	 * prazan indeks
+	 */
+	public SpatialIndex() {
+		box = new Rectangle();
+		cells = new HashMap<>();
+		large = new ArrayList<>();
+		entries = new IdentityHashMap<>();
+		resetBounds();
+	}
+
+	/**
+	 * Metoda koja dodaje predani objekt <b>object</b> u indeks. Ukoliko je
+	 * objekt već indeksiran metoda ne radi ništa. Redni broj stvorenog zapisa
+	 * potrebno je postaviti prije sljedećeg upita (vidi
+	 * {@link ObjectStore#append(Entry)}).
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} koji se indeksira
+	 * @return stvoreni zapis ili <code>null</code> ukoliko je objekt već bio
+	 *         indeksiran
+	 */
+	public Entry insert(GeometricalObject object) {
+		if (entries.containsKey(object)) {
+			return null;
+		}
+
+		Entry entry = new Entry(object);
+		entries.put(object, entry);
+		place(entry);
+		return entry;
+	}
+
+	/**
+	 * Metoda koja dohvaća zapis predanog objekta <b>object</b>. Objekti se
+	 * uspoređuju po identitetu.
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} čiji se zapis
+	 *            traži
+	 * @return zapis objekta ili <code>null</code> ukoliko objekt nije
+	 *         indeksiran
+	 */
+	public Entry get(GeometricalObject object) {
+		return entries.get(object);
+	}
+
+	/**
+	 * Metoda koja briše predani objekt <b>object</b> iz indeksa
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} koji se briše iz
+	 *            indeksa
+	 * @return površina koju je objekt zauzimao prije brisanja ili
+	 *         <code>null</code> ukoliko objekt nije bio indeksiran
+	 */
+	public Rectangle remove(GeometricalObject object) {
+		Entry entry = entries.remove(object);
+		if (entry == null) {
+			return null;
+		}
+
+		Rectangle old = entry.toRectangle();
+		displace(entry);
+		return old;
+	}
+
+	/**
+	 * Metoda koja ponovno indeksira predani objekt <b>object</b>, nakon što se
+	 * njegova površina promijenila. Redni broj umetanja objekta se ne mijenja.
+	 *
+	 * @param object
+	 *            primjerak sučelja {@link GeometricalObject} čija se površina
+	 *            promijenila
+	 * @return površina koju je objekt zauzimao prije promjene ili
+	 *         <code>null</code> ukoliko objekt nije bio indeksiran
+	 */
+	public Rectangle update(GeometricalObject object) {
+		Entry entry = entries.get(object);
+		if (entry == null) {
+			return null;
+		}
+
+		Rectangle old = entry.toRectangle();
+		displace(entry);
+		place(entry);
+		return old;
+	}
+
+	/**
+	 * Metoda koja briše sve zapise iz indeksa
+	 */
+	public void clear() {
+		cells.clear();
+		large.clear();
+		entries.clear();
+		resetBounds();
+	}
+
+	/**
+	 * Metoda koja dohvaća površinu koja zahvaća sve do sada indeksirane
+	 * objekte. Površina se smanjuje tek pozivom metode {@link #clear()}.
+	 *
+	 * @return površina koja zahvaća sve indeksirane objekte ili
+	 *         <code>null</code> ukoliko je indeks prazan
+	 */
+	public Rectangle getBounds() {
+		if (entries.isEmpty()) {
+			return null;
+		}
+
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Metoda koja provjerava prekriva li površina <b>area</b> sve indeksirane
+	 * objekte. U tom slučaju upit nad indeksom nije potreban.
+	 *
+	 * @param area
+	 *            površina koja se provjerava
+	 * @return <code>true</code> ukoliko površina <b>area</b> prekriva sve
+	 *         indeksirane objekte, <code>false</code> inače
+	 */
+	public boolean covers(Rectangle area) {
+		if (entries.isEmpty()) {
+			return true;
+		}
+
+		return area.x <= minX && area.y <= minY && (long) area.x + area.width > maxX
+				&& (long) area.y + area.height > maxY;
+	}
+
+	/**
+	 * Metoda koja dohvaća sve indeksirane objekte čija minimalna pravokutna
+	 * površina siječe površinu <b>area</b>. Objekti se vraćaju u redoslijedu
+	 * umetanja u indeks.
+	 *
+	 * @param area
+	 *            površina koja se pretražuje
+	 * @return {@link List} objekata čija površina siječe površinu <b>area</b>
+	 */
+	public List<GeometricalObject> query(Rectangle area) {
+		if (entries.isEmpty() || area.width <= 0 || area.height <= 0) {
+			return new ArrayList<>();
+		}
+
+		List<Entry> found = new ArrayList<>();
+		int qMinX = area.x;
+		int qMinY = area.y;
+		int qMaxX = area.x + area.width - 1;
+		int qMaxY = area.y + area.height - 1;
+		int stamp = ++queryStamp;
+
+		for (Entry entry : large) {
+			collect(entry, stamp, qMinX, qMinY, qMaxX, qMaxY, found);
+		}
+
+		int cMinX = cellOf(Math.max(qMinX, minX));
+		int cMinY = cellOf(Math.max(qMinY, minY));
+		int cMaxX = cellOf(Math.min(qMaxX, maxX));
+		int cMaxY = cellOf(Math.min(qMaxY, maxY));
+
+		long queriedCells = ((long) cMaxX - cMinX + 1) * ((long) cMaxY - cMinY + 1);
+		if (cMaxX < cMinX || cMaxY < cMinY) {
+			queriedCells = 0;
+		}
+
+		if (queriedCells > cells.size()) {
+			for (Map.Entry<Long, List<Entry>> cell : cells.entrySet()) {
+				long key = cell.getKey();
+				int cx = (int) (key >> 32);
+				int cy = (int) key;
+				if (cx < cMinX || cx > cMaxX || cy < cMinY || cy > cMaxY) {
+					continue;
+				}
+
+				for (Entry entry : cell.getValue()) {
+					collect(entry, stamp, qMinX, qMinY, qMaxX, qMaxY, found);
+				}
+			}
+		} else if (queriedCells > 0) {
+			for (int cx = cMinX; cx <= cMaxX; cx++) {
+				for (int cy = cMinY; cy <= cMaxY; cy++) {
+					List<Entry> cell = cells.get(cellKey(cx, cy));
+					if (cell == null) {
+						continue;
+					}
+
+					for (Entry entry : cell) {
+						collect(entry, stamp, qMinX, qMinY, qMaxX, qMaxY, found);
+					}
+				}
+			}
+		}
+
+		found.sort(BY_ORDER);
+
+		List<GeometricalObject> result = new ArrayList<>(found.size());
+		for (Entry entry : found) {
+			result.add(entry.object);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Pomoćna metoda koja predani zapis <b>entry</b> dodaje u listu
+	 * <b>found</b> ukoliko on siječe traženu površinu i ukoliko već nije
+	 * dodan u sklopu trenutnog upita
+	 *
+	 * @param entry
+	 *            zapis koji se provjerava
+	 * @param stamp
+	 *            oznaka trenutnog upita
+	 * @param qMinX
+	 *            najmanja x-koordinata tražene površine (uključivo)
+	 * @param qMinY
+	 *            najmanja y-koordinata tražene površine (uključivo)
+	 * @param qMaxX
+	 *            najveća x-koordinata tražene površine (uključivo)
+	 * @param qMaxY
+	 *            najveća y-koordinata tražene površine (uključivo)
+	 * @param found
+	 *            lista pronađenih zapisa
+	 */
+	private static void collect(Entry entry, int stamp, int qMinX, int qMinY, int qMaxX, int qMaxY,
+			List<Entry> found) {
+		if (entry.stamp == stamp) {
+			return;
+		}
+		entry.stamp = stamp;
+
+		if (entry.minX <= qMaxX && entry.maxX >= qMinX && entry.minY <= qMaxY && entry.maxY >= qMinY) {
+			found.add(entry);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja osvježava granice zapisa <b>entry</b> prema trenutnoj
+	 * površini objekta te zapis pohranjuje u odgovarajuće ćelije
+	 *
+	 * @param entry
+	 *            zapis koji se pohranjuje
+	 */
+	private void place(Entry entry) {
+		entry.object.boundsInto(box);
+		entry.minX = box.x;
+		entry.minY = box.y;
+		entry.maxX = box.x + Math.max(0, box.width);
+		entry.maxY = box.y + Math.max(0, box.height);
+
+		minX = Math.min(minX, entry.minX);
+		minY = Math.min(minY, entry.minY);
+		maxX = Math.max(maxX, entry.maxX);
+		maxY = Math.max(maxY, entry.maxY);
+
+		int cMinX = cellOf(entry.minX);
+		int cMinY = cellOf(entry.minY);
+		int cMaxX = cellOf(entry.maxX);
+		int cMaxY = cellOf(entry.maxY);
+
+		if (((long) cMaxX - cMinX + 1) * ((long) cMaxY - cMinY + 1) > MAX_CELLS_PER_OBJECT) {
+			entry.large = true;
+			large.add(entry);
+			return;
+		}
+
+		entry.large = false;
+		for (int cx = cMinX; cx <= cMaxX; cx++) {
+			for (int cy = cMinY; cy <= cMaxY; cy++) {
+				cells.computeIfAbsent(cellKey(cx, cy), k -> new ArrayList<>(4)).add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja uklanja zapis <b>entry</b> iz svih ćelija u koje je
+	 * bio pohranjen
+	 *
+	 * @param entry
+	 *            zapis koji se uklanja
+	 */
+	private void displace(Entry entry) {
+		if (entry.large) {
+			large.remove(entry);
+			return;
+		}
+
+		for (int cx = cellOf(entry.minX), cMaxX = cellOf(entry.maxX); cx <= cMaxX; cx++) {
+			for (int cy = cellOf(entry.minY), cMaxY = cellOf(entry.maxY); cy <= cMaxY; cy++) {
+				Long key = cellKey(cx, cy);
+				List<Entry> cell = cells.get(key);
+				if (cell == null) {
+					continue;
+				}
+
+				for (Iterator<Entry> it = cell.iterator(); it.hasNext();) {
+					if (it.next() == entry) {
+						it.remove();
+						break;
+					}
+				}
+
+				if (cell.isEmpty()) {
+					cells.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja granice indeksa na praznu površinu
+	 */
+	private void resetBounds() {
+		minX = Integer.MAX_VALUE;
+		minY = Integer.MAX_VALUE;
+		maxX = Integer.MIN_VALUE;
+		maxY = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa koordinatu ćelije u koju pada koordinata
+	 * <b>coordinate</b>
+	 *
+	 * @param coordinate
+	 *            koordinata u pikselima
+	 * @return koordinata ćelije
+	 */
+	private static int cellOf(int coordinate) {
+		return Math.floorDiv(coordinate, CELL_SIZE);
+	}
+
+	/**
+	 * Pomoćna metoda koja na temelju koordinata ćelije stvara ključ ćelije
+	 *
+	 * @param cx
+	 *            x-koordinata ćelije
+	 * @param cy
+	 *            y-koordinata ćelije
+	 * @return ključ ćelije
+	 */
+	private static Long cellKey(int cx, int cy) {
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Pomoćni razred koji predstavlja jedan zapis indeksa. Zapis pamti objekt,
+	 * njegov redni broj unutar spremišta {@link ObjectStore} te granice
+	 * površine koje je objekt imao u trenutku indeksiranja (uključivo).
+	 *
+	 * @author Davor Češljaš
+	 */
+	static class Entry {
+
+		/** Članska varijabla koja predstavlja indeksirani objekt */
+		final GeometricalObject object;
+
+		/**
+		 * Članska varijabla koja predstavlja redni broj objekta, a kojeg
+		 * dodjeljuje spremište {@link ObjectStore}
+		 */
+		long order;
+
+		/** Članske varijable koje predstavljaju granice površine objekta */
+		private int minX, minY, maxX, maxY;
+
+		/**
+		 * Članska varijabla koja ukazuje je li zapis pohranjen u listu
+		 * {@link SpatialIndex#large}
+		 */
+		private boolean large;
+
+		/** Članska varijabla koja predstavlja oznaku posljednjeg upita */
+		private int stamp;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param object
+		 *            indeksirani objekt
+		 */
+		public Entry(GeometricalObject object) {
+			this.object = object;
+		}
+
+		/**
+		 * Metoda koja granice ovog zapisa vraća kao primjerak razreda
+		 * {@link Rectangle}
+		 *
+		 * @return granice ovog zapisa
+		 */
+		public Rectangle toRectangle() {
+			return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+		}
+	}
+}
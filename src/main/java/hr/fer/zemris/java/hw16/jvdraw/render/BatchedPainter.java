@@ -0,0 +1,573 @@
+package hr.fer.zemris.java.hw16.jvdraw.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+import java.util.List;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+
+/**
+ * Razred koji implementira sučelje {@link GeometricalObjectVisitor}. Primjerci
+ * ovog razreda iscrtavaju objekte uz što manje promjena stanja primjerka
+ * razreda {@link Graphics2D}. Svaki objekt rastavlja se na osnovne poteze
+ * (linija, obrub kružnice i ispuna kružnice), a potezi iste vrste i boje
+ * mogu se iscrtavati zajedno, uz jedno postavljanje boje. Potezi se ni u
+ * jednom načinu ne iscrtavaju uz spremanje i vraćanje boje niti uz stvaranje
+ * novih objekata: primjerci razreda {@link Color} pamte se između
+ * iscrtavanja (najviše {@value #MAX_COLORS} boja), pa iscrtavanje jednog
+ * okvira nakon prvog ne zauzima novu memoriju.
+ * <p>
+ * Potezi se skupljaju u prozor. Da bi se očuvao redoslijed iscrtavanja na
+ * mjestima gdje se objekti preklapaju, iscrtana površina podijeljena je na
+ * ćelije, a za svaku ćeliju pamti se vrsta i boja poteza koji ju zahvaćaju.
+ * Ukoliko novi potez zahvaća ćeliju u kojoj je potez druge vrste ili boje,
+ * prozor se najprije iscrta. Stoga se unutar prozora preklapaju samo potezi
+ * iste vrste i boje, pa se rezultat ne razlikuje od iscrtavanja redom. Potezi
+ * koji zahvaćaju više od {@value #MAX_BATCHED_CELLS} ćelija iscrtavaju se
+ * odmah.
+ * </p>
+ * <p>
+ * Pretpostavljeno se potezi ipak iscrtavaju strogo redom (vidi
+ * {@link #setExactOrder(boolean)}), pri čemu se boja postavlja samo kada se
+ * razlikuje od prethodne. Na programskom cjevovodu Java2D (iscrtavanje u
+ * {@link java.awt.image.BufferedImage}) promjena boje je jeftina, a trošak
+ * određuju sami potezi, pa se grupiranje isplati tek pri ubrzanim cjevovodima
+ * ili crtežima s nakupinama objekata. Strogi redoslijed koristi se i ukoliko
+ * preslikavanje primjerka razreda {@link Graphics2D} nije samo uvećanje i
+ * pomak.
+ * </p>
+ * <p>
+ * Primjerci ovog razreda nisu sigurni za korištenje iz više dretvi.
+ * </p>
+ *
+ * @see GeometricalObject
+ *
+ * @author Davor Češljaš
+ */
+public class BatchedPainter implements GeometricalObjectVisitor {
+
+	/** Konstanta koja predstavlja potez linije */
+	private static final int LINE = 0;
+
+	/** Konstanta koja predstavlja potez obruba kružnice */
+	private static final int OVAL = 1;
+
+	/** Konstanta koja predstavlja potez ispune kružnice */
+	private static final int FILLED_OVAL = 2;
+
+	/** Konstanta koja predstavlja najveći broj ćelija površine */
+	private static final int MAX_CELLS = 1 << 16;
+
+	/** Konstanta koja predstavlja najmanju stranicu ćelije (u pikselima) */
+	private static final int MIN_CELL_SIZE = 16;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj ćelija koje potez smije
+	 * zahvaćati da bi se skupljao u prozor
+	 */
+	private static final int MAX_BATCHED_CELLS = 256;
+
+	/** Konstanta koja predstavlja početni kapacitet spremnika poteza */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Konstanta koja predstavlja početni kapacitet tablice boja */
+	private static final int INITIAL_COLORS = 64;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj zapamćenih boja, nakon kojeg se
+	 * tablica boja prazni
+	 */
+	private static final int MAX_COLORS = 1 << 18;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to
+	 * iscrtavaju li se potezi strogo redom
+	 */
+	private boolean exactOrder;
+
+	/**
+	 * Članska varijabla koja predstavlja RGB vrijednosti zapamćenih boja,
+	 * raspršene otvorenim adresiranjem
+	 */
+	private int[] colorKeys;
+
+	/**
+	 * Članska varijabla koja predstavlja zapamćene boje, na istim mjestima
+	 * kao i njihove RGB vrijednosti u {@link #colorKeys}
+	 */
+	private Color[] colors;
+
+	/** Članska varijabla koja predstavlja broj zapamćenih boja */
+	private int colorCount;
+
+	/**
+	 * Članska varijabla koja predstavlja primjerak razreda {@link Graphics2D}
+	 * u koji se iscrtava
+	 */
+	private Graphics2D g2;
+
+	/** Članska varijabla koja predstavlja boju primjerka {@link #g2} prije iscrtavanja */
+	private Color savedColor;
+
+	/**
+	 * Članska varijabla koja predstavlja trenutno postavljenu boju ili -1
+	 * ukoliko boja nije postavljena
+	 */
+	private int currentRgb;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to
+	 * iscrtavaju li se potezi trenutnog iscrtavanja strogo redom
+	 */
+	private boolean ordered;
+
+	/** Članska varijabla koja predstavlja ključeve (vrstu i boju) poteza prozora */
+	private int[] keys;
+
+	/** Članska varijabla koja predstavlja koordinate poteza prozora, po četiri */
+	private int[] coordinates;
+
+	/** Članska varijabla koja predstavlja broj poteza u prozoru */
+	private int size;
+
+	/**
+	 * Članska varijabla koja predstavlja vrijednosti po kojima se potezi
+	 * prozora sortiraju (ključ i redni broj)
+	 */
+	private long[] order;
+
+	/** Članska varijabla koja predstavlja ključeve poteza po ćelijama */
+	private int[] cellKeys;
+
+	/**
+	 * Članska varijabla koja predstavlja oznake prozora po ćelijama. Ključ
+	 * ćelije vrijedi samo ukoliko je njena oznaka jednaka {@link #window}
+	 */
+	private int[] cellWindows;
+
+	/** Članska varijabla koja predstavlja oznaku trenutnog prozora */
+	private int window;
+
+	/** Članska varijabla koja predstavlja površinu koja se iscrtava */
+	private Rectangle area;
+
+	/** Članska varijabla koja predstavlja stranicu ćelije */
+	private int cellSize;
+
+	/** Članska varijabla koja predstavlja broj stupaca ćelija */
+	private int columns;
+
+	/** Članska varijabla koja predstavlja broj redaka ćelija */
+	private int rows;
+
+	/**
+	 * Članska varijabla koja predstavlja proširenje površine poteza kojim se
+	 * obuhvaća debljina linije
+	 */
+	private int margin;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Potezi se
+	 * pretpostavljeno iscrtavaju strogo redom.
+	 */
+	public BatchedPainter() {
+		exactOrder = true;
+		colorKeys = new int[INITIAL_COLORS];
+		colors = new Color[INITIAL_COLORS];
+		cellKeys = new int[0];
+		cellWindows = new int[0];
+	}
+
+	/**
+	 * Metoda koja ukazuje na to iscrtavaju li se potezi strogo redom
+	 *
+	 * @return <code>true</code> ukoliko se potezi iscrtavaju strogo redom,
+	 *         <code>false</code> ukoliko se skupljaju po vrsti i boji
+	 */
+	public boolean isExactOrder() {
+		return exactOrder;
+	}
+
+	/**
+	 * Metoda koja postavlja iscrtavaju li se potezi strogo redom
+	 *
+	 * @param exactOrder
+	 *            <code>true</code> ukoliko se potezi iscrtavaju strogo redom,
+	 *            <code>false</code> ukoliko se skupljaju po vrsti i boji
+	 */
+	public void setExactOrder(boolean exactOrder) {
+		this.exactOrder = exactOrder;
+	}
+
+	/**
+	 * Metoda koja iscrtava objekte <b>objects</b>, redom, u primjerak razreda
+	 * {@link Graphics2D} <b>g2</b>
+	 *
+	 * @param g2
+	 *            primjerak razreda {@link Graphics2D} u koji se iscrtava
+	 * @param area
+	 *            površina (u koordinatama objekata) izvan koje se ništa ne
+	 *            iscrtava, odnosno područje odsijecanja
+	 * @param objects
+	 *            objekti koji se iscrtavaju
+	 */
+	public void paint(Graphics2D g2, Rectangle area, List<GeometricalObject> objects) {
+		begin(g2, area);
+		for (GeometricalObject object : objects) {
+			object.accept(this);
+		}
+		end();
+	}
+
+	/**
+	 * Metoda koja započinje iscrtavanje u primjerak razreda {@link Graphics2D}
+	 * <b>g2</b>. Objekti se potom predaju metodom
+	 * {@link GeometricalObject#accept(GeometricalObjectVisitor)}, a
+	 * iscrtavanje se završava metodom {@link #end()}.
+	 *
+	 * @param g2
+	 *            primjerak razreda {@link Graphics2D} u koji se iscrtava
+	 * @param area
+	 *            površina (u koordinatama objekata) izvan koje se ništa ne
+	 *            iscrtava, odnosno područje odsijecanja
+	 */
+	public void begin(Graphics2D g2, Rectangle area) {
+		this.g2 = g2;
+		this.area = area;
+		this.savedColor = g2.getColor();
+		this.currentRgb = -1;
+		this.size = 0;
+
+		ordered = exactOrder || area.width <= 0 || area.height <= 0;
+		if (ordered) {
+			return;
+		}
+
+		if (keys == null) {
+			keys = new int[INITIAL_CAPACITY];
+			coordinates = new int[4 * INITIAL_CAPACITY];
+			order = new long[INITIAL_CAPACITY];
+		}
+
+		AffineTransform transform = g2.getTransform();
+		int type = transform.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE);
+		if (type != 0) {
+			ordered = true;
+			return;
+		}
+
+		double scale = Math.abs(transform.getScaleX());
+		margin = (int) Math.ceil(1 / scale) + 1;
+		cellSize = Math.max(MIN_CELL_SIZE,
+				(int) Math.ceil(Math.sqrt((double) area.width * area.height / MAX_CELLS)));
+		columns = (area.width + cellSize - 1) / cellSize;
+		rows = (area.height + cellSize - 1) / cellSize;
+		if (cellKeys.length < columns * rows) {
+			cellKeys = new int[columns * rows];
+			cellWindows = new int[columns * rows];
+			window = 0;
+		}
+		nextWindow();
+	}
+
+	/**
+	 * Metoda koja završava iscrtavanje, odnosno iscrtava sve preostale poteze
+	 * te primjerku razreda {@link Graphics2D} vraća boju koju je imao prije
+	 * iscrtavanja
+	 */
+	public void end() {
+		flush();
+		g2.setColor(savedColor);
+
+		g2 = null;
+		savedColor = null;
+		area = null;
+	}
+
+	@Override
+	public void visitLine(int x0, int y0, int x1, int y1, int rgb) {
+		add(LINE, rgb, x0, y0, x1, y1, Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1));
+	}
+
+	@Override
+	public void visitCircle(int cx, int cy, int radius, int fgRgb) {
+		add(OVAL, fgRgb, cx - radius, cy - radius, 2 * radius, 2 * radius, cx - radius, cy - radius, cx + radius,
+				cy + radius);
+	}
+
+	@Override
+	public void visitFilledCircle(int cx, int cy, int radius, int fgRgb, int bgRgb) {
+		add(FILLED_OVAL, bgRgb, cx - radius, cy - radius, 2 * radius, 2 * radius, cx - radius, cy - radius,
+				cx + radius, cy + radius);
+		visitCircle(cx, cy, radius, fgRgb);
+	}
+
+	/**
+	 * Pomoćna metoda koja dodaje potez u prozor ili ga, ovisno o načinu
+	 * iscrtavanja i preklapanju, odmah iscrtava
+	 *
+	 * @param kind
+	 *            vrsta poteza
+	 * @param rgb
+	 *            boja poteza
+	 * @param a
+	 *            prva koordinata poteza
+	 * @param b
+	 *            druga koordinata poteza
+	 * @param c
+	 *            treća koordinata poteza
+	 * @param d
+	 *            četvrta koordinata poteza
+	 * @param minX
+	 *            najmanja x koordinata koju potez zahvaća
+	 * @param minY
+	 *            najmanja y koordinata koju potez zahvaća
+	 * @param maxX
+	 *            najveća x koordinata koju potez zahvaća
+	 * @param maxY
+	 *            najveća y koordinata koju potez zahvaća
+	 */
+	private void add(int kind, int rgb, int a, int b, int c, int d, int minX, int minY, int maxX, int maxY) {
+		int key = (kind << 24) | (rgb & 0xFFFFFF);
+		if (ordered) {
+			draw(key, a, b, c, d);
+			return;
+		}
+
+		int column0 = cell(minX - margin - area.x, columns);
+		int row0 = cell(minY - margin - area.y, rows);
+		int column1 = cell(maxX + margin - area.x, columns);
+		int row1 = cell(maxY + margin - area.y, rows);
+		if ((column1 - column0 + 1) * (row1 - row0 + 1) > MAX_BATCHED_CELLS) {
+			flush();
+			draw(key, a, b, c, d);
+			return;
+		}
+
+		if (conflicts(key, column0, row0, column1, row1)) {
+			flush();
+		}
+		for (int row = row0; row <= row1; row++) {
+			for (int i = row * columns + column0, last = row * columns + column1; i <= last; i++) {
+				cellKeys[i] = key;
+				cellWindows[i] = window;
+			}
+		}
+
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, 2 * size);
+			coordinates = Arrays.copyOf(coordinates, 8 * size);
+			order = new long[2 * size];
+		}
+		keys[size] = key;
+		coordinates[4 * size] = a;
+		coordinates[4 * size + 1] = b;
+		coordinates[4 * size + 2] = c;
+		coordinates[4 * size + 3] = d;
+		size++;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava zahvaća li neku od ćelija iz predanog
+	 * raspona potez druge vrste ili boje unutar trenutnog prozora
+	 *
+	 * @param key
+	 *            ključ poteza
+	 * @param column0
+	 *            prvi stupac raspona
+	 * @param row0
+	 *            prvi redak raspona
+	 * @param column1
+	 *            posljednji stupac raspona
+	 * @param row1
+	 *            posljednji redak raspona
+	 * @return <code>true</code> ukoliko postoji takva ćelija,
+	 *         <code>false</code> inače
+	 */
+	private boolean conflicts(int key, int column0, int row0, int column1, int row1) {
+		for (int row = row0; row <= row1; row++) {
+			for (int i = row * columns + column0, last = row * columns + column1; i <= last; i++) {
+				if (cellWindows[i] == window && cellKeys[i] != key) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Pomoćna metoda koja iscrtava sve poteze prozora, sortirane po ključu, te
+	 * započinje novi prozor
+	 */
+	private void flush() {
+		if (size == 0) {
+			return;
+		}
+
+		for (int i = 0; i < size; i++) {
+			order[i] = ((long) keys[i] << 32) | i;
+		}
+		Arrays.sort(order, 0, size);
+
+		for (int i = 0; i < size; i++) {
+			int index = (int) order[i];
+			int c = 4 * index;
+			draw(keys[index], coordinates[c], coordinates[c + 1], coordinates[c + 2], coordinates[c + 3]);
+		}
+
+		size = 0;
+		nextWindow();
+	}
+
+	/**
+	 * Pomoćna metoda koja započinje novi prozor, odnosno poništava ključeve
+	 * svih ćelija
+	 */
+	private void nextWindow() {
+		if (++window == 0) {
+			Arrays.fill(cellWindows, 0);
+			window = 1;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iscrtava jedan potez, pri čemu boju postavlja samo
+	 * ukoliko se razlikuje od trenutno postavljene
+	 *
+	 * @param key
+	 *            ključ poteza
+	 * @param a
+	 *            prva koordinata poteza
+	 * @param b
+	 *            druga koordinata poteza
+	 * @param c
+	 *            treća koordinata poteza
+	 * @param d
+	 *            četvrta koordinata poteza
+	 */
+	private void draw(int key, int a, int b, int c, int d) {
+		int rgb = key & 0xFFFFFF;
+		if (rgb != currentRgb) {
+			g2.setColor(color(rgb));
+			currentRgb = rgb;
+		}
+
+		switch (key >>> 24) {
+		case LINE:
+			g2.drawLine(a, b, c, d);
+			break;
+		case OVAL:
+			g2.drawOval(a, b, c, d);
+			break;
+		default:
+			g2.fillOval(a, b, c, d);
+			break;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća zapamćeni primjerak razreda {@link Color}
+	 * RGB vrijednosti <b>rgb</b>, odnosno stvara ga i pamti ukoliko ne postoji
+	 *
+	 * @param rgb
+	 *            RGB vrijednost boje (bez alfa komponente)
+	 * @return primjerak razreda {@link Color} tražene RGB vrijednosti
+	 */
+	private Color color(int rgb) {
+		int mask = colors.length - 1;
+		int slot = slot(rgb, mask);
+		while (colors[slot] != null) {
+			if (colorKeys[slot] == rgb) {
+				return colors[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (colorCount == MAX_COLORS) {
+			Arrays.fill(colors, null);
+			colorCount = 0;
+		} else if (2 * (colorCount + 1) > colors.length) {
+			rehash(2 * colors.length);
+		}
+
+		Color color = new Color(rgb);
+		put(rgb, color);
+		return color;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa početno mjesto boje RGB vrijednosti
+	 * <b>rgb</b> u tablici boja maske <b>mask</b>, iz gornjih bitova
+	 * Fibonaccijevog raspršenja
+	 *
+	 * @param rgb
+	 *            RGB vrijednost boje
+	 * @param mask
+	 *            kapacitet tablice umanjen za 1
+	 * @return početno mjesto boje u tablici
+	 */
+	private static int slot(int rgb, int mask) {
+		return (rgb * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+	}
+
+	/**
+	 * Pomoćna metoda koja tablicu boja povećava na kapacitet
+	 * <b>capacity</b>
+	 *
+	 * @param capacity
+	 *            novi kapacitet tablice (potencija broja 2)
+	 */
+	private void rehash(int capacity) {
+		int[] oldKeys = colorKeys;
+		Color[] oldColors = colors;
+		colorKeys = new int[capacity];
+		colors = new Color[capacity];
+		colorCount = 0;
+
+		for (int i = 0; i < oldColors.length; i++) {
+			if (oldColors[i] != null) {
+				put(oldKeys[i], oldColors[i]);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja boju <b>color</b> RGB vrijednosti <b>rgb</b>
+	 * zapisuje u tablicu boja, koja ima barem jedno slobodno mjesto
+	 *
+	 * @param rgb
+	 *            RGB vrijednost boje
+	 * @param color
+	 *            boja koja se zapisuje
+	 */
+	private void put(int rgb, Color color) {
+		int mask = colors.length - 1;
+		int slot = slot(rgb, mask);
+		while (colors[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+
+		colorKeys[slot] = rgb;
+		colors[slot] = color;
+		colorCount++;
+	}
+
+	/**
+	 * Pomoćna metoda koja koordinatu <b>offset</b> (u odnosu na početak
+	 * površine) pretvara u indeks ćelije, ograničen na [0, <b>count</b> - 1]
+	 *
+	 * @param offset
+	 *            koordinata u odnosu na početak površine
+	 * @param count
+	 *            broj ćelija
+	 * @return indeks ćelije
+	 */
+	private int cell(int offset, int count) {
+		return Math.max(0, Math.min(count - 1, Math.floorDiv(offset, cellSize)));
+	}
+}
@@ -0,0 +1,230 @@
+package hr.fer.zemris.java.hw16.jvdraw.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.model.DrawingModel;
+
+/**
+ * Razred koji se koristi za iscrtavanje sadržaja primjerka razreda koji
+ * implementira sučelje {@link DrawingModel} u sliku modeliranu razredom
+ * {@link BufferedImage}. Tražena površina dijeli se na pločice veličine
+ * najviše {@link #getTileSize()} x {@link #getTileSize()} piksela. Za svaku
+ * pločicu najprije se (u pozivajućoj dretvi) dohvaćaju objekti koji ju sijeku
+ * i kopiraju u zasebnu listu, a potom se pločice paralelno iscrtavaju
+ * koristeći {@link ForkJoinPool} te se na kraju slažu u konačnu sliku.
+ * Kopiranjem se svi objekti dohvaćaju u pozivajućoj dretvi, pa se mogu
+ * iscrtavati i modeli čije liste objekte stvaraju tek pri dohvatu i nisu
+ * sigurne za korištenje iz više dretvi (primjerice
+ * {@link hr.fer.zemris.java.hw16.jvdraw.model.MappedDrawingModel}). Objekti se iscrtavaju razredom
+ * {@link BatchedPainter}.
+ * <p>
+ * Iscrtavanje ne ovisi o nikakvoj grafičkoj komponenti, pa se primjerci ovog
+ * razreda mogu koristiti i bez grafičkog korisničkog sučelja.
+ * </p>
+ *
+ * @see DrawingModel
+ *
+ * @author Davor Češljaš
+ */
+public class TiledImageRenderer {
+
+	/** Konstanta koja predstavlja pretpostavljenu veličinu pločice */
+	public static final int DEFAULT_TILE_SIZE = 512;
+
+	/** Članska varijabla koja predstavlja veličinu stranice pločice */
+	private int tileSize;
+
+	/**
+	 * Članska varijabla koja predstavlja primjerak razreda {@link ForkJoinPool}
+	 * unutar kojeg se pločice iscrtavaju
+	 */
+	private ForkJoinPool pool;
+
+	/** Članska varijabla koja predstavlja boju pozadine slike */
+	private Color background;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda s pretpostavljenom
+	 * veličinom pločice ({@value #DEFAULT_TILE_SIZE}), zajedničkim
+	 * {@link ForkJoinPool}om i bijelom pozadinom
+	 */
+	public TiledImageRenderer() {
+		this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool(), Color.WHITE);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+	 * konstruktora interno se pohranjuju svi predani parametri
+	 *
+	 * @param tileSize
+	 *            veličina stranice pločice u pikselima
+	 * @param pool
+	 *            primjerak razreda {@link ForkJoinPool} unutar kojeg se
+	 *            pločice iscrtavaju
+	 * @param background
+	 *            boja pozadine slike
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina pločice nije pozitivna
+	 */
+	public TiledImageRenderer(int tileSize, ForkJoinPool pool, Color background) {
+		if (tileSize <= 0) {
+			throw new IllegalArgumentException("Tile size must be positive! Was: " + tileSize);
+		}
+
+		this.tileSize = tileSize;
+		this.pool = pool;
+		this.background = background;
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu stranice pločice u pikselima
+	 *
+	 * @return veličina stranice pločice u pikselima
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Metoda koja iscrtava površinu <b>area</b> (u koordinatama modela)
+	 * predanog modela <b>model</b> u novu sliku tipa <b>imageType</b>. Točka
+	 * (<code>area.x</code>, <code>area.y</code>) postaje ishodište slike.
+	 *
+	 * @param model
+	 *            primjerak razreda koji implementira sučelje
+	 *            {@link DrawingModel} čiji se sadržaj iscrtava
+	 * @param area
+	 *            površina modela koja se iscrtava
+	 * @param imageType
+	 *            tip slike (vidi {@link BufferedImage#getType()})
+	 * @return nova slika koja sadrži iscrtanu površinu modela
+	 */
+	public BufferedImage render(DrawingModel model, Rectangle area, int imageType) {
+		BufferedImage image = new BufferedImage(area.width, area.height, imageType);
+
+		List<TileTask> tasks = new ArrayList<>();
+		for (int y = 0; y < area.height; y += tileSize) {
+			for (int x = 0; x < area.width; x += tileSize) {
+				Rectangle tile = new Rectangle(area.x + x, area.y + y, Math.min(tileSize, area.width - x),
+						Math.min(tileSize, area.height - y));
+				tasks.add(new TileTask(image, area, tile, new ArrayList<>(model.objectsIntersecting(tile))));
+			}
+		}
+
+		pool.invoke(new RecursiveAction() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+
+		return image;
+	}
+
+	/**
+	 * Metoda koja računa površinu slike koja prikazuje objekte
+	 * <b>objects</b>, odnosno minimalnu površinu koja u cijelosti zahvaća
+	 * površine svih objekata, uključujući i rubne piksele
+	 *
+	 * @param objects
+	 *            objekti koji se prikazuju na slici
+	 * @return površina slike, odnosno površina veličine jednog piksela u
+	 *         ishodištu ukoliko objekata nema
+	 */
+	public static Rectangle imageArea(Collection<? extends GeometricalObject> objects) {
+		if (objects.isEmpty()) {
+			return new Rectangle(0, 0, 1, 1);
+		}
+
+		int xMin = Integer.MAX_VALUE;
+		int yMin = Integer.MAX_VALUE;
+		int xMax = Integer.MIN_VALUE;
+		int yMax = Integer.MIN_VALUE;
+
+		Rectangle rect = new Rectangle();
+		for (GeometricalObject object : objects) {
+			object.boundsInto(rect);
+			xMin = Math.min(xMin, rect.x);
+			yMin = Math.min(yMin, rect.y);
+			xMax = Math.max(xMax, rect.x + rect.width);
+			yMax = Math.max(yMax, rect.y + rect.height);
+		}
+
+		return new Rectangle(xMin, yMin, xMax - xMin + 1, yMax - yMin + 1);
+	}
+
+	/**
+	 * Pomoćni razred koji nasljeđuje {@link RecursiveAction}. Primjerci ovog
+	 * razreda iscrtavaju jednu pločicu u zasebnu sliku te ju potom kopiraju na
+	 * odgovarajuće mjesto konačne slike.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class TileTask extends RecursiveAction {
+
+		/**
+		 * Konstanta koja se koristi prilikom serijalizacije objekata ovog
+		 * razreda
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja konačnu sliku */
+		private BufferedImage image;
+
+		/** Članska varijabla koja predstavlja površinu cijele slike */
+		private Rectangle area;
+
+		/** Članska varijabla koja predstavlja površinu ove pločice */
+		private Rectangle tile;
+
+		/** Članska varijabla koja predstavlja objekte koji sijeku pločicu */
+		private List<GeometricalObject> objects;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+		 * konstruktora interno se pohranjuju svi predani parametri
+		 *
+		 * @param image
+		 *            konačna slika
+		 * @param area
+		 *            površina cijele slike (u koordinatama modela)
+		 * @param tile
+		 *            površina ove pločice (u koordinatama modela)
+		 * @param objects
+		 *            objekti koji sijeku pločicu, u redoslijedu iscrtavanja
+		 */
+		public TileTask(BufferedImage image, Rectangle area, Rectangle tile, List<GeometricalObject> objects) {
+			this.image = image;
+			this.area = area;
+			this.tile = tile;
+			this.objects = objects;
+		}
+
+		@Override
+		protected void compute() {
+			BufferedImage tileImage = new BufferedImage(tile.width, tile.height, image.getType());
+
+			Graphics2D g2 = tileImage.createGraphics();
+			g2.setBackground(background);
+			g2.clearRect(0, 0, tile.width, tile.height);
+			g2.translate(-tile.x, -tile.y);
+
+			new BatchedPainter().paint(g2, tile, objects);
+			g2.dispose();
+
+			image.getRaster().setRect(tile.x - area.x, tile.y - area.y, tileImage.getRaster());
+		}
+	}
+}
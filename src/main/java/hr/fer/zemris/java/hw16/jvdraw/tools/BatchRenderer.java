@@ -0,0 +1,337 @@
+package hr.fer.zemris.java.hw16.jvdraw.tools;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryReader;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParseError;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParser;
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+import hr.fer.zemris.java.hw16.jvdraw.render.BatchedPainter;
+import hr.fer.zemris.java.hw16.jvdraw.render.TiledImageRenderer;
+
+/**
+ * Program koji bez grafičkog korisničkog sučelja (uz
+ * <code>java.awt.headless=true</code>) iscrtava .jvd i .jvdb datoteke u slike
+ * formata PNG, JPG ili GIF. Slika obuhvaća istu površinu kao i slika stvorena
+ * metodom {@link JVDrawingModel#exportAsImage(java.io.File, String)}, ali se
+ * crtež ne učitava u model, već se pročitani objekti izravno iscrtavaju
+ * jednim prolazom (razredom {@link BatchedPainter}), bez prostornog indeksa i
+ * bez ikakve grafičke komponente.
+ * <p>
+ * Ukoliko se programu preda direktorij, iscrtavaju se sve .jvd i .jvdb
+ * datoteke unutar njega, i to paralelno, po jedna datoteka u svakoj dretvi.
+ * Na kraju se ispisuje broj iscrtanih datoteka i objekata te propusnost.
+ * Argumenti su:
+ * </p>
+ *
+ * <pre>
+ * &lt;file|directory&gt;... [--format png|jpg|gif] [--out directory] [--threads N]
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+public class BatchRenderer {
+
+	/** Konstanta koja predstavlja pretpostavljeni format slike */
+	private static final String DEFAULT_FORMAT = "png";
+
+	/** Konstanta koja predstavlja podržane formate slike */
+	private static final String[] FORMATS = { "png", "jpg", "gif" };
+
+	/**
+	 * Konstanta koja predstavlja najveći broj piksela slike, određen najvećom
+	 * veličinom polja koje sadrži piksele slike tipa
+	 * {@link BufferedImage#TYPE_3BYTE_BGR}
+	 */
+	private static final long MAX_PIXELS = (Integer.MAX_VALUE - 8) / 3;
+
+	/** Članska varijabla koja predstavlja format stvorenih slika */
+	private String format;
+
+	/** Članska varijabla koja predstavlja boju pozadine slika */
+	private Color background;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param format
+	 *            format stvorenih slika (png, jpg ili gif)
+	 * @param background
+	 *            boja pozadine slika
+	 * @throws IllegalArgumentException
+	 *             ukoliko format nije podržan
+	 */
+	public BatchRenderer(String format, Color background) {
+		if (!isSupported(format)) {
+			throw new IllegalArgumentException("Unsupported image format: " + format);
+		}
+
+		this.format = format.toLowerCase();
+		this.background = background;
+	}
+
+	/**
+	 * Metoda koja iscrtava datoteku <b>input</b> (.jvd ili .jvdb) u sliku koja
+	 * se sprema u datoteku <b>output</b>. Ukoliko neki retci .jvd datoteke
+	 * nisu ispravni, slika ispravnih objekata se ipak sprema, ali se potom
+	 * baca iznimka s brojem neispravnih redaka, pa se datoteka smatra
+	 * neuspješno iscrtanom.
+	 *
+	 * @param input
+	 *            putanja do datoteke s crtežom
+	 * @param output
+	 *            putanja do datoteke u koju se sprema slika
+	 * @return broj iscrtanih objekata
+	 * @throws IOException
+	 *             ukoliko crtež nije moguće pročitati, ukoliko sadrži
+	 *             neispravne retke, ukoliko je slika prevelika ili ukoliko
+	 *             sliku nije moguće zapisati
+	 */
+	public int render(Path input, Path output) throws IOException {
+		JVDParser parser = new JVDParser();
+		List<GeometricalObject> objects = isBinary(input) ? new JVDBinaryReader().read(input)
+				: parser.parse(input);
+
+		Rectangle area = TiledImageRenderer.imageArea(objects);
+		if ((long) area.width * area.height > MAX_PIXELS) {
+			throw new IOException("Image too large: " + area.width + "x" + area.height);
+		}
+
+		BufferedImage image = new BufferedImage(area.width, area.height, BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D g2 = image.createGraphics();
+		g2.setBackground(background);
+		g2.clearRect(0, 0, area.width, area.height);
+		g2.translate(-area.x, -area.y);
+		new BatchedPainter().paint(g2, area, objects);
+		g2.dispose();
+
+		if (!ImageIO.write(image, format, output.toFile())) {
+			throw new IOException("No image writer for format: " + format);
+		}
+
+		List<JVDParseError> errors = parser.getErrors();
+		if (!errors.isEmpty()) {
+			throw new IOException(errors.size() + " malformed line(s), first: " + errors.get(0));
+		}
+		return objects.size();
+	}
+
+	/**
+	 * Metoda koja paralelno iscrtava sve datoteke <b>inputs</b> koristeći
+	 * <b>threads</b> dretvi. Slika svake datoteke sprema se u direktorij
+	 * <b>outputDirectory</b> (ili uz samu datoteku ukoliko je on
+	 * <code>null</code>), pod imenom datoteke kojem je dodana ekstenzija
+	 * formata slike (primjerice <code>foo.jvd.png</code>). Putanje svih slika
+	 * određuju se prije početka iscrtavanja, a datoteka čija bi slika
+	 * prebrisala sliku neke prethodne datoteke se ne iscrtava i smatra se
+	 * neuspjelom. Neuspjeh iscrtavanja jedne datoteke ispisuje se na
+	 * standardni izlaz za pogreške i ne prekida iscrtavanje ostalih.
+	 *
+	 * @param inputs
+	 *            putanje do datoteka s crtežima
+	 * @param outputDirectory
+	 *            direktorij u koji se spremaju slike ili <code>null</code>
+	 * @param threads
+	 *            broj dretvi
+	 * @return polje od tri elementa: broj uspješno iscrtanih datoteka, broj
+	 *         neuspjelih datoteka te ukupan broj iscrtanih objekata
+	 * @throws InterruptedException
+	 *             ukoliko je dretva prekinuta tijekom čekanja
+	 */
+	public long[] renderAll(List<Path> inputs, Path outputDirectory, int threads) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Path> outputs = new ArrayList<>();
+			List<Path> owners = new ArrayList<>();
+			Map<Path, Path> claimed = new HashMap<>();
+			for (Path input : inputs) {
+				Path output = outputFor(input, outputDirectory);
+				outputs.add(output);
+				owners.add(claimed.putIfAbsent(output.toAbsolutePath().normalize(), input));
+			}
+
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < inputs.size(); i++) {
+				Path input = inputs.get(i);
+				Path output = outputs.get(i);
+				if (owners.get(i) == null) {
+					results.add(executor.submit(() -> render(input, output)));
+					continue;
+				}
+
+				CompletableFuture<Integer> duplicate = new CompletableFuture<>();
+				duplicate.completeExceptionally(
+						new IOException("Output " + output + " is already used by " + owners.get(i)));
+				results.add(duplicate);
+			}
+
+			long[] totals = new long[3];
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					totals[2] += results.get(i).get();
+					totals[0]++;
+				} catch (ExecutionException e) {
+					totals[1]++;
+					System.err.println(inputs.get(i) + ": " + e.getCause().getMessage());
+				}
+			}
+			return totals;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Metoda od koje započinje izvođenje programa. Program iscrtava sve
+	 * predane datoteke i datoteke unutar predanih direktorija te ispisuje
+	 * propusnost. Ukoliko neka datoteka nije iscrtana, program završava
+	 * statusom 1.
+	 *
+	 * @param args
+	 *            argumenti naredbenog retka
+	 * @throws IOException
+	 *             ukoliko direktorij nije moguće pročitati
+	 * @throws InterruptedException
+	 *             ukoliko je dretva prekinuta tijekom čekanja
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		System.setProperty("java.awt.headless", "true");
+		ImageIO.setUseCache(false);
+
+		String format = DEFAULT_FORMAT;
+		Path outputDirectory = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<Path> inputs = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--format":
+					format = args[++i];
+					break;
+				case "--out":
+					outputDirectory = Files.createDirectories(Paths.get(args[++i]));
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				default:
+					collectInputs(Paths.get(args[i]), inputs);
+					break;
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			inputs.clear();
+		}
+
+		if (inputs.isEmpty() || threads <= 0 || !isSupported(format)) {
+			System.err.println("Usage: BatchRenderer <file|directory>... [--format png|jpg|gif] [--out directory]"
+					+ " [--threads N]");
+			System.exit(1);
+		}
+
+		long start = System.nanoTime();
+		long[] totals = new BatchRenderer(format, Color.WHITE).renderAll(inputs, outputDirectory, threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("Rendered %,d files (%,d failed), %,d objects in %.2f s using %d threads%n", totals[0],
+				totals[1], totals[2], seconds, threads);
+		System.out.printf("Throughput: %.1f files/s, %,.0f objects/s%n", totals[0] / seconds, totals[2] / seconds);
+		if (totals[1] > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja putanju <b>path</b> dodaje u listu <b>inputs</b>,
+	 * odnosno ukoliko je riječ o direktoriju, dodaje sve .jvd i .jvdb datoteke
+	 * unutar njega
+	 *
+	 * @param path
+	 *            putanja do datoteke ili direktorija
+	 * @param inputs
+	 *            lista datoteka koje se iscrtavaju
+	 * @throws IOException
+	 *             ukoliko direktorij nije moguće pročitati
+	 */
+	private static void collectInputs(Path path, List<Path> inputs) throws IOException {
+		if (!Files.isDirectory(path)) {
+			inputs.add(path);
+			return;
+		}
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(path,
+				"*.{jvd," + JVDBinaryFormat.EXTENSION + "}")) {
+			for (Path file : stream) {
+				inputs.add(file);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje putanju do slike datoteke <b>input</b>.
+	 * Ekstenzija datoteke se zadržava, pa se slike datoteka
+	 * <code>foo.jvd</code> i <code>foo.jvdb</code> ne prebrisuju.
+	 *
+	 * @param input
+	 *            putanja do datoteke s crtežom
+	 * @param outputDirectory
+	 *            direktorij u koji se spremaju slike ili <code>null</code>
+	 * @return putanja do slike
+	 */
+	private Path outputFor(Path input, Path outputDirectory) {
+		String name = input.getFileName() + "." + format;
+
+		return outputDirectory == null ? input.resolveSibling(name) : outputDirectory.resolve(name);
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li datoteka <b>file</b> .jvdb datoteka
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return <code>true</code> ukoliko je riječ o .jvdb datoteci,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isBinary(Path file) {
+		return file.getFileName().toString().endsWith("." + JVDBinaryFormat.EXTENSION);
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li format <b>format</b> podržan
+	 *
+	 * @param format
+	 *            format slike
+	 * @return <code>true</code> ukoliko je format podržan, <code>false</code>
+	 *         inače
+	 */
+	private static boolean isSupported(String format) {
+		for (String supported : FORMATS) {
+			if (supported.equalsIgnoreCase(format)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,109 @@
+package hr.fer.zemris.java.hw16.jvdraw.tools;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+
+/**
+ * Program koji uspoređuje tekstualni (.jvd) i binarni (.jvdb) format crteža.
+ * Program kao jedini argument naredbenog retka prima putanju do .jvd
+ * datoteke, pretvara je u .jvdb datoteku (uz privremenu datoteku) te ispisuje
+ * veličine obiju datoteka i najkraće vrijeme učitavanja svake od njih u
+ * {@value #RUNS} ponavljanja (prije svakog mjerenja poziva se sakupljač
+ * smeća). Na kraju se provjerava da je pretvorba u oba
+ * smjera bez gubitaka.
+ *
+ * @author Davor Češljaš
+ */
+public class FormatComparison {
+
+	/** Konstanta koja predstavlja broj ponavljanja svakog učitavanja */
+	private static final int RUNS = 5;
+
+	/**
+	 * Metoda od koje započinje izvođenje programa
+	 *
+	 * @param args
+	 *            argumenti naredbenog retka. Očekuje se putanja do .jvd
+	 *            datoteke
+	 * @throws IOException
+	 *             ukoliko datoteke nije moguće čitati ili pisati
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Expected one argument: path to .jvd file");
+			System.exit(1);
+		}
+
+		Path jvdFile = Paths.get(args[0]);
+		Path jvdbFile = Files.createTempFile("jvdraw", ".jvdb");
+		Path roundTripFile = Files.createTempFile("jvdraw", ".jvd");
+
+		try {
+			JVDrawingModel model = new JVDrawingModel();
+			model.loadFromJVD(jvdFile, false);
+			write(model, jvdbFile, true);
+			System.out.printf("Objects:        %d%n", model.getSize());
+			System.out.printf("JVD size:       %,d B%n", Files.size(jvdFile));
+			System.out.printf("JVDB size:      %,d B%n", Files.size(jvdbFile));
+
+			long textTime = Long.MAX_VALUE;
+			long binaryTime = Long.MAX_VALUE;
+			for (int i = 0; i < RUNS; i++) {
+				System.gc();
+				long start = System.nanoTime();
+				new JVDrawingModel().loadFromJVD(jvdFile, false);
+				textTime = Math.min(textTime, System.nanoTime() - start);
+
+				System.gc();
+				start = System.nanoTime();
+				new JVDrawingModel().loadFromBinary(jvdbFile);
+				binaryTime = Math.min(binaryTime, System.nanoTime() - start);
+			}
+			System.out.printf("JVD load time:  %d ms%n", textTime / 1_000_000);
+			System.out.printf("JVDB load time: %d ms%n", binaryTime / 1_000_000);
+
+			JVDrawingModel binaryModel = new JVDrawingModel();
+			binaryModel.loadFromBinary(jvdbFile);
+			write(binaryModel, roundTripFile, false);
+			boolean lossless = Arrays.equals(Files.readAllBytes(roundTripFile),
+					model.toString().getBytes(StandardCharsets.UTF_8));
+			System.out.println("Lossless:       " + lossless);
+		} finally {
+			Files.deleteIfExists(jvdbFile);
+			Files.deleteIfExists(roundTripFile);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sadržaj modela <b>model</b> zapisuje u datoteku
+	 * <b>file</b>
+	 *
+	 * @param model
+	 *            model čiji se sadržaj zapisuje
+	 * @param file
+	 *            datoteka u koju se zapisuje
+	 * @param binary
+	 *            <code>true</code> ukoliko se zapisuje u binarnom formatu,
+	 *            <code>false</code> inače
+	 * @throws IOException
+	 *             ukoliko u datoteku nije moguće pisati
+	 */
+	private static void write(JVDrawingModel model, Path file, boolean binary) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			if (binary) {
+				model.writeBinary(channel);
+			} else {
+				model.writeJVD(channel);
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package hr.fer.zemris.java.hw16.jvdraw.tools;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryReader;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryWriter;
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+import hr.fer.zemris.java.hw16.jvdraw.model.PrimitiveDrawingModel;
+
+/**
+ * Program koji mjeri koliko memorije na gomili zauzima jedan objekt crteža
+ * ovisno o načinu pohrane. Program stvara .jvdb datoteku sa zadanim brojem
+ * nasumičnih objekata (prvi argument naredbenog retka, pretpostavljeno
+ * {@value #DEFAULT_COUNT}) te je učitava u:
+ * <ul>
+ * <li>{@link List} primjeraka sučelja {@link GeometricalObject}</li>
+ * <li>{@link JVDrawingModel} (lista i prostorni indeks)</li>
+ * <li>{@link PrimitiveDrawingModel}</li>
+ * </ul>
+ * Za svaki način ispisuje se razlika zauzete memorije prije i poslije
+ * učitavanja, podijeljena s brojem objekata. Mjerenje je približno jer se
+ * oslanja na sakupljač smeća.
+ *
+ * @author Davor Češljaš
+ */
+public class HeapFootprint {
+
+	/** Konstanta koja predstavlja pretpostavljeni broj objekata */
+	private static final int DEFAULT_COUNT = 1_000_000;
+
+	/**
+	 * Metoda od koje započinje izvođenje programa
+	 *
+	 * @param args
+	 *            argumenti naredbenog retka. Opcionalno se predaje broj
+	 *            objekata
+	 * @throws IOException
+	 *             ukoliko privremenu datoteku nije moguće stvoriti ili čitati
+	 */
+	public static void main(String[] args) throws IOException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+
+		Path file = Files.createTempFile("jvdraw", ".jvdb");
+		try {
+			generate(file, count);
+
+			long before = usedMemory();
+			List<GeometricalObject> objects = new JVDBinaryReader().read(file);
+			report("ArrayList<GeometricalObject>", before, objects.size());
+			objects = null;
+
+			before = usedMemory();
+			JVDrawingModel model = new JVDrawingModel();
+			model.loadFromBinary(file);
+			report("JVDrawingModel", before, model.getSize());
+			model = null;
+
+			before = usedMemory();
+			PrimitiveDrawingModel primitiveModel = new PrimitiveDrawingModel();
+			primitiveModel.loadFromBinary(file);
+			primitiveModel.trimToSize();
+			report("PrimitiveDrawingModel", before, primitiveModel.getSize());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja ispisuje zauzeće memorije po objektu
+	 *
+	 * @param name
+	 *            naziv načina pohrane
+	 * @param before
+	 *            zauzeta memorija prije učitavanja
+	 * @param count
+	 *            broj učitanih objekata (ujedno drži pohranu dohvatljivom do
+	 *            trenutka mjerenja)
+	 */
+	private static void report(String name, long before, int count) {
+		long used = usedMemory() - before;
+		System.out.printf("%-30s %,12d B total, %6.1f B per object%n", name, used, (double) used / count);
+	}
+
+	/**
+	 * Pomoćna metoda koja nakon nekoliko poziva sakupljača smeća dohvaća
+	 * zauzetu memoriju gomile
+	 *
+	 * @return zauzeta memorija u oktetima
+	 */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Pomoćna metoda koja u datoteku <b>file</b> zapisuje <b>count</b>
+	 * nasumičnih objekata, podjednako linija, krugova i ispunjenih krugova
+	 *
+	 * @param file
+	 *            datoteka u koju se zapisuje
+	 * @param count
+	 *            broj objekata
+	 * @throws IOException
+	 *             ukoliko u datoteku nije moguće pisati
+	 */
+	private static void generate(Path file, int count) throws IOException {
+		Random random = new Random(42);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			JVDBinaryWriter writer = new JVDBinaryWriter(channel);
+			for (int i = 0; i < count; i++) {
+				int x = random.nextInt(2000);
+				int y = random.nextInt(2000);
+				int rgb = random.nextInt(0x1000000);
+				switch (i % 3) {
+				case 0:
+					writer.visitLine(x, y, x + random.nextInt(100), y + random.nextInt(100), rgb);
+					break;
+				case 1:
+					writer.visitCircle(x, y, random.nextInt(50), rgb);
+					break;
+				default:
+					writer.visitFilledCircle(x, y, random.nextInt(50), rgb, random.nextInt(0x1000000));
+					break;
+				}
+			}
+			writer.finish();
+		}
+	}
+}
@@ -0,0 +1,525 @@
+package hr.fer.zemris.java.hw16.jvdraw.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObjectVisitor;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryFormat;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryWriter;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDWriter;
+
+/**
+ * Razred koji predstavlja generator nasumičnih crteža za mjerenja i
+ * ispitivanja opterećenja. Generator uz isto sjeme uvijek stvara isti crtež.
+ * Podesivi su broj objekata, omjer linija, kružnica i ispunjenih kružnica
+ * (metoda {@link #setMix(int, int, int)}), prostorna razdioba (konstante
+ * {@link #UNIFORM}, {@link #CLUSTERED} i {@link #OVERLAPPING}), veličina
+ * površine, najveća veličina objekta te broj korištenih boja.
+ * <p>
+ * Objekti se ne stvaraju, već se njihovi podaci izravno predaju posjetitelju
+ * (vidi {@link GeometricalObjectVisitor}), primjerice pisaču {@link JVDWriter},
+ * pa se i datoteke od više gigabajta zapisuju u stalnoj memoriji.
+ * </p>
+ * <p>
+ * Razred se može pokrenuti i iz naredbenog retka (vidi {@link #main(String[])}).
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class JVDGenerator {
+
+	/**
+	 * Konstanta koja predstavlja jednoliku razdiobu objekata po cijeloj
+	 * površini
+	 */
+	public static final int UNIFORM = 0;
+
+	/**
+	 * Konstanta koja predstavlja razdiobu u kojoj su objekti normalno
+	 * raspoređeni oko nasumično odabranih središta nakupina
+	 */
+	public static final int CLUSTERED = 1;
+
+	/**
+	 * Konstanta koja predstavlja razdiobu u kojoj su svi objekti, uvećani,
+	 * smješteni u malo područje u sredini površine pa se većinom preklapaju
+	 */
+	public static final int OVERLAPPING = 2;
+
+	/** Konstanta koja predstavlja nazive razdioba, redom konstanti */
+	private static final String[] DISTRIBUTIONS = { "uniform", "clustered", "overlapping" };
+
+	/**
+	 * Konstanta koja predstavlja faktor uvećanja objekata pri razdiobi
+	 * {@link #OVERLAPPING}
+	 */
+	private static final int OVERLAP_SCALE = 4;
+
+	/** Konstanta koja predstavlja broj objekata nakon kojeg se ispisuje napredak */
+	private static final long PROGRESS_STEP = 10_000_000;
+
+	/** Članska varijabla koja predstavlja generator nasumičnih brojeva */
+	private Random random;
+
+	/** Članska varijabla koja predstavlja širinu površine */
+	private int width;
+
+	/** Članska varijabla koja predstavlja visinu površine */
+	private int height;
+
+	/** Članska varijabla koja predstavlja razdiobu objekata */
+	private int distribution;
+
+	/** Članska varijabla koja predstavlja udio linija */
+	private int lines;
+
+	/** Članska varijabla koja predstavlja udio kružnica */
+	private int circles;
+
+	/** Članska varijabla koja predstavlja udio ispunjenih kružnica */
+	private int filledCircles;
+
+	/**
+	 * Članska varijabla koja predstavlja najveću duljinu linije po osi i
+	 * najveći polumjer kružnice
+	 */
+	private int maxExtent;
+
+	/** Članska varijabla koja predstavlja broj nakupina */
+	private int clusters;
+
+	/**
+	 * Članska varijabla koja predstavlja središta nakupina, kao polje parova
+	 * koordinata, ili <code>null</code> ukoliko još nisu stvorena. Središta se
+	 * stvaraju jednom te se koriste u svim pozivima metode
+	 * {@link #generate(long, GeometricalObjectVisitor)}
+	 */
+	private int[] centers;
+
+	/**
+	 * Članska varijabla koja predstavlja paletu boja ili <code>null</code>
+	 * ukoliko se koriste nasumične boje
+	 */
+	private int[] palette;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Pretpostavljeno
+	 * se stvaraju jednoliko raspoređeni objekti, jednako često svake vrste, na
+	 * površini 4096x4096, uz najveću veličinu objekta 32 i 16 nakupina.
+	 *
+	 * @param seed
+	 *            sjeme generatora nasumičnih brojeva
+	 */
+	public JVDGenerator(long seed) {
+		this.random = new Random(seed);
+		this.width = 4096;
+		this.height = 4096;
+		this.distribution = UNIFORM;
+		this.lines = 1;
+		this.circles = 1;
+		this.filledCircles = 1;
+		this.maxExtent = 32;
+		this.clusters = 16;
+	}
+
+	/**
+	 * Metoda koja postavlja veličinu površine po kojoj se raspoređuju središta
+	 * objekata
+	 *
+	 * @param width
+	 *            širina površine
+	 * @param height
+	 *            visina površine
+	 * @throws IllegalArgumentException
+	 *             ukoliko dimenzije nisu pozitivne
+	 */
+	public void setSize(int width, int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Size must be positive, was: " + width + "x" + height);
+		}
+		this.width = width;
+		this.height = height;
+		this.centers = null;
+	}
+
+	/**
+	 * Metoda koja postavlja razdiobu objekata
+	 *
+	 * @param distribution
+	 *            jedna od konstanti {@link #UNIFORM}, {@link #CLUSTERED} ili
+	 *            {@link #OVERLAPPING}
+	 * @throws IllegalArgumentException
+	 *             ukoliko razdioba nije poznata
+	 */
+	public void setDistribution(int distribution) {
+		if (distribution < UNIFORM || distribution > OVERLAPPING) {
+			throw new IllegalArgumentException("Unknown distribution: " + distribution);
+		}
+		this.distribution = distribution;
+	}
+
+	/**
+	 * Metoda koja postavlja relativne udjele pojedinih vrsta objekata.
+	 * Primjerice udjeli 2, 1, 1 stvaraju dvostruko više linija od kružnica.
+	 *
+	 * @param lines
+	 *            udio linija
+	 * @param circles
+	 *            udio kružnica
+	 * @param filledCircles
+	 *            udio ispunjenih kružnica
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki udio negativan ili su svi udjeli 0
+	 */
+	public void setMix(int lines, int circles, int filledCircles) {
+		if (lines < 0 || circles < 0 || filledCircles < 0 || lines + circles + filledCircles == 0) {
+			throw new IllegalArgumentException("Invalid mix: " + lines + ":" + circles + ":" + filledCircles);
+		}
+		this.lines = lines;
+		this.circles = circles;
+		this.filledCircles = filledCircles;
+	}
+
+	/**
+	 * Metoda koja postavlja najveću duljinu linije po osi i najveći polumjer
+	 * kružnice
+	 *
+	 * @param maxExtent
+	 *            najveća veličina objekta
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina nije pozitivna
+	 */
+	public void setMaxExtent(int maxExtent) {
+		if (maxExtent <= 0) {
+			throw new IllegalArgumentException("Max extent must be positive, was: " + maxExtent);
+		}
+		this.maxExtent = maxExtent;
+	}
+
+	/**
+	 * Metoda koja postavlja broj nakupina za razdiobu {@link #CLUSTERED}
+	 *
+	 * @param clusters
+	 *            broj nakupina
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj nakupina nije pozitivan
+	 */
+	public void setClusters(int clusters) {
+		if (clusters <= 0) {
+			throw new IllegalArgumentException("Cluster count must be positive, was: " + clusters);
+		}
+		this.clusters = clusters;
+		this.centers = null;
+	}
+
+	/**
+	 * Metoda koja postavlja broj različitih boja koje se koriste. Boje palete
+	 * odabiru se nasumično.
+	 *
+	 * @param colors
+	 *            broj boja ili 0 ukoliko se za svaki objekt odabire nasumična
+	 *            boja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je broj boja negativan
+	 */
+	public void setColors(int colors) {
+		if (colors < 0) {
+			throw new IllegalArgumentException("Color count must not be negative, was: " + colors);
+		}
+
+		if (colors == 0) {
+			palette = null;
+			return;
+		}
+		palette = new int[colors];
+		for (int i = 0; i < colors; i++) {
+			palette[i] = random.nextInt(0x1000000);
+		}
+	}
+
+	/**
+	 * Metoda koja stvara <b>count</b> objekata te podatke svakog od njih
+	 * predaje posjetitelju <b>visitor</b>. Uzastopni pozivi nastavljaju isti
+	 * niz objekata, uz ista središta nakupina.
+	 *
+	 * @param count
+	 *            broj objekata koji se stvaraju
+	 * @param visitor
+	 *            posjetitelj kojem se predaju podaci objekata
+	 */
+	public void generate(long count, GeometricalObjectVisitor visitor) {
+		if (distribution == CLUSTERED && centers == null) {
+			centers = clusterCenters();
+		}
+		int total = lines + circles + filledCircles;
+		int extent = distribution == OVERLAPPING ? OVERLAP_SCALE * maxExtent : maxExtent;
+
+		for (long i = 0; i < count; i++) {
+			int x;
+			int y;
+			switch (distribution) {
+			case CLUSTERED:
+				int cluster = 2 * random.nextInt(clusters);
+				double sigma = Math.min(width, height) / (4.0 * Math.sqrt(clusters));
+				x = clamp(centers[cluster] + (int) (random.nextGaussian() * sigma), width);
+				y = clamp(centers[cluster + 1] + (int) (random.nextGaussian() * sigma), height);
+				break;
+			case OVERLAPPING:
+				x = width / 2 + random.nextInt(width / 16 + 1) - width / 32;
+				y = height / 2 + random.nextInt(height / 16 + 1) - height / 32;
+				break;
+			default:
+				x = random.nextInt(width);
+				y = random.nextInt(height);
+				break;
+			}
+
+			int kind = random.nextInt(total);
+			if (kind < lines) {
+				visitor.visitLine(x, y, clamp(x + random.nextInt(2 * extent + 1) - extent, width),
+						clamp(y + random.nextInt(2 * extent + 1) - extent, height), nextColor());
+			} else if (kind < lines + circles) {
+				visitor.visitCircle(x, y, 1 + random.nextInt(extent), nextColor());
+			} else {
+				visitor.visitFilledCircle(x, y, 1 + random.nextInt(extent), nextColor(), nextColor());
+			}
+		}
+	}
+
+	/**
+	 * Metoda koja stvara <b>count</b> objekata te ih zapisuje u datoteku
+	 * <b>file</b>. Ukoliko datoteka ima ekstenziju .jvdb, zapisuje se u
+	 * binarnom formatu (vidi {@link JVDBinaryFormat}), a inače u .jvd formatu.
+	 *
+	 * @param count
+	 *            broj objekata koji se stvaraju
+	 * @param file
+	 *            putanja do datoteke koja se stvara ili prepisuje
+	 * @throws IOException
+	 *             ukoliko u datoteku nije moguće pisati
+	 * @throws IllegalArgumentException
+	 *             ukoliko je broj objekata negativan
+	 */
+	public void write(long count, Path file) throws IOException {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count must not be negative, was: " + count);
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			if (file.toString().endsWith("." + JVDBinaryFormat.EXTENSION)) {
+				JVDBinaryWriter writer = new JVDBinaryWriter(channel);
+				generateChecked(count, writer);
+				writer.finish();
+			} else {
+				JVDWriter writer = new JVDWriter(channel);
+				generateChecked(count, writer);
+				writer.flush();
+			}
+		}
+	}
+
+	/**
+	 * Metoda od koje započinje izvođenje programa. Program stvara datoteku
+	 * te ispisuje napredak i brzinu zapisivanja. Ukoliko argumenti nisu
+	 * ispravni ili datoteku nije moguće zapisati, program završava statusom
+	 * 1. Argumenti su:
+	 *
+	 * <pre>
+	 * &lt;output.jvd|output.jvdb&gt; &lt;count&gt; [--seed N] [--mix L:C:F]
+	 *     [--distribution uniform|clustered|overlapping] [--size WxH]
+	 *     [--max-extent N] [--clusters N] [--colors N]
+	 * </pre>
+	 *
+	 * @param args
+	 *            argumenti naredbenog retka
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2 || args.length % 2 != 0) {
+			usage();
+			return;
+		}
+
+		Path file = Paths.get(args[0]);
+		long count;
+		JVDGenerator generator;
+		try {
+			count = Long.parseLong(args[1]);
+			if (count < 0) {
+				throw new IllegalArgumentException("Count must not be negative, was: " + count);
+			}
+			generator = new JVDGenerator(seed(args));
+			for (int i = 2; i < args.length; i += 2) {
+				configure(generator, args[i], args[i + 1]);
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage();
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			generator.write(count, file);
+		} catch (IOException e) {
+			System.err.println("Unable to write " + file + ": " + e.getMessage());
+			System.exit(1);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long bytes = file.toFile().length();
+		System.out.printf("Wrote %,d objects (%,d bytes) to %s in %.2f s (%.1f MB/s)%n", count, bytes, file,
+				seconds, bytes / 1e6 / seconds);
+	}
+
+	/**
+	 * Pomoćna metoda koja poziva metodu {@link #generate(long, GeometricalObjectVisitor)}
+	 * te uz to ispisuje napredak, a iznimku {@link UncheckedIOException}
+	 * posjetitelja pretvara u iznimku {@link IOException}
+	 *
+	 * @param count
+	 *            broj objekata koji se stvaraju
+	 * @param visitor
+	 *            posjetitelj kojem se predaju podaci objekata
+	 * @throws IOException
+	 *             ukoliko posjetitelj ne može zapisati objekt
+	 */
+	private void generateChecked(long count, GeometricalObjectVisitor visitor) throws IOException {
+		try {
+			for (long done = 0; done < count; done += PROGRESS_STEP) {
+				generate(Math.min(PROGRESS_STEP, count - done), visitor);
+				if (count > PROGRESS_STEP) {
+					System.err.printf("%,d / %,d%n", Math.min(done + PROGRESS_STEP, count), count);
+				}
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara nasumična središta nakupina, kao polje
+	 * parova koordinata
+	 *
+	 * @return polje koordinata središta nakupina
+	 */
+	private int[] clusterCenters() {
+		int[] centers = new int[2 * clusters];
+		for (int i = 0; i < clusters; i++) {
+			centers[2 * i] = random.nextInt(width);
+			centers[2 * i + 1] = random.nextInt(height);
+		}
+
+		return centers;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća sljedeću boju, iz palete ili nasumično
+	 *
+	 * @return boja kao RGB vrijednost
+	 */
+	private int nextColor() {
+		return palette == null ? random.nextInt(0x1000000) : palette[random.nextInt(palette.length)];
+	}
+
+	/**
+	 * Pomoćna metoda koja vrijednost <b>value</b> ograničava na [0,
+	 * <b>limit</b>)
+	 *
+	 * @param value
+	 *            vrijednost koja se ograničava
+	 * @param limit
+	 *            gornja granica (isključivo)
+	 * @return ograničena vrijednost
+	 */
+	private static int clamp(int value, int limit) {
+		return Math.max(0, Math.min(limit - 1, value));
+	}
+
+	/**
+	 * Pomoćna metoda koja iz argumenata naredbenog retka dohvaća sjeme, koje
+	 * se mora postaviti prije ostalih postavki (zbog palete boja)
+	 *
+	 * @param args
+	 *            argumenti naredbenog retka
+	 * @return sjeme ili 0 ukoliko sjeme nije zadano
+	 */
+	private static long seed(String[] args) {
+		for (int i = 2; i < args.length; i += 2) {
+			if ("--seed".equals(args[i])) {
+				return Long.parseLong(args[i + 1]);
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Pomoćna metoda koja generatoru postavlja opciju <b>option</b> na
+	 * vrijednost <b>value</b>
+	 *
+	 * @param generator
+	 *            generator koji se podešava
+	 * @param option
+	 *            naziv opcije
+	 * @param value
+	 *            vrijednost opcije
+	 * @throws IllegalArgumentException
+	 *             ukoliko opcija ili vrijednost nisu ispravne
+	 */
+	private static void configure(JVDGenerator generator, String option, String value) {
+		switch (option) {
+		case "--seed":
+			break;
+		case "--mix":
+			String[] parts = value.split(":");
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("Mix must be L:C:F, was: " + value);
+			}
+			generator.setMix(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+			break;
+		case "--distribution":
+			for (int i = 0; i < DISTRIBUTIONS.length; i++) {
+				if (DISTRIBUTIONS[i].equals(value)) {
+					generator.setDistribution(i);
+					return;
+				}
+			}
+			throw new IllegalArgumentException("Unknown distribution: " + value);
+		case "--size":
+			String[] size = value.split("x");
+			if (size.length != 2) {
+				throw new IllegalArgumentException("Size must be WxH, was: " + value);
+			}
+			generator.setSize(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+			break;
+		case "--max-extent":
+			generator.setMaxExtent(Integer.parseInt(value));
+			break;
+		case "--clusters":
+			generator.setClusters(Integer.parseInt(value));
+			break;
+		case "--colors":
+			generator.setColors(Integer.parseInt(value));
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown option: " + option);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja ispisuje upute za korištenje programa te završava
+	 * program statusom 1
+	 */
+	private static void usage() {
+		System.err.println("Usage: JVDGenerator <output.jvd|output.jvdb> <count> [--seed N] [--mix L:C:F]");
+		System.err.println("       [--distribution uniform|clustered|overlapping] [--size WxH]");
+		System.err.println("       [--max-extent N] [--clusters N] [--colors N]");
+		System.exit(1);
+	}
+}
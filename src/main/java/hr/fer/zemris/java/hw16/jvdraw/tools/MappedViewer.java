@@ -0,0 +1,90 @@
+package hr.fer.zemris.java.hw16.jvdraw.tools;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Container;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.swing.ButtonGroup;
+import javax.swing.JFrame;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+
+import hr.fer.zemris.java.hw16.jvdraw.canvas.JDrawingCanvas;
+import hr.fer.zemris.java.hw16.jvdraw.colorArea.JColorArea;
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.model.DrawingObjectListModel;
+import hr.fer.zemris.java.hw16.jvdraw.model.MappedDrawingModel;
+
+/**
+ * Program koji prikazuje sadržaj .jvdb datoteke koristeći model
+ * {@link MappedDrawingModel}. Program kao jedini argument naredbenog retka
+ * prima putanju do .jvdb datoteke, a sadržaj prikazuje na komponenti
+ * {@link JDrawingCanvas} te unutar liste čiji je model
+ * {@link DrawingObjectListModel}. Crtanje novih objekata nije omogućeno.
+ *
+ * @author Davor Češljaš
+ */
+public class MappedViewer extends JFrame {
+
+	/**
+	 * Konstanta koja se koristi prilikom serijalizacije objekata ovog razreda
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param model
+	 *            model čiji se sadržaj prikazuje
+	 */
+	public MappedViewer(MappedDrawingModel model) {
+		setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+		setSize(800, 600);
+		setTitle("JVDraw viewer - " + model.getFile());
+		setLocationRelativeTo(null);
+
+		Container cp = getContentPane();
+		cp.setLayout(new BorderLayout());
+
+		JDrawingCanvas canvas = new JDrawingCanvas(model, new ButtonGroup(), new JColorArea(Color.BLACK),
+				new JColorArea(Color.WHITE));
+		cp.add(canvas, BorderLayout.CENTER);
+
+		JList<GeometricalObject> list = new JList<>(new DrawingObjectListModel(model));
+		list.setPrototypeCellValue(model.getObject(model.getSize() - 1));
+		cp.add(new JScrollPane(list), BorderLayout.EAST);
+	}
+
+	/**
+	 * Metoda od koje započinje izvođenje programa
+	 *
+	 * @param args
+	 *            argumenti naredbenog retka. Očekuje se putanja do .jvdb
+	 *            datoteke
+	 */
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Expected one argument: path to .jvdb file");
+			System.exit(1);
+		}
+
+		Path file = Paths.get(args[0]);
+		SwingUtilities.invokeLater(() -> {
+			try {
+				new MappedViewer(new MappedDrawingModel(file)).setVisible(true);
+			} catch (IOException e) {
+				JOptionPane.showMessageDialog(
+						null,
+						"Unable to open file: " + file,
+						"Unable to open file",
+						JOptionPane.ERROR_MESSAGE);
+			}
+		});
+	}
+}
@@ -0,0 +1,201 @@
+package hr.fer.zemris.java.hw16.jvdraw.worker;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw16.jvdraw.graphicalObject.GeometricalObject;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryReader;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParseError;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDParser;
+import hr.fer.zemris.java.hw16.jvdraw.io.ProgressChannel;
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}. Primjerak ovog razreda u
+ * pozadinskoj dretvi učitava .jvd ili .jvdb datoteku u zaseban primjerak
+ * razreda {@link JVDrawingModel}, koji nema promatrača, pa se i prostorni
+ * indeks gradi izvan dretve za obradu događaja. Po završetku se učitani model
+ * metodom {@link JVDrawingModel#replaceContents(JVDrawingModel)} može
+ * zamijeniti u model prikazan na ekranu.
+ * <p>
+ * .jvd datoteke veličine barem {@value JVDrawingModel#PARALLEL_LOAD_THRESHOLD}
+ * okteta parsiraju se paralelno (vidi {@link JVDParser}), a manje se čitaju
+ * slijedno.
+ * </p>
+ * <p>
+ * Tijekom učitavanja napredak (postotak pročitanih okteta) se objavljuje
+ * metodom {@link #setProgress(int)}, a broj pročitanih okteta i objekata
+ * dohvaća se metodama {@link #getBytesRead()} i {@link #getObjectsRead()}.
+ * Učitavanje se prekida metodom {@link #cancel(boolean)} s argumentom
+ * <code>true</code>, jer se time prekida slijedno čitanje iz datoteke, dok
+ * paralelno parsiranje stane na kraju retka.
+ * </p>
+ *
+ * @see ProgressChannel
+ *
+ * @author Davor Češljaš
+ */
+public class OpenWorker extends SwingWorker<JVDrawingModel, Void> {
+
+	/** Članska varijabla koja predstavlja putanju do datoteke koja se učitava */
+	private Path file;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to učitava
+	 * li se .jvdb datoteka
+	 */
+	private boolean binary;
+
+	/** Članska varijabla koja predstavlja veličinu datoteke u oktetima */
+	private volatile long fileSize;
+
+	/** Članska varijabla koja predstavlja broj pročitanih okteta */
+	private volatile long bytesRead;
+
+	/** Članska varijabla koja predstavlja broj pročitanih objekata */
+	private volatile int objectsRead;
+
+	/** Članska varijabla koja predstavlja pogreške parsiranja .jvd datoteke */
+	private List<JVDParseError> errors;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param file
+	 *            putanja do datoteke koja se učitava
+	 * @param binary
+	 *            <code>true</code> ukoliko se učitava .jvdb datoteka,
+	 *            <code>false</code> ukoliko se učitava .jvd datoteka
+	 */
+	public OpenWorker(Path file, boolean binary) {
+		this.file = file;
+		this.binary = binary;
+		this.errors = Collections.emptyList();
+	}
+
+	/**
+	 * Metoda koja dohvaća putanju do datoteke koja se učitava
+	 *
+	 * @return putanja do datoteke koja se učitava
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu datoteke koja se učitava
+	 *
+	 * @return veličina datoteke u oktetima ili 0 ukoliko datoteka još nije
+	 *         otvorena
+	 */
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj do sada pročitanih okteta
+	 *
+	 * @return broj pročitanih okteta
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj do sada pročitanih objekata
+	 *
+	 * @return broj pročitanih objekata
+	 */
+	public int getObjectsRead() {
+		return objectsRead;
+	}
+
+	/**
+	 * Metoda koja dohvaća pogreške nastale prilikom parsiranja .jvd datoteke.
+	 * Rezultat je ispravan tek nakon završetka učitavanja.
+	 *
+	 * @return {@link List} pogrešaka parsiranja
+	 */
+	public List<JVDParseError> getErrors() {
+		return errors;
+	}
+
+	@Override
+	protected JVDrawingModel doInBackground() throws IOException {
+		fileSize = Files.size(file);
+		List<GeometricalObject> objects;
+
+		if (!binary && fileSize >= JVDrawingModel.PARALLEL_LOAD_THRESHOLD) {
+			JVDParser parser = new JVDParser();
+			try {
+				objects = parser.parseParallel(file, ForkJoinPool.commonPool(),
+						bytes -> reportProgress(bytes, parser.getObjectsParsed()), this::isCancelled);
+			} catch (CancellationException e) {
+				return null;
+			}
+			errors = parser.getErrors();
+		} else {
+			objects = read();
+		}
+		objectsRead = objects.size();
+
+		if (isCancelled()) {
+			return null;
+		}
+
+		JVDrawingModel loaded = new JVDrawingModel();
+		loaded.addAll(objects);
+		return loaded;
+	}
+
+	/**
+	 * Pomoćna metoda koja slijedno čita datoteku koja se učitava
+	 *
+	 * @return {@link List} pročitanih objekata
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	private List<GeometricalObject> read() throws IOException {
+		List<GeometricalObject> objects = new ArrayList<>();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			fileSize = channel.size();
+			ProgressChannel progressChannel = new ProgressChannel(channel,
+					bytes -> reportProgress(bytes, objects.size()));
+
+			if (binary) {
+				new JVDBinaryReader().read(progressChannel, objects);
+			} else {
+				JVDParser parser = new JVDParser();
+				parser.parse(progressChannel, objects);
+				errors = parser.getErrors();
+			}
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Pomoćna metoda koja bilježi i objavljuje napredak učitavanja
+	 *
+	 * @param bytes
+	 *            broj do sada pročitanih okteta
+	 * @param objects
+	 *            broj do sada pročitanih objekata
+	 */
+	private void reportProgress(long bytes, int objects) {
+		bytesRead = bytes;
+		objectsRead = objects;
+		setProgress((int) Math.min(100, 100 * bytes / Math.max(1, fileSize)));
+	}
+}
@@ -0,0 +1,177 @@
+package hr.fer.zemris.java.hw16.jvdraw.worker;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDBinaryWriter;
+import hr.fer.zemris.java.hw16.jvdraw.io.JVDWriter;
+import hr.fer.zemris.java.hw16.jvdraw.model.JVDrawingModel;
+import hr.fer.zemris.java.hw16.jvdraw.model.PrimitiveDrawingModel;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}. Primjerak ovog razreda u
+ * pozadinskoj dretvi zapisuje snimku modela (vidi
+ * {@link JVDrawingModel#snapshot()}) u .jvd ili .jvdb datoteku, pa se model
+ * tijekom spremanja može i dalje mijenjati.
+ * <p>
+ * Sadržaj se najprije zapisuje u privremenu datoteku unutar istog direktorija,
+ * koja se nakon zapisivanja sinkronizira s diskom te se premješta preko ciljne
+ * datoteke, atomarno ukoliko to datotečni sustav podržava. Time ciljna
+ * datoteka u svakom trenutku sadrži ili stari ili novi sadržaj. Ukoliko
+ * spremanje ne uspije ili se prekine metodom {@link #cancel(boolean)},
+ * privremena datoteka se briše, a ciljna ostaje netaknuta.
+ * </p>
+ * <p>
+ * Tijekom spremanja napredak (postotak zapisanih objekata) se objavljuje
+ * metodom {@link #setProgress(int)}.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class SaveWorker extends SwingWorker<Void, Void> {
+
+	/**
+	 * Konstanta koja predstavlja broj objekata nakon kojeg se objavljuje
+	 * napredak
+	 */
+	private static final int PROGRESS_STEP = 16 * 1024;
+
+	/** Članska varijabla koja predstavlja snimku modela koja se zapisuje */
+	private PrimitiveDrawingModel snapshot;
+
+	/** Članska varijabla koja predstavlja putanju do ciljne datoteke */
+	private Path file;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to zapisuje
+	 * li se .jvdb datoteka
+	 */
+	private boolean binary;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param snapshot
+	 *            snimka modela koja se zapisuje. Snimka se nakon predaje ne
+	 *            smije mijenjati
+	 * @param file
+	 *            putanja do ciljne datoteke
+	 * @param binary
+	 *            <code>true</code> ukoliko se zapisuje .jvdb datoteka,
+	 *            <code>false</code> ukoliko se zapisuje .jvd datoteka
+	 */
+	public SaveWorker(PrimitiveDrawingModel snapshot, Path file, boolean binary) {
+		this.snapshot = snapshot;
+		this.file = file;
+		this.binary = binary;
+	}
+
+	/**
+	 * Metoda koja dohvaća putanju do ciljne datoteke
+	 *
+	 * @return putanja do ciljne datoteke
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	@Override
+	protected Void doInBackground() throws IOException {
+		Path target = file.toAbsolutePath();
+		Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+
+		boolean moved = false;
+		try {
+			copyPermissions(target, temp);
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				write(channel);
+				channel.force(true);
+			}
+
+			if (isCancelled()) {
+				return null;
+			}
+
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			moved = true;
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(temp);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja privremenoj datoteci <b>temp</b> postavlja POSIX
+	 * dozvole ciljne datoteke <b>target</b>, ukoliko ona postoji i ukoliko
+	 * datotečni sustav podržava takve dozvole
+	 *
+	 * @param target
+	 *            ciljna datoteka
+	 * @param temp
+	 *            privremena datoteka
+	 * @throws IOException
+	 *             ukoliko dozvole nije moguće pročitati ili postaviti
+	 */
+	private static void copyPermissions(Path target, Path temp) throws IOException {
+		if (!Files.exists(target)) {
+			return;
+		}
+
+		try {
+			Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sve objekte snimke zapisuje u kanal <b>channel</b>,
+	 * u formatu određenom zastavicom {@link #binary}, te pri tome objavljuje
+	 * napredak
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuje
+	 * @throws IOException
+	 *             ukoliko u kanal nije moguće pisati
+	 */
+	private void write(FileChannel channel) throws IOException {
+		int size = snapshot.getSize();
+		JVDBinaryWriter binaryWriter = binary ? new JVDBinaryWriter(channel) : null;
+		JVDWriter textWriter = binary ? null : new JVDWriter(channel);
+
+		for (int i = 0; i < size; i++) {
+			if (binary) {
+				binaryWriter.write(snapshot.getObject(i));
+			} else {
+				textWriter.write(snapshot.getObject(i));
+			}
+
+			if (i % PROGRESS_STEP == 0) {
+				if (isCancelled()) {
+					return;
+				}
+				setProgress((int) (100L * i / size));
+			}
+		}
+
+		if (binary) {
+			binaryWriter.finish();
+		} else {
+			textWriter.flush();
+		}
+		setProgress(100);
+	}
+}